@@ -0,0 +1,267 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.terasology.gestalt.assets.ResourceUrn;
+import org.terasology.workstation.process.DescribeProcess;
+import org.terasology.workstation.process.ProcessPartDescription;
+import org.terasology.workstation.process.WorkstationProcess;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Transitive view of the recipes of a {@link WorkstationProcessIndex}.
+ * <p>
+ * Every resource that is the output of a process is made by its recipe, the first of its output processes in
+ * process type order. Resources without a recipe, and resources whose recipes depend on themselves, are base
+ * materials. The expansion of a resource into base materials is computed once and then kept.
+ * </p>
+ * <p>
+ * Only inputs with a resource urn are expanded. Inputs that accept any resource of a tag, e.g., "any wood", have no
+ * single resource to expand into and are left out of the base materials.
+ * </p>
+ */
+public class RecipeGraph {
+    /** Matches a leading quantity in a description's display name, e.g., "3 Plank" or "3x Plank". */
+    static final Pattern QUANTITY_PATTERN = Pattern.compile("^\\s*(\\d+)\\s*[xX]?\\s+");
+
+    private final WorkstationProcessIndex index;
+
+    /** The recipe of each resource that is not a base material. */
+    private final Map<ResourceUrn, WorkstationProcess> recipes = Maps.newHashMap();
+
+    /** The resources consumed by the recipe of each resource that has one. */
+    private final Map<ResourceUrn, List<ResourceUrn>> dependencies = Maps.newHashMap();
+
+    /** Resources whose recipe depends on themselves, directly or transitively. */
+    private final Set<ResourceUrn> cyclic = Sets.newHashSet();
+
+    /** All resources, each one after the resources its recipe depends on. */
+    private final List<ResourceUrn> topologicalOrder;
+
+    /** Memoized expansions into base materials, per resource. */
+    private final Map<ResourceUrn, Map<ResourceUrn, Double>> baseMaterials = Maps.newHashMap();
+
+    /**
+     * Builds the recipe graph of an index.
+     *
+     * @param index the index to build the graph of.
+     */
+    public RecipeGraph(WorkstationProcessIndex index) {
+        this.index = index;
+        for (ResourceUrn resourceUrn : index.getResourceUrns()) {
+            for (WorkstationProcess process : index.getOutputProcesses(resourceUrn)) {
+                if (process instanceof DescribeProcess) {
+                    recipes.put(resourceUrn, process);
+                    dependencies.put(resourceUrn, getInputResourceUrns((DescribeProcess) process));
+                    break;
+                }
+            }
+        }
+        this.topologicalOrder = Collections.unmodifiableList(findStronglyConnectedComponents());
+        for (ResourceUrn resourceUrn : cyclic) {
+            recipes.remove(resourceUrn);
+            dependencies.remove(resourceUrn);
+        }
+    }
+
+    /**
+     * @return the index this graph was built from.
+     */
+    public WorkstationProcessIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * @return all resources, each one after the resources its recipe depends on.
+     */
+    public List<ResourceUrn> getTopologicalOrder() {
+        return topologicalOrder;
+    }
+
+    /**
+     * @param resourceUrn the resource to check.
+     * @return true if the recipe of the resource depends on the resource itself.
+     */
+    public boolean isCyclic(ResourceUrn resourceUrn) {
+        return cyclic.contains(resourceUrn);
+    }
+
+    /**
+     * @param resourceUrn the resource to get the recipe of.
+     * @return the process used to make the resource, or null if it is a base material.
+     */
+    public WorkstationProcess getRecipe(ResourceUrn resourceUrn) {
+        return recipes.get(resourceUrn);
+    }
+
+    /**
+     * Expands a resource into the base materials needed to make one of it. Inputs of a tag are not included.
+     *
+     * @param resourceUrn the resource to expand.
+     * @return the quantity of each base material, in order of first use. A base material expands to itself.
+     */
+    public synchronized Map<ResourceUrn, Double> getBaseMaterials(ResourceUrn resourceUrn) {
+        // expands the dependencies first without recursion, so deep recipe chains do not overflow the stack
+        Deque<ResourceUrn> pending = new ArrayDeque<>();
+        pending.push(resourceUrn);
+        while (!pending.isEmpty()) {
+            ResourceUrn current = pending.peek();
+            if (baseMaterials.containsKey(current)) {
+                pending.pop();
+                continue;
+            }
+            WorkstationProcess recipe = recipes.get(current);
+            if (recipe == null) {
+                baseMaterials.put(current, Collections.singletonMap(current, 1.0));
+                pending.pop();
+                continue;
+            }
+            boolean dependenciesExpanded = true;
+            for (ResourceUrn dependency : dependencies.get(current)) {
+                if (!baseMaterials.containsKey(dependency)) {
+                    pending.push(dependency);
+                    dependenciesExpanded = false;
+                }
+            }
+            if (dependenciesExpanded) {
+                baseMaterials.put(current, expand(current, (DescribeProcess) recipe));
+                pending.pop();
+            }
+        }
+        return baseMaterials.get(resourceUrn);
+    }
+
+    /**
+     * Expands a recipe whose inputs are expanded already. Inputs without a resource urn, i.e., inputs of a tag, are
+     * skipped, as they do not name the resource that is consumed.
+     */
+    private Map<ResourceUrn, Double> expand(ResourceUrn resourceUrn, DescribeProcess recipe) {
+        int outputQuantity = 0;
+        for (ProcessPartDescription output : recipe.getOutputDescriptions()) {
+            if (resourceUrn.equals(output.getResourceUrn())) {
+                outputQuantity += getQuantity(output);
+            }
+        }
+        Map<ResourceUrn, Double> result = Maps.newLinkedHashMap();
+        for (ProcessPartDescription input : recipe.getInputDescriptions()) {
+            if (input.getResourceUrn() == null) {
+                continue;
+            }
+            double factor = (double) getQuantity(input) / Math.max(1, outputQuantity);
+            for (Map.Entry<ResourceUrn, Double> entry : baseMaterials.get(input.getResourceUrn()).entrySet()) {
+                result.merge(entry.getKey(), entry.getValue() * factor, Double::sum);
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Gets the quantity of a process part from the leading number of its display name.
+     *
+     * @param description the description of the process part.
+     * @return the quantity, 1 if the display name does not start with a number.
+     */
+    public static int getQuantity(ProcessPartDescription description) {
+        String displayName = description.getDisplayName();
+        if (displayName != null) {
+            Matcher matcher = QUANTITY_PATTERN.matcher(displayName);
+            if (matcher.find()) {
+                try {
+                    return Math.max(1, Integer.parseInt(matcher.group(1)));
+                } catch (NumberFormatException e) {
+                    return 1;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Runs Tarjan's algorithm without recursion over the recipe dependencies, marking resources on cycles.
+     *
+     * @return all resources in reverse topological order of the components, i.e., dependencies first.
+     */
+    private List<ResourceUrn> findStronglyConnectedComponents() {
+        Map<ResourceUrn, Integer> indices = Maps.newHashMap();
+        Map<ResourceUrn, Integer> lowLinks = Maps.newHashMap();
+        Set<ResourceUrn> onStack = Sets.newHashSet();
+        Deque<ResourceUrn> stack = new ArrayDeque<>();
+        List<ResourceUrn> order = Lists.newArrayListWithCapacity(index.getResourceUrns().size());
+
+        for (ResourceUrn root : index.getResourceUrns()) {
+            if (indices.containsKey(root)) {
+                continue;
+            }
+            Deque<ResourceUrn> callStack = new ArrayDeque<>();
+            Deque<Integer> nextDependency = new ArrayDeque<>();
+            callStack.push(root);
+            nextDependency.push(0);
+            indices.put(root, indices.size());
+            lowLinks.put(root, indices.get(root));
+            stack.push(root);
+            onStack.add(root);
+
+            while (!callStack.isEmpty()) {
+                ResourceUrn node = callStack.peek();
+                List<ResourceUrn> nodeDependencies = dependencies.getOrDefault(node, Collections.emptyList());
+                int next = nextDependency.pop();
+                if (next < nodeDependencies.size()) {
+                    nextDependency.push(next + 1);
+                    ResourceUrn dependency = nodeDependencies.get(next);
+                    if (!indices.containsKey(dependency)) {
+                        indices.put(dependency, indices.size());
+                        lowLinks.put(dependency, indices.get(dependency));
+                        stack.push(dependency);
+                        onStack.add(dependency);
+                        callStack.push(dependency);
+                        nextDependency.push(0);
+                    } else if (onStack.contains(dependency)) {
+                        lowLinks.put(node, Math.min(lowLinks.get(node), indices.get(dependency)));
+                    }
+                    continue;
+                }
+
+                callStack.pop();
+                if (!callStack.isEmpty()) {
+                    ResourceUrn parent = callStack.peek();
+                    lowLinks.put(parent, Math.min(lowLinks.get(parent), lowLinks.get(node)));
+                }
+                if (lowLinks.get(node).equals(indices.get(node))) {
+                    List<ResourceUrn> component = Lists.newArrayList();
+                    ResourceUrn member;
+                    do {
+                        member = stack.pop();
+                        onStack.remove(member);
+                        component.add(member);
+                    } while (!member.equals(node));
+                    if (component.size() > 1 || nodeDependencies.contains(node)) {
+                        cyclic.addAll(component);
+                    }
+                    order.addAll(component);
+                }
+            }
+        }
+        return order;
+    }
+
+    private static List<ResourceUrn> getInputResourceUrns(DescribeProcess recipe) {
+        List<ResourceUrn> inputs = Lists.newArrayList();
+        for (ProcessPartDescription input : recipe.getInputDescriptions()) {
+            if (input.getResourceUrn() != null && !inputs.contains(input.getResourceUrn())) {
+                inputs.add(input.getResourceUrn());
+            }
+        }
+        return inputs;
+    }
+}
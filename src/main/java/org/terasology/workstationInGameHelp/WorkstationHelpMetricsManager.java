@@ -0,0 +1,17 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp;
+
+import org.terasology.workstationInGameHelp.metrics.WorkstationHelpMetrics;
+
+/**
+ * Keeps the metrics of the workstation help.
+ */
+public interface WorkstationHelpMetricsManager {
+    /**
+     * Gets the metrics of the index build, of the search and of the help items.
+     *
+     * @return the metrics to record to and read from.
+     */
+    WorkstationHelpMetrics getMetrics();
+}
@@ -0,0 +1,226 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.util.Map;
+
+/**
+ * The settings of the workstation help, kept in {@link #FILE_NAME} in the sandbox of the module and changed with the
+ * {@code workstationHelpSetting} command.
+ * <p>
+ * Other modules may also change them through {@link WorkstationHelpSettingsManager#getSettings()} in their
+ * {@code initialise()}. Settings of the index build take effect when the index is built on the next start, the
+ * others right away.
+ * </p>
+ */
+public class WorkstationHelpSettings {
+    /** The name of the settings file in the sandbox of the module. */
+    public static final String FILE_NAME = "workstationInGameHelp.json";
+
+    private static final Gson GSON = new Gson();
+
+    private volatile boolean parallelIndexBuild;
+
+    private volatile boolean asyncIndexBuild;
+
+    private volatile int pageSize;
+
+    private volatile boolean registerFullCostHelpItems;
+
+    private volatile boolean useIndexSnapshot = true;
+
+    private volatile boolean replicateIndexToClients = true;
+
+    private volatile boolean filterByUnlockedProcesses;
+
+    /**
+     * @return whether the process index is built on the common fork-join pool.
+     */
+    public boolean isParallelIndexBuild() {
+        return parallelIndexBuild;
+    }
+
+    /**
+     * Sets whether the process index is built on the common fork-join pool. Only worth it for large process
+     * catalogues, and requires the participating processes to describe themselves thread-safely. Ignored if the index
+     * is {@link #setAsyncIndexBuild(boolean) built over several frames}. Takes effect on the next start.
+     *
+     * @param parallelIndexBuild whether to build the index in parallel.
+     */
+    public void setParallelIndexBuild(boolean parallelIndexBuild) {
+        this.parallelIndexBuild = parallelIndexBuild;
+    }
+
+    /**
+     * @return whether the process index is built over several frames instead of blocking the first frame.
+     */
+    public boolean isAsyncIndexBuild() {
+        return asyncIndexBuild;
+    }
+
+    /**
+     * Sets whether the process index is built over several frames instead of blocking the first frame. The processes
+     * are described on the game thread within a time budget per frame, and their help items show a loading paragraph
+     * until the index is published. Takes effect on the next start.
+     *
+     * @param asyncIndexBuild whether to build the index over several frames.
+     */
+    public void setAsyncIndexBuild(boolean asyncIndexBuild) {
+        this.asyncIndexBuild = asyncIndexBuild;
+    }
+
+    /**
+     * @return the number of paragraphs the input, output and recipes help items show at first and per "show next"
+     *         click, or 0 to show all of them.
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Sets the number of paragraphs, including process type headers, the input, output and recipes help items show at
+     * first and per "show next" click. Paragraphs past the shown ones are never built. Takes effect the next time a
+     * help page is shown.
+     *
+     * @param pageSize the number of paragraphs per page, or 0 to show all of them.
+     */
+    public void setPageSize(int pageSize) {
+        this.pageSize = Math.max(0, pageSize);
+    }
+
+    /**
+     * @return whether craftable resources get a help item listing the base materials they need in total.
+     */
+    public boolean isRegisterFullCostHelpItems() {
+        return registerFullCostHelpItems;
+    }
+
+    /**
+     * Sets whether craftable resources get a help item listing the base materials they need in total. Takes effect on
+     * the next start, as help items cannot be removed from the help registry.
+     *
+     * @param registerFullCostHelpItems whether to register full cost help items.
+     */
+    public void setRegisterFullCostHelpItems(boolean registerFullCostHelpItems) {
+        this.registerFullCostHelpItems = registerFullCostHelpItems;
+    }
+
+    /**
+     * @return whether the process index is loaded from a snapshot written on an earlier start.
+     */
+    public boolean isUseIndexSnapshot() {
+        return useIndexSnapshot;
+    }
+
+    /**
+     * Sets whether the process index is written to a snapshot file in the sandbox of the module after a full build,
+     * and loaded from it on the next start if the module versions, the set of processes and their inputs and outputs
+     * did not change. On by default. Takes effect on the next start.
+     *
+     * @param useIndexSnapshot whether to use index snapshots.
+     */
+    public void setUseIndexSnapshot(boolean useIndexSnapshot) {
+        this.useIndexSnapshot = useIndexSnapshot;
+    }
+
+    /**
+     * @return whether remote clients receive the index built by the server instead of building their own.
+     */
+    public boolean isReplicateIndexToClients() {
+        return replicateIndexToClients;
+    }
+
+    /**
+     * Sets whether remote clients receive the index built by the server instead of building their own. A client still
+     * builds its own index if the index of the server does not match its module environment and processes, or if the
+     * server does not answer in time. Takes effect on the next start of the client.
+     *
+     * @param replicateIndexToClients whether clients request the index from the server.
+     */
+    public void setReplicateIndexToClients(boolean replicateIndexToClients) {
+        this.replicateIndexToClients = replicateIndexToClients;
+    }
+
+    /**
+     * @return whether the help only shows the processes the local player unlocked.
+     */
+    public boolean isFilterByUnlockedProcesses() {
+        return filterByUnlockedProcesses;
+    }
+
+    /**
+     * Sets whether the help only shows the processes the local player unlocked, e.g., on servers where recipes have
+     * to be discovered, see {@link WorkstationProcessVisibilityManager}. Help items are still registered for all
+     * indexed resources. Takes effect right away.
+     *
+     * @param filterByUnlockedProcesses whether to filter the shown processes by unlocked processes.
+     */
+    public void setFilterByUnlockedProcesses(boolean filterByUnlockedProcesses) {
+        this.filterByUnlockedProcesses = filterByUnlockedProcesses;
+    }
+
+    /**
+     * Copies all settings of another instance into this one.
+     *
+     * @param other the settings to copy.
+     */
+    public void copyFrom(WorkstationHelpSettings other) {
+        parallelIndexBuild = other.parallelIndexBuild;
+        asyncIndexBuild = other.asyncIndexBuild;
+        pageSize = Math.max(0, other.pageSize);
+        registerFullCostHelpItems = other.registerFullCostHelpItems;
+        useIndexSnapshot = other.useIndexSnapshot;
+        replicateIndexToClients = other.replicateIndexToClients;
+        filterByUnlockedProcesses = other.filterByUnlockedProcesses;
+    }
+
+    /**
+     * @return the settings as a JSON object, one member per setting.
+     */
+    public JsonObject toJson() {
+        return GSON.toJsonTree(this).getAsJsonObject();
+    }
+
+    /**
+     * Reads settings from JSON. Settings missing in json keep their default value.
+     *
+     * @param json the JSON text, as written by {@link #toJson()}.
+     * @return the read settings.
+     * @throws JsonParseException if json is not valid or a setting has a value of the wrong type.
+     */
+    public static WorkstationHelpSettings fromJson(String json) {
+        WorkstationHelpSettings settings = GSON.fromJson(json, WorkstationHelpSettings.class);
+        return settings != null ? settings : new WorkstationHelpSettings();
+    }
+
+    /**
+     * Gets a copy of these settings with one setting changed.
+     *
+     * @param name the name of the setting, as in {@link #toJson()}.
+     * @param value the new value of the setting, in JSON syntax.
+     * @return the changed copy.
+     * @throws IllegalArgumentException if there is no such setting.
+     * @throws JsonParseException if value is not valid for the setting.
+     */
+    public WorkstationHelpSettings with(String name, String value) {
+        JsonObject json = toJson();
+        if (!json.has(name)) {
+            throw new IllegalArgumentException("Unknown setting " + name + ", expected one of " + json.keySet());
+        }
+        JsonElement parsed = JsonParser.parseString(value);
+        json.add(name, parsed);
+        WorkstationHelpSettings changed = GSON.fromJson(json, WorkstationHelpSettings.class);
+        for (Map.Entry<String, JsonElement> setting : changed.toJson().entrySet()) {
+            if (!setting.getValue().equals(json.get(setting.getKey()))) {
+                throw new JsonParseException(value + " is not a valid value for " + name);
+            }
+        }
+        return changed;
+    }
+}
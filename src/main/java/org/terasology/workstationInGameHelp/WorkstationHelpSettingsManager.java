@@ -0,0 +1,21 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp;
+
+/**
+ * Keeps the settings of the workstation help and their file.
+ */
+public interface WorkstationHelpSettingsManager {
+    /**
+     * Gets the settings of the workstation help. Changes to settings of the index build only take effect on the next
+     * start, unless they are made before the index is built, e.g., in the {@code initialise()} of another system.
+     *
+     * @return the live settings.
+     */
+    WorkstationHelpSettings getSettings();
+
+    /**
+     * Saves the current settings to the settings file, so they are used on the next start.
+     */
+    void saveSettings();
+}
@@ -0,0 +1,102 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp;
+
+import com.google.gson.stream.JsonWriter;
+import org.terasology.workstation.process.DescribeProcess;
+import org.terasology.workstation.process.ProcessPartDescription;
+import org.terasology.workstation.process.WorkstationProcess;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+
+/**
+ * Streams the workstation processes of a {@link WorkstationProcessIndex} as JSON Lines, e.g., for balancing tools.
+ * All indexed processes are exported, no matter which of them a player unlocked.
+ * <p>
+ * The first line is a header with the format version and all process types. Every following line is one process:
+ * </p>
+ * <pre>
+ *     {"id":"...","type":"...","inputs":[{"urn":"...","name":"...","quantity":1}],"outputs":[...]}
+ * </pre>
+ * <p>
+ * Parts without a resource urn have a {@code "tag"} instead of a {@code "urn"}. Records are written as the processes
+ * are visited, so memory use does not grow with the number of processes.
+ * </p>
+ */
+public final class WorkstationProcessExporter {
+    /** Version of the record layout. Bump it when fields change meaning or are removed. */
+    public static final int FORMAT_VERSION = 1;
+
+    private WorkstationProcessExporter() {
+    }
+
+    /**
+     * Writes all processes of an index as JSON Lines, grouped by process type.
+     *
+     * @param index the index to export.
+     * @param out the writer to write to. It is not closed.
+     * @return the number of exported processes.
+     * @throws IOException if writing fails.
+     */
+    public static int exportJsonLines(WorkstationProcessIndex index, Writer out) throws IOException {
+        JsonWriter json = new JsonWriter(out);
+        // lenient mode allows one top-level value per line
+        json.setLenient(true);
+
+        Collection<String> processTypes = index.getProcessTypes();
+        json.beginObject();
+        json.name("format").value("workstationProcesses");
+        json.name("version").value(FORMAT_VERSION);
+        json.name("processTypes").beginArray();
+        for (String processType : processTypes) {
+            json.value(processType);
+        }
+        json.endArray();
+        json.endObject();
+        out.write('\n');
+
+        int count = 0;
+        for (String processType : processTypes) {
+            for (WorkstationProcess process : index.getProcessGroupOfType(processType).getProcesses()) {
+                writeProcess(json, process);
+                out.write('\n');
+                count++;
+            }
+        }
+        json.flush();
+        return count;
+    }
+
+    private static void writeProcess(JsonWriter json, WorkstationProcess process) throws IOException {
+        json.beginObject();
+        json.name("id").value(process.getId());
+        json.name("type").value(process.getProcessType());
+        if (process instanceof DescribeProcess) {
+            DescribeProcess describeProcess = (DescribeProcess) process;
+            json.name("inputs");
+            writeParts(json, describeProcess.getInputDescriptions());
+            json.name("outputs");
+            writeParts(json, describeProcess.getOutputDescriptions());
+        }
+        json.endObject();
+    }
+
+    private static void writeParts(JsonWriter json, Collection<ProcessPartDescription> descriptions)
+            throws IOException {
+        json.beginArray();
+        for (ProcessPartDescription description : descriptions) {
+            json.beginObject();
+            if (description.getResourceUrn() != null) {
+                json.name("urn").value(description.getResourceUrn().toString());
+            } else {
+                json.name("tag").value(WorkstationProcessIndex.getTag(description));
+            }
+            json.name("name").value(description.getDisplayName());
+            json.name("quantity").value(RecipeGraph.getQuantity(description));
+            json.endObject();
+        }
+        json.endArray();
+    }
+}
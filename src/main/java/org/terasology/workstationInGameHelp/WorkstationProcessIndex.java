@@ -0,0 +1,1902 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.terasology.gestalt.assets.ResourceUrn;
+import org.terasology.workstation.process.DescribeProcess;
+import org.terasology.workstation.process.ProcessPartDescription;
+import org.terasology.workstation.process.WorkstationProcess;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Frozen index of workstation processes by the resource urns of their inputs and outputs.
+ * <p>
+ * Resource urns are interned to dense ids and all processes are kept in a single array. For each direction the
+ * processes related to a resource urn are stored in compressed sparse row form: {@code offsets[id]} to
+ * {@code offsets[id + 1]} is the range of the adjacency array holding the indices of the related processes.
+ * Lookups return read-only views of that range without copying.
+ * </p>
+ * <p>
+ * The processes of each resource urn are ordered by process type, and the start of each process type group is stored
+ * alongside, so help pages can be split into per-workstation sections without sorting at render time.
+ * </p>
+ * <p>
+ * In the same pass the index is inverted per process type, answering which processes, input resources and output
+ * resources belong to a workstation without scanning all processes.
+ * </p>
+ * <p>
+ * Inputs without a resource urn, e.g., "any wood", are indexed by their {@link #getTag(ProcessPartDescription) tag}
+ * in a third row set. Each tag row is stored once and shared by all resources that are members of the tag; the
+ * membership itself is not part of the index and is passed in at lookup time.
+ * </p>
+ * <p>
+ * The rows are also inverted per process, so {@link #change(Collection, Collection) changing} the index finds the
+ * rows of a removed process without describing it again, and rebuilds only the rows related to the changed processes.
+ * Process ids stay stable across changes: removed processes leave a hole in the process array and added ones are
+ * appended, until the holes outnumber the processes and the index is compacted.
+ * </p>
+ */
+public final class WorkstationProcessIndex {
+    /** An index without any processes. */
+    public static final WorkstationProcessIndex EMPTY = new Builder().build();
+
+    /** Number of processes below which a parallel build does not split the work any further. */
+    private static final int PARALLEL_CHUNK_SIZE = 1024;
+
+    /** Maps resource urns to their dense ids. */
+    private final Map<ResourceUrn, Integer> resourceUrnIds;
+
+    /** The resource urn of each id. */
+    private final ResourceUrn[] resourceUrns;
+
+    /** All indexed processes, in the order they were added, with null for the ids of removed processes. */
+    private final WorkstationProcess[] processes;
+
+    /** The indexed processes without the holes of removed ones, or null if there are no holes. */
+    private final List<WorkstationProcess> liveProcesses;
+
+    /** Per process type views of the index. */
+    private final ProcessTypeIndex processTypeIndex;
+
+    /** Per process views of the index. */
+    private final ProcessPartIndex processPartIndex;
+
+    /** The id of each indexed process, built on first use. */
+    private volatile Map<WorkstationProcess, Integer> processIds;
+
+    private final int[] inputOffsets;
+    private final int[] inputAdjacency;
+    /** {@code inputGroupOffsets[id]} to {@code inputGroupOffsets[id + 1]} is the range of inputGroupStarts of a urn. */
+    private final int[] inputGroupOffsets;
+    /** The adjacency index at which each process type group starts. */
+    private final int[] inputGroupStarts;
+    private final int[] outputOffsets;
+    private final int[] outputAdjacency;
+    private final int[] outputGroupOffsets;
+    private final int[] outputGroupStarts;
+
+    /** Maps the tags of inputs without a resource urn to their dense ids. */
+    private final Map<String, Integer> tagIds;
+    /** The tag of each tag id. */
+    private final String[] tags;
+    private final int[] tagOffsets;
+    private final int[] tagAdjacency;
+    private final int[] tagGroupOffsets;
+    private final int[] tagGroupStarts;
+
+    private WorkstationProcessIndex(Map<ResourceUrn, Integer> resourceUrnIds, ResourceUrn[] resourceUrns,
+                                    WorkstationProcess[] processes, ProcessTypeIndex processTypeIndex,
+                                    ProcessPartIndex processPartIndex,
+                                    int[] inputOffsets, int[] inputAdjacency,
+                                    int[] inputGroupOffsets, int[] inputGroupStarts,
+                                    int[] outputOffsets, int[] outputAdjacency,
+                                    int[] outputGroupOffsets, int[] outputGroupStarts,
+                                    Map<String, Integer> tagIds, String[] tags, int[] tagOffsets, int[] tagAdjacency,
+                                    int[] tagGroupOffsets, int[] tagGroupStarts) {
+        this.resourceUrnIds = resourceUrnIds;
+        this.resourceUrns = resourceUrns;
+        this.processes = processes;
+        this.liveProcesses = findLiveProcesses(processes);
+        this.processTypeIndex = processTypeIndex;
+        this.processPartIndex = processPartIndex;
+        this.inputOffsets = inputOffsets;
+        this.inputAdjacency = inputAdjacency;
+        this.inputGroupOffsets = inputGroupOffsets;
+        this.inputGroupStarts = inputGroupStarts;
+        this.outputOffsets = outputOffsets;
+        this.outputAdjacency = outputAdjacency;
+        this.outputGroupOffsets = outputGroupOffsets;
+        this.outputGroupStarts = outputGroupStarts;
+        this.tagIds = tagIds;
+        this.tags = tags;
+        this.tagOffsets = tagOffsets;
+        this.tagAdjacency = tagAdjacency;
+        this.tagGroupOffsets = tagGroupOffsets;
+        this.tagGroupStarts = tagGroupStarts;
+    }
+
+    private static List<WorkstationProcess> findLiveProcesses(WorkstationProcess[] processes) {
+        List<WorkstationProcess> live = null;
+        for (int i = 0; i < processes.length; i++) {
+            if (processes[i] == null && live == null) {
+                live = new ArrayList<>(Arrays.asList(processes).subList(0, i));
+            } else if (processes[i] != null && live != null) {
+                live.add(processes[i]);
+            }
+        }
+        return live != null ? Collections.unmodifiableList(live) : null;
+    }
+
+    /**
+     * Gets the tag an input without a resource urn is indexed by: its display name without a leading quantity,
+     * trimmed and in lower case.
+     *
+     * @param description the description of the input.
+     * @return the tag, or null if the description has a resource urn or no display name.
+     */
+    public static String getTag(ProcessPartDescription description) {
+        if (description.getResourceUrn() != null || description.getDisplayName() == null) {
+            return null;
+        }
+        String tag = normalizeTag(RecipeGraph.QUANTITY_PATTERN.matcher(description.getDisplayName()).replaceFirst(""));
+        return tag.isEmpty() ? null : tag;
+    }
+
+    /**
+     * Normalizes a tag name the same way {@link #getTag(ProcessPartDescription)} does.
+     *
+     * @param tag the tag name.
+     * @return the tag, trimmed and in lower case.
+     */
+    public static String normalizeTag(String tag) {
+        return tag.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Builds an index of the given processes, splitting the work across the fork-join pool.
+     * <p>
+     * The processes are described on the calling thread first, as describing them may create widgets and look up
+     * assets, which is only safe on the game thread. Only collecting the rows of the described parts is forked: each
+     * task builds a partial index of a contiguous range of processes, and the partial indexes are merged in order, so
+     * the result is identical to adding all processes to a single {@link Builder}.
+     * </p>
+     *
+     * @param processes the processes to index.
+     * @param pool the pool to collect the rows on.
+     * @return the built index.
+     */
+    public static WorkstationProcessIndex buildParallel(List<WorkstationProcess> processes, ForkJoinPool pool) {
+        List<WorkstationProcess> described = new ArrayList<>(processes.size());
+        List<Collection<ProcessPartDescription>> inputs = new ArrayList<>(processes.size());
+        List<Collection<ProcessPartDescription>> outputs = new ArrayList<>(processes.size());
+        for (WorkstationProcess process : processes) {
+            if (process instanceof DescribeProcess) {
+                DescribeProcess describeProcess = (DescribeProcess) process;
+                described.add(process);
+                inputs.add(describeProcess.getInputDescriptions());
+                outputs.add(describeProcess.getOutputDescriptions());
+            }
+        }
+        BuildTask task = new BuildTask(described, inputs, outputs, 0, described.size());
+        Builder builder = described.size() <= PARALLEL_CHUNK_SIZE ? task.compute() : pool.invoke(task);
+        return builder.build();
+    }
+
+    /**
+     * Gets all processes that have resourceUrn as one of their inputs.
+     *
+     * @param resourceUrn the resource urn that the workstation processes are associated with.
+     * @return a read-only view of the related processes ordered by process type, empty if there are none.
+     */
+    public Collection<WorkstationProcess> getInputProcesses(ResourceUrn resourceUrn) {
+        return slice(inputOffsets, inputAdjacency, resourceUrnIds.get(resourceUrn));
+    }
+
+    /**
+     * Gets all processes that have resourceUrn, or any of the given tags, as one of their inputs.
+     *
+     * @param resourceUrn the resource urn that the workstation processes are associated with.
+     * @param memberOfTags the tags resourceUrn is a member of.
+     * @return a read-only view of the distinct related processes ordered by process type, empty if there are none.
+     */
+    public Collection<WorkstationProcess> getInputProcesses(ResourceUrn resourceUrn, Collection<String> memberOfTags) {
+        List<Integer> tagRows = nonEmptyTagRows(memberOfTags);
+        Integer id = resourceUrnIds.get(resourceUrn);
+        if (tagRows.isEmpty()) {
+            return slice(inputOffsets, inputAdjacency, id);
+        }
+        if (tagRows.size() == 1 && (id == null || inputOffsets[id] == inputOffsets[id + 1])) {
+            // the shared row of the tag, without copying
+            return slice(tagOffsets, tagAdjacency, tagRows.get(0));
+        }
+        int[] merged = mergeInputRows(id, tagRows);
+        return new ProcessSlice(merged, 0, merged.length);
+    }
+
+    /**
+     * Gets all processes that have resourceUrn as one of their inputs, grouped by process type.
+     *
+     * @param resourceUrn the resource urn that the workstation processes are associated with.
+     * @return the process type groups ordered by process type, empty if there are no related processes.
+     */
+    public List<ProcessGroup> getInputProcessGroups(ResourceUrn resourceUrn) {
+        return groups(inputOffsets, inputAdjacency, inputGroupOffsets, inputGroupStarts,
+                resourceUrnIds.get(resourceUrn));
+    }
+
+    /**
+     * Gets all processes that have resourceUrn, or any of the given tags, as one of their inputs, grouped by process
+     * type.
+     *
+     * @param resourceUrn the resource urn that the workstation processes are associated with.
+     * @param memberOfTags the tags resourceUrn is a member of.
+     * @return the process type groups ordered by process type, empty if there are no related processes.
+     */
+    public List<ProcessGroup> getInputProcessGroups(ResourceUrn resourceUrn, Collection<String> memberOfTags) {
+        List<Integer> tagRows = nonEmptyTagRows(memberOfTags);
+        Integer id = resourceUrnIds.get(resourceUrn);
+        if (tagRows.isEmpty()) {
+            return groups(inputOffsets, inputAdjacency, inputGroupOffsets, inputGroupStarts, id);
+        }
+        if (tagRows.size() == 1 && (id == null || inputOffsets[id] == inputOffsets[id + 1])) {
+            return groups(tagOffsets, tagAdjacency, tagGroupOffsets, tagGroupStarts, tagRows.get(0));
+        }
+        int[] merged = mergeInputRows(id, tagRows);
+        List<ProcessGroup> result = new ArrayList<>();
+        int from = 0;
+        for (int i = 1; i <= merged.length; i++) {
+            String processType = processes[merged[from]].getProcessType();
+            if (i == merged.length || !processes[merged[i]].getProcessType().equals(processType)) {
+                result.add(new ProcessGroup(processType, new ProcessSlice(merged, from, i)));
+                from = i;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets all processes that have an input of a tag.
+     *
+     * @param tag the tag of the inputs, normalized by {@link #normalizeTag(String)}.
+     * @return a read-only view of the related processes ordered by process type, empty if there are none.
+     */
+    public Collection<WorkstationProcess> getTagInputProcesses(String tag) {
+        return slice(tagOffsets, tagAdjacency, tagIds.get(tag));
+    }
+
+    /**
+     * @return the tags of all inputs without a resource urn.
+     */
+    public Set<String> getTags() {
+        return tagIds.keySet();
+    }
+
+    private List<Integer> nonEmptyTagRows(Collection<String> memberOfTags) {
+        List<Integer> rows = new ArrayList<>(memberOfTags.size());
+        for (String tag : memberOfTags) {
+            Integer tagId = tagIds.get(tag);
+            if (tagId != null && tagOffsets[tagId] < tagOffsets[tagId + 1]) {
+                rows.add(tagId);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Merges the input row of a resource urn with tag rows, removing processes that appear in several rows.
+     *
+     * @return the distinct process ids, ordered by process type and id like a single row.
+     */
+    private int[] mergeInputRows(Integer resourceUrnId, List<Integer> tagRows) {
+        int size = resourceUrnId != null ? inputOffsets[resourceUrnId + 1] - inputOffsets[resourceUrnId] : 0;
+        for (int tagId : tagRows) {
+            size += tagOffsets[tagId + 1] - tagOffsets[tagId];
+        }
+        long[] keys = new long[size];
+        int count = 0;
+        if (resourceUrnId != null) {
+            for (int i = inputOffsets[resourceUrnId]; i < inputOffsets[resourceUrnId + 1]; i++) {
+                keys[count++] = processKey(inputAdjacency[i]);
+            }
+        }
+        for (int tagId : tagRows) {
+            for (int i = tagOffsets[tagId]; i < tagOffsets[tagId + 1]; i++) {
+                keys[count++] = processKey(tagAdjacency[i]);
+            }
+        }
+        Arrays.sort(keys);
+        int[] merged = new int[size];
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || keys[i] != keys[i - 1]) {
+                merged[distinct++] = (int) keys[i];
+            }
+        }
+        return Arrays.copyOf(merged, distinct);
+    }
+
+    private long processKey(int processId) {
+        long rank = processTypeIndex.processTypeIds.get(processes[processId].getProcessType());
+        return (rank << 32) | processId;
+    }
+
+    /**
+     * Gets all processes that have resourceUrn as one of their outputs.
+     *
+     * @param resourceUrn the resource urn that the workstation processes are associated with.
+     * @return a read-only view of the related processes ordered by process type, empty if there are none.
+     */
+    public Collection<WorkstationProcess> getOutputProcesses(ResourceUrn resourceUrn) {
+        return slice(outputOffsets, outputAdjacency, resourceUrnIds.get(resourceUrn));
+    }
+
+    /**
+     * Gets all processes that have resourceUrn as one of their outputs, grouped by process type.
+     *
+     * @param resourceUrn the resource urn that the workstation processes are associated with.
+     * @return the process type groups ordered by process type, empty if there are no related processes.
+     */
+    public List<ProcessGroup> getOutputProcessGroups(ResourceUrn resourceUrn) {
+        return groups(outputOffsets, outputAdjacency, outputGroupOffsets, outputGroupStarts,
+                resourceUrnIds.get(resourceUrn));
+    }
+
+    /**
+     * @return a read-only view of all indexed processes, in the order they were added.
+     */
+    public List<WorkstationProcess> getProcesses() {
+        return liveProcesses != null ? liveProcesses : Collections.unmodifiableList(Arrays.asList(processes));
+    }
+
+    /**
+     * @return the number of (resource urn, process) pairs of the input direction.
+     */
+    public int getInputEdgeCount() {
+        return inputAdjacency.length;
+    }
+
+    /**
+     * @return the number of (resource urn, process) pairs of the output direction.
+     */
+    public int getOutputEdgeCount() {
+        return outputAdjacency.length;
+    }
+
+    /**
+     * Estimates the heap retained by this index, assuming 16 byte array headers, 8 byte references and 48 bytes per
+     * hash map entry including its boxed id. The resource urns, process types and processes themselves are not counted,
+     * as they are shared with the rest of the game.
+     *
+     * @return the estimated number of bytes.
+     */
+    public long estimateHeapBytes() {
+        long bytes = mapBytes(resourceUrnIds.size()) + referenceArrayBytes(resourceUrns.length)
+                + referenceArrayBytes(processes.length);
+        for (int[] array : new int[][]{inputOffsets, inputAdjacency, inputGroupOffsets, inputGroupStarts,
+                outputOffsets, outputAdjacency, outputGroupOffsets, outputGroupStarts,
+                processTypeIndex.processOffsets, processTypeIndex.processes,
+                processTypeIndex.inputOffsets, processTypeIndex.inputResourceUrns,
+                processTypeIndex.outputOffsets, processTypeIndex.outputResourceUrns,
+                processPartIndex.inputOffsets, processPartIndex.inputResourceUrns,
+                processPartIndex.outputOffsets, processPartIndex.outputResourceUrns,
+                processPartIndex.tagOffsets, processPartIndex.tagIds,
+                tagOffsets, tagAdjacency, tagGroupOffsets, tagGroupStarts}) {
+            bytes += 16L + 4L * array.length;
+        }
+        return bytes + mapBytes(processTypeIndex.processTypeIds.size())
+                + referenceArrayBytes(processTypeIndex.processTypes.length)
+                + mapBytes(tagIds.size()) + referenceArrayBytes(tags.length);
+    }
+
+    private static long referenceArrayBytes(int length) {
+        return 16L + 8L * length;
+    }
+
+    private static long mapBytes(int size) {
+        return 16L + 8L * Integer.highestOneBit(Math.max(1, size) * 2) + 48L * size;
+    }
+
+    /**
+     * Creates a new index with the given processes added and removed, see {@link #change(Collection, Collection)}.
+     *
+     * @param added the processes to add.
+     * @param removed the processes to remove.
+     * @return the updated index; this index is not modified.
+     */
+    public WorkstationProcessIndex withChanges(Collection<WorkstationProcess> added,
+                                               Collection<WorkstationProcess> removed) {
+        return change(added, removed).getIndex();
+    }
+
+    /**
+     * Creates a new index with the given processes added and removed, and tells which resource urns, tags and process
+     * types the change affected.
+     * <p>
+     * Only the added processes describe their inputs and outputs; the rows of the removed processes are found in the
+     * per process rows. The rows of resource urns and tags unrelated to the changed processes are copied over as they
+     * are, only the rows of the related ones are rebuilt. Resource urns and tags whose rows become empty are dropped.
+     * </p>
+     *
+     * @param added the processes to add. Processes that are already indexed, or that cannot describe their inputs and
+     *         outputs, are skipped.
+     * @param removed the processes to remove. Processes that are not indexed are skipped, and so are processes that
+     *         are also added.
+     * @return the change, holding the updated index; this index is not modified.
+     */
+    public Change change(Collection<WorkstationProcess> added, Collection<WorkstationProcess> removed) {
+        Map<WorkstationProcess, Integer> oldProcessIds = getProcessIds();
+        BitSet removedIds = new BitSet(processes.length);
+        List<WorkstationProcess> removedProcesses = new ArrayList<>();
+        for (WorkstationProcess process : removed) {
+            Integer id = oldProcessIds.get(process);
+            if (id != null && !removedIds.get(id)) {
+                removedIds.set(id);
+                removedProcesses.add(process);
+            }
+        }
+        Set<WorkstationProcess> removedSet = Sets.newHashSet(removed);
+        Set<WorkstationProcess> addedSet = Sets.newHashSet();
+        Builder addedBuilder = new Builder();
+        for (WorkstationProcess process : added) {
+            if (process instanceof DescribeProcess && !oldProcessIds.containsKey(process)
+                    && !removedSet.contains(process) && addedSet.add(process)) {
+                addedBuilder.addProcess(process);
+            }
+        }
+        if (removedProcesses.isEmpty() && addedBuilder.processCount == 0) {
+            return new Change(this, Collections.emptyList(), Collections.emptyList(), Collections.emptySet(),
+                    Collections.emptySet(), Collections.emptySet());
+        }
+        return new IndexChange(removedIds, removedProcesses, addedBuilder).apply();
+    }
+
+    /**
+     * Rebuilds the index without the holes that removed processes, resource urns and tags left behind. Processes,
+     * resource urns and tags keep their order, but may get new ids.
+     *
+     * @return the compacted index, or this index if it has no holes.
+     */
+    WorkstationProcessIndex compact() {
+        if (liveProcesses == null && resourceUrnIds.size() == resourceUrns.length && tagIds.size() == tags.length) {
+            return this;
+        }
+        Builder builder = new Builder();
+        int[] newResourceUrnIds = new int[resourceUrns.length];
+        for (int i = 0; i < resourceUrns.length; i++) {
+            newResourceUrnIds[i] = resourceUrns[i] != null ? builder.internResourceUrn(resourceUrns[i]) : -1;
+        }
+        int[] newTagIds = new int[tags.length];
+        for (int i = 0; i < tags.length; i++) {
+            newTagIds[i] = tags[i] != null ? builder.internTag(tags[i]) : -1;
+        }
+        int[] newProcessIds = new int[processes.length];
+        for (int i = 0; i < processes.length; i++) {
+            newProcessIds[i] = processes[i] != null ? builder.appendProcess(processes[i]) : -1;
+        }
+        builder.inputEdges.addAll(inputOffsets, inputAdjacency, newResourceUrnIds, newProcessIds);
+        builder.outputEdges.addAll(outputOffsets, outputAdjacency, newResourceUrnIds, newProcessIds);
+        builder.tagEdges.addAll(tagOffsets, tagAdjacency, newTagIds, newProcessIds);
+        return builder.build();
+    }
+
+    /**
+     * @return true if removed processes, resource urns or tags left behind more holes than there are live ones.
+     */
+    private boolean hasManyHoles() {
+        int processHoles = liveProcesses != null ? processes.length - liveProcesses.size() : 0;
+        return processHoles > processes.length - processHoles
+                || resourceUrns.length - resourceUrnIds.size() > resourceUrnIds.size()
+                || tags.length - tagIds.size() > tagIds.size();
+    }
+
+    /**
+     * @param process the process to look up.
+     * @return the id of the process in {@link #getProcessArray()}, or null if it is not indexed.
+     */
+    Integer getProcessId(WorkstationProcess process) {
+        return getProcessIds().get(process);
+    }
+
+    private Map<WorkstationProcess, Integer> getProcessIds() {
+        Map<WorkstationProcess, Integer> ids = processIds;
+        if (ids == null) {
+            ids = Maps.newHashMapWithExpectedSize(processes.length);
+            for (int i = 0; i < processes.length; i++) {
+                if (processes[i] != null) {
+                    ids.put(processes[i], i);
+                }
+            }
+            processIds = ids;
+        }
+        return ids;
+    }
+
+    /**
+     * Creates an index from the compressed sparse rows of another index, e.g., when decoding a snapshot. The
+     * processes do not have to describe themselves again.
+     *
+     * @param resourceUrns the resource urn of each id.
+     * @param processes the process of each id.
+     * @param inputOffsets the offsets of the input rows, one longer than resourceUrns.
+     * @param inputAdjacency the process ids of the input rows.
+     * @param outputOffsets the offsets of the output rows, one longer than resourceUrns.
+     * @param outputAdjacency the process ids of the output rows.
+     * @param tags the tag of each tag id.
+     * @param tagOffsets the offsets of the tag rows, one longer than tags.
+     * @param tagAdjacency the process ids of the tag rows.
+     * @return the index.
+     * @throws IllegalArgumentException if the rows do not match the resource urns, tags and processes.
+     */
+    static WorkstationProcessIndex fromRows(ResourceUrn[] resourceUrns, WorkstationProcess[] processes,
+                                            int[] inputOffsets, int[] inputAdjacency,
+                                            int[] outputOffsets, int[] outputAdjacency,
+                                            String[] tags, int[] tagOffsets, int[] tagAdjacency) {
+        checkRows(resourceUrns.length, processes.length, inputOffsets, inputAdjacency);
+        checkRows(resourceUrns.length, processes.length, outputOffsets, outputAdjacency);
+        checkRows(tags.length, processes.length, tagOffsets, tagAdjacency);
+
+        Builder builder = new Builder();
+        for (ResourceUrn resourceUrn : resourceUrns) {
+            builder.internResourceUrn(resourceUrn);
+        }
+        if (builder.resourceUrnIds.size() != resourceUrns.length) {
+            throw new IllegalArgumentException("Duplicate resource urns");
+        }
+        for (String tag : tags) {
+            builder.internTag(tag);
+        }
+        if (builder.tagIds.size() != tags.length) {
+            throw new IllegalArgumentException("Duplicate tags");
+        }
+        int[] processIds = new int[processes.length];
+        for (int i = 0; i < processes.length; i++) {
+            processIds[i] = builder.appendProcess(processes[i]);
+        }
+        builder.inputEdges.addAll(inputOffsets, inputAdjacency, null, processIds);
+        builder.outputEdges.addAll(outputOffsets, outputAdjacency, null, processIds);
+        builder.tagEdges.addAll(tagOffsets, tagAdjacency, null, processIds);
+        return builder.build();
+    }
+
+    private static void checkRows(int resourceUrnCount, int processCount, int[] offsets, int[] adjacency) {
+        if (offsets.length != resourceUrnCount + 1 || offsets[0] != 0
+                || offsets[resourceUrnCount] != adjacency.length) {
+            throw new IllegalArgumentException("Offsets do not match the resource urns");
+        }
+        for (int i = 0; i < resourceUrnCount; i++) {
+            if (offsets[i] > offsets[i + 1]) {
+                throw new IllegalArgumentException("Offsets are not ascending");
+            }
+        }
+        for (int processId : adjacency) {
+            if (processId < 0 || processId >= processCount) {
+                throw new IllegalArgumentException("Unknown process id " + processId);
+            }
+        }
+    }
+
+    /**
+     * Filters a view returned by this index by process id.
+     *
+     * @param processes the processes to filter.
+     * @param visible the ids of the processes to keep.
+     * @return the kept processes, the same view if all are kept, or null if processes is not a view of this index.
+     */
+    List<WorkstationProcess> filterProcesses(Collection<WorkstationProcess> processes, BitSet visible) {
+        if (processes instanceof ProcessSlice && ((ProcessSlice) processes).getIndex() == this) {
+            return ((ProcessSlice) processes).filter(visible);
+        }
+        return processes.isEmpty() ? Collections.emptyList() : null;
+    }
+
+    ResourceUrn[] getResourceUrnArray() {
+        return resourceUrns;
+    }
+
+    WorkstationProcess[] getProcessArray() {
+        return processes;
+    }
+
+    int[] getInputOffsets() {
+        return inputOffsets;
+    }
+
+    int[] getInputAdjacency() {
+        return inputAdjacency;
+    }
+
+    int[] getOutputOffsets() {
+        return outputOffsets;
+    }
+
+    int[] getOutputAdjacency() {
+        return outputAdjacency;
+    }
+
+    String[] getTagArray() {
+        return tags;
+    }
+
+    int[] getTagOffsets() {
+        return tagOffsets;
+    }
+
+    int[] getTagAdjacency() {
+        return tagAdjacency;
+    }
+
+    /**
+     * @return all resource urns that are an input or output of at least one indexed process.
+     */
+    public Set<ResourceUrn> getResourceUrns() {
+        return resourceUrnIds.keySet();
+    }
+
+    /**
+     * @return the process types of all indexed processes, in natural order.
+     */
+    public List<String> getProcessTypes() {
+        return Collections.unmodifiableList(Arrays.asList(processTypeIndex.processTypes));
+    }
+
+    /**
+     * Gets all processes of a process type, i.e., the recipes of a workstation.
+     *
+     * @param processType the process type to get the processes of.
+     * @return the processes in a single group, or null if there are no processes of that type.
+     */
+    public ProcessGroup getProcessGroupOfType(String processType) {
+        Integer id = processTypeIndex.processTypeIds.get(processType);
+        if (id == null) {
+            return null;
+        }
+        return new ProcessGroup(processType, new ProcessSlice(processTypeIndex.processes,
+                processTypeIndex.processOffsets[id], processTypeIndex.processOffsets[id + 1]));
+    }
+
+    /**
+     * Gets the resource urns used as input by any process of a process type.
+     *
+     * @param processType the process type to get the inputs of.
+     * @return a read-only view of the distinct input resource urns, empty if there are none.
+     */
+    public List<ResourceUrn> getInputResourceUrnsOfType(String processType) {
+        return resourceUrnsOfType(processTypeIndex.inputOffsets, processTypeIndex.inputResourceUrns, processType);
+    }
+
+    /**
+     * Gets the resource urns produced by any process of a process type.
+     *
+     * @param processType the process type to get the outputs of.
+     * @return a read-only view of the distinct output resource urns, empty if there are none.
+     */
+    public List<ResourceUrn> getOutputResourceUrnsOfType(String processType) {
+        return resourceUrnsOfType(processTypeIndex.outputOffsets, processTypeIndex.outputResourceUrns, processType);
+    }
+
+    private List<ResourceUrn> resourceUrnsOfType(int[] offsets, int[] resourceUrnIdsOfType, String processType) {
+        Integer id = processTypeIndex.processTypeIds.get(processType);
+        if (id == null) {
+            return Collections.emptyList();
+        }
+        int from = offsets[id];
+        int to = offsets[id + 1];
+        return new AbstractResourceUrnList(to - from) {
+            @Override
+            public ResourceUrn get(int index) {
+                return resourceUrns[resourceUrnIdsOfType[from + index]];
+            }
+        };
+    }
+
+    /**
+     * Read-only list of resource urns backed by an id array.
+     */
+    private abstract static class AbstractResourceUrnList extends AbstractList<ResourceUrn> implements RandomAccess {
+        private final int size;
+
+        AbstractResourceUrnList(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * The index inverted per process type. Process types are identified by their rank in natural order.
+     */
+    private static final class ProcessTypeIndex {
+        private final Map<String, Integer> processTypeIds;
+        private final String[] processTypes;
+        private final int[] processOffsets;
+        private final int[] processes;
+        private final int[] inputOffsets;
+        private final int[] inputResourceUrns;
+        private final int[] outputOffsets;
+        private final int[] outputResourceUrns;
+
+        ProcessTypeIndex(Map<String, Integer> processTypeIds, String[] processTypes,
+                         int[] processOffsets, int[] processes,
+                         int[] inputOffsets, int[] inputResourceUrns,
+                         int[] outputOffsets, int[] outputResourceUrns) {
+            this.processTypeIds = processTypeIds;
+            this.processTypes = processTypes;
+            this.processOffsets = processOffsets;
+            this.processes = processes;
+            this.inputOffsets = inputOffsets;
+            this.inputResourceUrns = inputResourceUrns;
+            this.outputOffsets = outputOffsets;
+            this.outputResourceUrns = outputResourceUrns;
+        }
+    }
+
+    /**
+     * The index inverted per process: the resource urns and tags each process is related to, in the order of its
+     * descriptions. Removed processes have empty rows.
+     */
+    private static final class ProcessPartIndex {
+        private final int[] inputOffsets;
+        private final int[] inputResourceUrns;
+        private final int[] outputOffsets;
+        private final int[] outputResourceUrns;
+        private final int[] tagOffsets;
+        private final int[] tagIds;
+
+        ProcessPartIndex(int[] inputOffsets, int[] inputResourceUrns, int[] outputOffsets, int[] outputResourceUrns,
+                         int[] tagOffsets, int[] tagIds) {
+            this.inputOffsets = inputOffsets;
+            this.inputResourceUrns = inputResourceUrns;
+            this.outputOffsets = outputOffsets;
+            this.outputResourceUrns = outputResourceUrns;
+            this.tagOffsets = tagOffsets;
+            this.tagIds = tagIds;
+        }
+    }
+
+    /**
+     * The result of {@link #change(Collection, Collection) changing} an index: the updated index, and what depends on
+     * the changed processes, so callers only refresh that.
+     */
+    public static final class Change {
+        private final WorkstationProcessIndex index;
+        private final List<WorkstationProcess> addedProcesses;
+        private final List<WorkstationProcess> removedProcesses;
+        private final Set<ResourceUrn> affectedResourceUrns;
+        private final Set<String> affectedTags;
+        private final Set<String> affectedProcessTypes;
+
+        Change(WorkstationProcessIndex index, List<WorkstationProcess> addedProcesses,
+               List<WorkstationProcess> removedProcesses, Set<ResourceUrn> affectedResourceUrns,
+               Set<String> affectedTags, Set<String> affectedProcessTypes) {
+            this.index = index;
+            this.addedProcesses = addedProcesses;
+            this.removedProcesses = removedProcesses;
+            this.affectedResourceUrns = affectedResourceUrns;
+            this.affectedTags = affectedTags;
+            this.affectedProcessTypes = affectedProcessTypes;
+        }
+
+        /**
+         * @return the updated index, the same index if nothing changed.
+         */
+        public WorkstationProcessIndex getIndex() {
+            return index;
+        }
+
+        /**
+         * @return the processes that were added, without the skipped ones.
+         */
+        public List<WorkstationProcess> getAddedProcesses() {
+            return addedProcesses;
+        }
+
+        /**
+         * @return the processes that were removed, without the skipped ones.
+         */
+        public List<WorkstationProcess> getRemovedProcesses() {
+            return removedProcesses;
+        }
+
+        /**
+         * @return the resource urns that are an input or output of an added or removed process, including the ones
+         *         dropped from the index.
+         */
+        public Set<ResourceUrn> getAffectedResourceUrns() {
+            return affectedResourceUrns;
+        }
+
+        /**
+         * @return the tags of the inputs of the added and removed processes, including the ones dropped from the index.
+         */
+        public Set<String> getAffectedTags() {
+            return affectedTags;
+        }
+
+        /**
+         * @return the process types of the added and removed processes, including the ones dropped from the index.
+         */
+        public Set<String> getAffectedProcessTypes() {
+            return affectedProcessTypes;
+        }
+
+        /**
+         * @return true if no process was added or removed.
+         */
+        public boolean isEmpty() {
+            return addedProcesses.isEmpty() && removedProcesses.isEmpty();
+        }
+    }
+
+    /**
+     * Adds and removes processes, rebuilding only the rows of the resource urns, tags, process types and processes
+     * related to them. Removed processes leave a hole in the process array, added ones are appended, so all other
+     * processes keep their ids.
+     */
+    private final class IndexChange {
+        private final BitSet removedIds;
+        private final List<WorkstationProcess> removedProcesses;
+        /** Holds the added processes and their rows, with ids local to it. */
+        private final Builder added;
+        private final WorkstationProcess[] newProcesses;
+        private Map<String, Integer> newProcessTypeIds;
+
+        IndexChange(BitSet removedIds, List<WorkstationProcess> removedProcesses, Builder added) {
+            this.removedIds = removedIds;
+            this.removedProcesses = removedProcesses;
+            this.added = added;
+            newProcesses = Arrays.copyOf(processes, processes.length + added.processCount);
+            for (int id = removedIds.nextSetBit(0); id >= 0; id = removedIds.nextSetBit(id + 1)) {
+                newProcesses[id] = null;
+            }
+            System.arraycopy(added.processes, 0, newProcesses, processes.length, added.processCount);
+        }
+
+        Change apply() {
+            ResourceUrn[] addedResourceUrns = byId(added.resourceUrnIds, new ResourceUrn[added.resourceUrnIds.size()]);
+            List<ResourceUrn> appendedResourceUrns = new ArrayList<>();
+            int[] resourceUrnIdMap = intern(addedResourceUrns, resourceUrnIds, resourceUrns.length,
+                    appendedResourceUrns);
+            ResourceUrn[] newResourceUrns = Arrays.copyOf(resourceUrns,
+                    resourceUrns.length + appendedResourceUrns.size());
+            for (int i = 0; i < appendedResourceUrns.size(); i++) {
+                newResourceUrns[resourceUrns.length + i] = appendedResourceUrns.get(i);
+            }
+            String[] addedTags = byId(added.tagIds, new String[added.tagIds.size()]);
+            List<String> appendedTags = new ArrayList<>();
+            int[] tagIdMap = intern(addedTags, tagIds, tags.length, appendedTags);
+            String[] newTags = Arrays.copyOf(tags, tags.length + appendedTags.size());
+            for (int i = 0; i < appendedTags.size(); i++) {
+                newTags[tags.length + i] = appendedTags.get(i);
+            }
+
+            Set<String> affectedProcessTypes = Sets.newHashSet();
+            String[] newProcessTypes = changeProcessTypes(affectedProcessTypes);
+
+            SortedMap<Integer, long[]> inputRows = replacedRows(inputOffsets, inputAdjacency,
+                    processPartIndex.inputOffsets, processPartIndex.inputResourceUrns, added.inputEdges,
+                    resourceUrnIdMap);
+            PatchedRows input = new PatchedRows(inputOffsets, inputAdjacency, inputGroupOffsets, inputGroupStarts,
+                    newResourceUrns.length, inputRows);
+            SortedMap<Integer, long[]> outputRows = replacedRows(outputOffsets, outputAdjacency,
+                    processPartIndex.outputOffsets, processPartIndex.outputResourceUrns, added.outputEdges,
+                    resourceUrnIdMap);
+            PatchedRows output = new PatchedRows(outputOffsets, outputAdjacency, outputGroupOffsets,
+                    outputGroupStarts, newResourceUrns.length, outputRows);
+            SortedMap<Integer, long[]> tagRows = replacedRows(tagOffsets, tagAdjacency,
+                    processPartIndex.tagOffsets, processPartIndex.tagIds, added.tagEdges, tagIdMap);
+            PatchedRows tag = new PatchedRows(tagOffsets, tagAdjacency, tagGroupOffsets, tagGroupStarts,
+                    newTags.length, tagRows);
+
+            PatchedRows processInputs = new PatchedRows(processPartIndex.inputOffsets,
+                    processPartIndex.inputResourceUrns, null, null, newProcesses.length,
+                    reverseRows(processPartIndex.inputOffsets, added.inputEdges, resourceUrnIdMap));
+            PatchedRows processOutputs = new PatchedRows(processPartIndex.outputOffsets,
+                    processPartIndex.outputResourceUrns, null, null, newProcesses.length,
+                    reverseRows(processPartIndex.outputOffsets, added.outputEdges, resourceUrnIdMap));
+            PatchedRows processTags = new PatchedRows(processPartIndex.tagOffsets, processPartIndex.tagIds, null, null,
+                    newProcesses.length, reverseRows(processPartIndex.tagOffsets, added.tagEdges, tagIdMap));
+            ProcessPartIndex newProcessPartIndex = new ProcessPartIndex(
+                    processInputs.offsets, processInputs.adjacency, processOutputs.offsets, processOutputs.adjacency,
+                    processTags.offsets, processTags.adjacency);
+
+            Set<Integer> affectedResourceUrnIds = new TreeSet<>(inputRows.keySet());
+            affectedResourceUrnIds.addAll(outputRows.keySet());
+            Set<ResourceUrn> affectedResourceUrns = Sets.newHashSetWithExpectedSize(affectedResourceUrnIds.size());
+            List<ResourceUrn> droppedResourceUrns = new ArrayList<>();
+            for (int id : affectedResourceUrnIds) {
+                affectedResourceUrns.add(newResourceUrns[id]);
+                if (input.isEmpty(id) && output.isEmpty(id)) {
+                    droppedResourceUrns.add(newResourceUrns[id]);
+                    newResourceUrns[id] = null;
+                }
+            }
+            Set<String> affectedTags = Sets.newHashSetWithExpectedSize(tagRows.size());
+            List<String> droppedTags = new ArrayList<>();
+            for (int id : tagRows.keySet()) {
+                affectedTags.add(newTags[id]);
+                if (tag.isEmpty(id)) {
+                    droppedTags.add(newTags[id]);
+                    newTags[id] = null;
+                }
+            }
+
+            WorkstationProcessIndex index = new WorkstationProcessIndex(
+                    changeIds(resourceUrnIds, resourceUrns.length, appendedResourceUrns, droppedResourceUrns),
+                    newResourceUrns, newProcesses,
+                    changeProcessTypeIndex(newProcessTypes, affectedProcessTypes, newProcessPartIndex),
+                    newProcessPartIndex,
+                    input.offsets, input.adjacency, input.groupOffsets, input.groupStarts,
+                    output.offsets, output.adjacency, output.groupOffsets, output.groupStarts,
+                    changeIds(tagIds, tags.length, appendedTags, droppedTags), newTags,
+                    tag.offsets, tag.adjacency, tag.groupOffsets, tag.groupStarts);
+            Map<WorkstationProcess, Integer> ids = Maps.newHashMap(getProcessIds());
+            for (WorkstationProcess process : removedProcesses) {
+                ids.remove(process);
+            }
+            for (int i = 0; i < added.processCount; i++) {
+                ids.put(added.processes[i], processes.length + i);
+            }
+            index.processIds = ids;
+            if (index.hasManyHoles()) {
+                index = index.compact();
+            }
+            return new Change(index,
+                    Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(added.processes, added.processCount))),
+                    Collections.unmodifiableList(removedProcesses), Collections.unmodifiableSet(affectedResourceUrns),
+                    Collections.unmodifiableSet(affectedTags), Collections.unmodifiableSet(affectedProcessTypes));
+        }
+
+        private <T> T[] byId(Map<T, Integer> ids, T[] values) {
+            for (Map.Entry<T, Integer> entry : ids.entrySet()) {
+                values[entry.getValue()] = entry.getKey();
+            }
+            return values;
+        }
+
+        /**
+         * Looks up the ids of values, giving values that are not known yet the ids past the known ones.
+         *
+         * @param appended the list to add the values that are not known yet to.
+         * @return the id of each value.
+         */
+        private <T> int[] intern(T[] values, Map<T, Integer> ids, int idCount, List<T> appended) {
+            int[] result = new int[values.length];
+            for (int i = 0; i < values.length; i++) {
+                Integer id = ids.get(values[i]);
+                if (id == null) {
+                    id = idCount + appended.size();
+                    appended.add(values[i]);
+                }
+                result[i] = id;
+            }
+            return result;
+        }
+
+        /**
+         * @return the ids with the appended values added and the dropped values removed; the same ids if there are
+         *         neither.
+         */
+        private <T> Map<T, Integer> changeIds(Map<T, Integer> ids, int idCount, List<T> appended, List<T> dropped) {
+            if (appended.isEmpty() && dropped.isEmpty()) {
+                return ids;
+            }
+            Map<T, Integer> result = Maps.newHashMap(ids);
+            for (int i = 0; i < appended.size(); i++) {
+                result.put(appended.get(i), idCount + i);
+            }
+            for (T value : dropped) {
+                result.remove(value);
+            }
+            return ImmutableMap.copyOf(result);
+        }
+
+        /**
+         * Finds the process types of the changed processes and the process types of the changed index.
+         *
+         * @param affectedProcessTypes the set to add the process types of the changed processes to.
+         * @return the process types of the changed index, in natural order.
+         */
+        private String[] changeProcessTypes(Set<String> affectedProcessTypes) {
+            Map<String, Integer> countChanges = Maps.newHashMap();
+            for (int id = removedIds.nextSetBit(0); id >= 0; id = removedIds.nextSetBit(id + 1)) {
+                countChanges.merge(processes[id].getProcessType(), -1, Integer::sum);
+            }
+            for (int i = 0; i < added.processCount; i++) {
+                countChanges.merge(added.processes[i].getProcessType(), 1, Integer::sum);
+            }
+            affectedProcessTypes.addAll(countChanges.keySet());
+            Set<String> newProcessTypes = null;
+            for (Map.Entry<String, Integer> entry : countChanges.entrySet()) {
+                Integer id = processTypeIndex.processTypeIds.get(entry.getKey());
+                int count = id != null ? processTypeIndex.processOffsets[id + 1] - processTypeIndex.processOffsets[id]
+                        : 0;
+                if ((count == 0) != (count + entry.getValue() == 0)) {
+                    if (newProcessTypes == null) {
+                        newProcessTypes = new TreeSet<>(Arrays.asList(processTypeIndex.processTypes));
+                    }
+                    if (count == 0) {
+                        newProcessTypes.add(entry.getKey());
+                    } else {
+                        newProcessTypes.remove(entry.getKey());
+                    }
+                }
+            }
+            if (newProcessTypes == null) {
+                newProcessTypeIds = processTypeIndex.processTypeIds;
+                return processTypeIndex.processTypes;
+            }
+            Map<String, Integer> ids = Maps.newHashMapWithExpectedSize(newProcessTypes.size());
+            for (String processType : newProcessTypes) {
+                ids.put(processType, ids.size());
+            }
+            newProcessTypeIds = ImmutableMap.copyOf(ids);
+            return newProcessTypes.toArray(new String[0]);
+        }
+
+        /**
+         * Rebuilds the rows related to the changed processes: the old row without the removed processes, plus the
+         * added processes, sorted by process type and id.
+         *
+         * @param reverseOffsets the offsets of the per process rows of this index.
+         * @param reverseRows the row ids of the per process rows of this index.
+         * @param addedEdges the edges of the added processes, with ids local to {@link #added}.
+         * @param rowIdMap the new row id of each row id local to {@link #added}.
+         * @return the new content of each rebuilt row, see {@link PatchedRows}.
+         */
+        private SortedMap<Integer, long[]> replacedRows(int[] offsets, int[] adjacency, int[] reverseOffsets,
+                                                        int[] reverseRows, EdgeList addedEdges, int[] rowIdMap) {
+            SortedMap<Integer, List<Integer>> addedByRow = Maps.newTreeMap();
+            for (int id = removedIds.nextSetBit(0); id >= 0; id = removedIds.nextSetBit(id + 1)) {
+                for (int i = reverseOffsets[id]; i < reverseOffsets[id + 1]; i++) {
+                    addedByRow.computeIfAbsent(reverseRows[i], row -> new ArrayList<>());
+                }
+            }
+            for (int i = 0; i < addedEdges.size; i++) {
+                addedByRow.computeIfAbsent(rowIdMap[addedEdges.resourceUrnIds[i]], row -> new ArrayList<>())
+                        .add(processes.length + addedEdges.processIds[i]);
+            }
+            SortedMap<Integer, long[]> rows = Maps.newTreeMap();
+            for (Map.Entry<Integer, List<Integer>> entry : addedByRow.entrySet()) {
+                int row = entry.getKey();
+                int from = row < offsets.length - 1 ? offsets[row] : 0;
+                int to = row < offsets.length - 1 ? offsets[row + 1] : 0;
+                long[] keys = new long[to - from + entry.getValue().size()];
+                int count = 0;
+                for (int i = from; i < to; i++) {
+                    if (!removedIds.get(adjacency[i])) {
+                        keys[count++] = processKey(adjacency[i]);
+                    }
+                }
+                for (int processId : entry.getValue()) {
+                    keys[count++] = processKey(processId);
+                }
+                Arrays.sort(keys, 0, count);
+                rows.put(row, Arrays.copyOf(keys, count));
+            }
+            return rows;
+        }
+
+        /**
+         * @return the new per process rows: empty for the removed processes, the rows of each added process in the
+         *         order of its descriptions.
+         */
+        private SortedMap<Integer, long[]> reverseRows(int[] reverseOffsets, EdgeList addedEdges, int[] rowIdMap) {
+            SortedMap<Integer, long[]> rows = Maps.newTreeMap();
+            for (int id = removedIds.nextSetBit(0); id >= 0; id = removedIds.nextSetBit(id + 1)) {
+                if (reverseOffsets[id] < reverseOffsets[id + 1]) {
+                    rows.put(id, new long[0]);
+                }
+            }
+            int[] offsets = new int[added.processCount + 1];
+            int[] addedRows = addedEdges.toReverseAdjacency(offsets);
+            for (int i = 0; i < added.processCount; i++) {
+                long[] row = new long[offsets[i + 1] - offsets[i]];
+                for (int j = 0; j < row.length; j++) {
+                    row[j] = rowIdMap[addedRows[offsets[i] + j]];
+                }
+                rows.put(processes.length + i, row);
+            }
+            return rows;
+        }
+
+        private long processKey(int processId) {
+            long rank = newProcessTypeIds.get(newProcesses[processId].getProcessType());
+            return (rank << 32) | processId;
+        }
+
+        /**
+         * Copies the per process type rows of the process types that did not change, and rebuilds the others from the
+         * per process rows.
+         */
+        private ProcessTypeIndex changeProcessTypeIndex(String[] newProcessTypes, Set<String> affectedProcessTypes,
+                                                        ProcessPartIndex newProcessPartIndex) {
+            Map<String, List<Integer>> addedByType = Maps.newHashMap();
+            for (int i = 0; i < added.processCount; i++) {
+                addedByType.computeIfAbsent(added.processes[i].getProcessType(), type -> new ArrayList<>())
+                        .add(processes.length + i);
+            }
+            int[][] typeProcesses = new int[newProcessTypes.length][];
+            int[][] typeInputs = new int[newProcessTypes.length][];
+            int[][] typeOutputs = new int[newProcessTypes.length][];
+            for (int t = 0; t < newProcessTypes.length; t++) {
+                String processType = newProcessTypes[t];
+                Integer oldId = processTypeIndex.processTypeIds.get(processType);
+                if (oldId != null && !affectedProcessTypes.contains(processType)) {
+                    typeProcesses[t] = copyRow(processTypeIndex.processOffsets, processTypeIndex.processes, oldId);
+                    typeInputs[t] = copyRow(processTypeIndex.inputOffsets, processTypeIndex.inputResourceUrns, oldId);
+                    typeOutputs[t] = copyRow(processTypeIndex.outputOffsets, processTypeIndex.outputResourceUrns,
+                            oldId);
+                    continue;
+                }
+                List<Integer> addedOfType = addedByType.getOrDefault(processType, Collections.emptyList());
+                int from = oldId != null ? processTypeIndex.processOffsets[oldId] : 0;
+                int to = oldId != null ? processTypeIndex.processOffsets[oldId + 1] : 0;
+                int[] ids = new int[to - from + addedOfType.size()];
+                int count = 0;
+                for (int i = from; i < to; i++) {
+                    if (!removedIds.get(processTypeIndex.processes[i])) {
+                        ids[count++] = processTypeIndex.processes[i];
+                    }
+                }
+                for (int processId : addedOfType) {
+                    ids[count++] = processId;
+                }
+                typeProcesses[t] = Arrays.copyOf(ids, count);
+                typeInputs[t] = distinctRows(typeProcesses[t], newProcessPartIndex.inputOffsets,
+                        newProcessPartIndex.inputResourceUrns);
+                typeOutputs[t] = distinctRows(typeProcesses[t], newProcessPartIndex.outputOffsets,
+                        newProcessPartIndex.outputResourceUrns);
+            }
+            int[] processOffsets = new int[newProcessTypes.length + 1];
+            int[] inputOffsetsOfType = new int[newProcessTypes.length + 1];
+            int[] outputOffsetsOfType = new int[newProcessTypes.length + 1];
+            return new ProcessTypeIndex(newProcessTypeIds, newProcessTypes,
+                    processOffsets, concat(typeProcesses, processOffsets),
+                    inputOffsetsOfType, concat(typeInputs, inputOffsetsOfType),
+                    outputOffsetsOfType, concat(typeOutputs, outputOffsetsOfType));
+        }
+
+        private int[] copyRow(int[] offsets, int[] adjacency, int id) {
+            return Arrays.copyOfRange(adjacency, offsets[id], offsets[id + 1]);
+        }
+
+        /**
+         * @return the distinct row ids of the per process rows of the given processes, ascending.
+         */
+        private int[] distinctRows(int[] processIds, int[] offsets, int[] rows) {
+            int size = 0;
+            for (int processId : processIds) {
+                size += offsets[processId + 1] - offsets[processId];
+            }
+            int[] result = new int[size];
+            int count = 0;
+            for (int processId : processIds) {
+                for (int i = offsets[processId]; i < offsets[processId + 1]; i++) {
+                    result[count++] = rows[i];
+                }
+            }
+            Arrays.sort(result);
+            int distinct = 0;
+            for (int i = 0; i < size; i++) {
+                if (i == 0 || result[i] != result[i - 1]) {
+                    result[distinct++] = result[i];
+                }
+            }
+            return Arrays.copyOf(result, distinct);
+        }
+
+        private int[] concat(int[][] parts, int[] offsets) {
+            for (int i = 0; i < parts.length; i++) {
+                offsets[i + 1] = offsets[i] + parts[i].length;
+            }
+            int[] result = new int[offsets[parts.length]];
+            for (int i = 0; i < parts.length; i++) {
+                System.arraycopy(parts[i], 0, result, offsets[i], parts[i].length);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Compressed sparse rows with some rows replaced. The rows in between are copied over in bulk, shifting their
+     * offsets.
+     */
+    private static final class PatchedRows {
+        private final int[] offsets;
+        private final int[] adjacency;
+        private final int[] groupOffsets;
+        private final int[] groupStarts;
+
+        /**
+         * @param oldOffsets the offsets of the old rows.
+         * @param oldAdjacency the adjacency of the old rows.
+         * @param oldGroupOffsets the group offsets of the old rows, or null if the rows are not grouped.
+         * @param oldGroupStarts the group starts of the old rows, or null if the rows are not grouped.
+         * @param rowCount the number of rows, at least the number of old rows. Rows past the old rows are empty
+         *         unless replaced.
+         * @param replacedRows the new entries of each replaced row. The low 32 bits of each key hold the entry, the
+         *         high bits its group, e.g., the rank of the process type of a process.
+         */
+        PatchedRows(int[] oldOffsets, int[] oldAdjacency, int[] oldGroupOffsets, int[] oldGroupStarts, int rowCount,
+                    SortedMap<Integer, long[]> replacedRows) {
+            int oldRowCount = oldOffsets.length - 1;
+            boolean grouped = oldGroupOffsets != null;
+            int size = oldAdjacency.length;
+            int groupCount = grouped ? oldGroupStarts.length : 0;
+            for (Map.Entry<Integer, long[]> entry : replacedRows.entrySet()) {
+                int row = entry.getKey();
+                if (row < oldRowCount) {
+                    size -= oldOffsets[row + 1] - oldOffsets[row];
+                    groupCount -= grouped ? oldGroupOffsets[row + 1] - oldGroupOffsets[row] : 0;
+                }
+                size += entry.getValue().length;
+                groupCount += grouped ? countGroups(entry.getValue()) : 0;
+            }
+            offsets = new int[rowCount + 1];
+            adjacency = new int[size];
+            groupOffsets = grouped ? new int[rowCount + 1] : null;
+            groupStarts = grouped ? new int[groupCount] : null;
+            int row = 0;
+            for (Map.Entry<Integer, long[]> entry : replacedRows.entrySet()) {
+                copyRows(row, entry.getKey(), oldOffsets, oldAdjacency, oldGroupOffsets, oldGroupStarts);
+                replaceRow(entry.getKey(), entry.getValue());
+                row = entry.getKey() + 1;
+            }
+            copyRows(row, rowCount, oldOffsets, oldAdjacency, oldGroupOffsets, oldGroupStarts);
+        }
+
+        boolean isEmpty(int row) {
+            return offsets[row] == offsets[row + 1];
+        }
+
+        private static int countGroups(long[] keys) {
+            int groups = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (i == 0 || keys[i] >>> 32 != keys[i - 1] >>> 32) {
+                    groups++;
+                }
+            }
+            return groups;
+        }
+
+        /**
+         * Copies the old rows from (inclusive) to (exclusive); rows past the old rows stay empty.
+         */
+        private void copyRows(int from, int to, int[] oldOffsets, int[] oldAdjacency, int[] oldGroupOffsets,
+                              int[] oldGroupStarts) {
+            int oldTo = Math.min(to, oldOffsets.length - 1);
+            if (from < oldTo) {
+                int shift = offsets[from] - oldOffsets[from];
+                System.arraycopy(oldAdjacency, oldOffsets[from], adjacency, offsets[from],
+                        oldOffsets[oldTo] - oldOffsets[from]);
+                for (int row = from + 1; row <= oldTo; row++) {
+                    offsets[row] = oldOffsets[row] + shift;
+                }
+                if (groupOffsets != null) {
+                    int groupShift = groupOffsets[from] - oldGroupOffsets[from];
+                    for (int group = oldGroupOffsets[from]; group < oldGroupOffsets[oldTo]; group++) {
+                        groupStarts[group + groupShift] = oldGroupStarts[group] + shift;
+                    }
+                    for (int row = from + 1; row <= oldTo; row++) {
+                        groupOffsets[row] = oldGroupOffsets[row] + groupShift;
+                    }
+                }
+            }
+            for (int row = Math.max(from, oldTo); row < to; row++) {
+                offsets[row + 1] = offsets[row];
+                if (groupOffsets != null) {
+                    groupOffsets[row + 1] = groupOffsets[row];
+                }
+            }
+        }
+
+        private void replaceRow(int row, long[] keys) {
+            int start = offsets[row];
+            for (int i = 0; i < keys.length; i++) {
+                adjacency[start + i] = (int) keys[i];
+            }
+            offsets[row + 1] = start + keys.length;
+            if (groupOffsets != null) {
+                int group = groupOffsets[row];
+                for (int i = 0; i < keys.length; i++) {
+                    if (i == 0 || keys[i] >>> 32 != keys[i - 1] >>> 32) {
+                        groupStarts[group++] = start + i;
+                    }
+                }
+                groupOffsets[row + 1] = group;
+            }
+        }
+    }
+
+    private Collection<WorkstationProcess> slice(int[] offsets, int[] adjacency, Integer id) {
+        if (id == null || offsets[id] == offsets[id + 1]) {
+            return Collections.emptyList();
+        }
+        return new ProcessSlice(adjacency, offsets[id], offsets[id + 1]);
+    }
+
+    private List<ProcessGroup> groups(int[] offsets, int[] adjacency, int[] groupOffsets, int[] groupStarts,
+                                      Integer id) {
+        if (id == null || groupOffsets[id] == groupOffsets[id + 1]) {
+            return Collections.emptyList();
+        }
+        List<ProcessGroup> result = new ArrayList<>(groupOffsets[id + 1] - groupOffsets[id]);
+        for (int group = groupOffsets[id]; group < groupOffsets[id + 1]; group++) {
+            int from = groupStarts[group];
+            int to = group + 1 < groupOffsets[id + 1] ? groupStarts[group + 1] : offsets[id + 1];
+            result.add(new ProcessGroup(processes[adjacency[from]].getProcessType(),
+                    new ProcessSlice(adjacency, from, to)));
+        }
+        return result;
+    }
+
+    /**
+     * The processes related to a resource urn that share a process type.
+     */
+    public static final class ProcessGroup {
+        private final String processType;
+        private final List<WorkstationProcess> processes;
+
+        ProcessGroup(String processType, List<WorkstationProcess> processes) {
+            this.processType = processType;
+            this.processes = processes;
+        }
+
+        /**
+         * @return the process type shared by all processes of this group.
+         */
+        public String getProcessType() {
+            return processType;
+        }
+
+        /**
+         * @return a read-only view of the processes of this group.
+         */
+        public List<WorkstationProcess> getProcesses() {
+            return processes;
+        }
+    }
+
+    /**
+     * Read-only view of a range of an adjacency array, resolved against the process array.
+     */
+    private final class ProcessSlice extends AbstractList<WorkstationProcess> implements RandomAccess {
+        private final int[] adjacency;
+        private final int from;
+        private final int to;
+
+        ProcessSlice(int[] adjacency, int from, int to) {
+            this.adjacency = adjacency;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public WorkstationProcess get(int index) {
+            if (index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            return processes[adjacency[from + index]];
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+
+        WorkstationProcessIndex getIndex() {
+            return WorkstationProcessIndex.this;
+        }
+
+        /**
+         * @return the processes whose ids are set in visible; this slice if all are, without copying.
+         */
+        List<WorkstationProcess> filter(BitSet visible) {
+            int[] kept = null;
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                if (visible.get(adjacency[i])) {
+                    if (kept != null) {
+                        kept[count] = adjacency[i];
+                    }
+                    count++;
+                } else if (kept == null) {
+                    kept = new int[to - from];
+                    System.arraycopy(adjacency, from, kept, 0, count);
+                }
+            }
+            if (kept == null) {
+                return this;
+            }
+            return count == 0 ? Collections.emptyList() : new ProcessSlice(kept, 0, count);
+        }
+    }
+
+    /**
+     * Builds the partial index of a range of described processes, forking for large ranges.
+     */
+    private static final class BuildTask extends RecursiveTask<Builder> {
+        private final List<WorkstationProcess> processes;
+        private final List<Collection<ProcessPartDescription>> inputs;
+        private final List<Collection<ProcessPartDescription>> outputs;
+        private final int from;
+        private final int to;
+
+        BuildTask(List<WorkstationProcess> processes, List<Collection<ProcessPartDescription>> inputs,
+                  List<Collection<ProcessPartDescription>> outputs, int from, int to) {
+            this.processes = processes;
+            this.inputs = inputs;
+            this.outputs = outputs;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Builder compute() {
+            if (to - from <= PARALLEL_CHUNK_SIZE) {
+                Builder builder = new Builder();
+                for (int i = from; i < to; i++) {
+                    builder.addProcess(processes.get(i), inputs.get(i), outputs.get(i));
+                }
+                return builder;
+            }
+            int middle = (from + to) >>> 1;
+            BuildTask left = new BuildTask(processes, inputs, outputs, from, middle);
+            left.fork();
+            Builder right = new BuildTask(processes, inputs, outputs, middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Collects processes and freezes them into a {@link WorkstationProcessIndex}.
+     */
+    public static final class Builder {
+        private final Map<ResourceUrn, Integer> resourceUrnIds = Maps.newHashMap();
+        private WorkstationProcess[] processes = new WorkstationProcess[16];
+        private int processCount;
+        private final EdgeList inputEdges = new EdgeList();
+        private final EdgeList outputEdges = new EdgeList();
+        private final Map<String, Integer> tagIds = Maps.newHashMap();
+        private final EdgeList tagEdges = new EdgeList();
+
+        /**
+         * Adds a process to the index. Processes that cannot describe their inputs and outputs are ignored, as are
+         * descriptions with neither a resource urn nor a tag. Only inputs are indexed by tag.
+         *
+         * @param process the process to add.
+         * @return this builder.
+         */
+        public Builder addProcess(WorkstationProcess process) {
+            if (!(process instanceof DescribeProcess)) {
+                return this;
+            }
+            DescribeProcess describeProcess = (DescribeProcess) process;
+            return addProcess(process, describeProcess.getInputDescriptions(),
+                    describeProcess.getOutputDescriptions());
+        }
+
+        /**
+         * Adds a process with the given descriptions to the index, e.g., when the caller already described the
+         * process for other purposes. Descriptions with neither a resource urn nor a tag are ignored. Only inputs are
+         * indexed by tag.
+         *
+         * @param process the process to add.
+         * @param inputs the descriptions of the inputs of the process.
+         * @param outputs the descriptions of the outputs of the process.
+         * @return this builder.
+         */
+        public Builder addProcess(WorkstationProcess process, Collection<ProcessPartDescription> inputs,
+                                  Collection<ProcessPartDescription> outputs) {
+            int processId = appendProcess(process);
+            addEdges(inputEdges, processId, inputs);
+            addEdges(outputEdges, processId, outputs);
+            addTagEdges(processId, inputs);
+            return this;
+        }
+
+        private int appendProcess(WorkstationProcess process) {
+            if (processCount == processes.length) {
+                processes = Arrays.copyOf(processes, processCount * 2);
+            }
+            processes[processCount] = process;
+            return processCount++;
+        }
+
+        private void addEdges(EdgeList edges, int processId, Collection<ProcessPartDescription> descriptions) {
+            Set<ResourceUrn> seen = Sets.newHashSetWithExpectedSize(descriptions.size());
+            for (ProcessPartDescription description : descriptions) {
+                ResourceUrn resourceUrn = description.getResourceUrn();
+                if (resourceUrn != null && seen.add(resourceUrn)) {
+                    edges.add(internResourceUrn(resourceUrn), processId);
+                }
+            }
+        }
+
+        private void addTagEdges(int processId, Collection<ProcessPartDescription> descriptions) {
+            Set<String> seen = null;
+            for (ProcessPartDescription description : descriptions) {
+                String tag = getTag(description);
+                if (tag == null) {
+                    continue;
+                }
+                if (seen == null) {
+                    seen = Sets.newHashSet();
+                }
+                if (seen.add(tag)) {
+                    tagEdges.add(internTag(tag), processId);
+                }
+            }
+        }
+
+        private int internTag(String tag) {
+            Integer id = tagIds.get(tag);
+            if (id == null) {
+                id = tagIds.size();
+                tagIds.put(tag, id);
+            }
+            return id;
+        }
+
+        private int internResourceUrn(ResourceUrn resourceUrn) {
+            Integer id = resourceUrnIds.get(resourceUrn);
+            if (id == null) {
+                id = resourceUrnIds.size();
+                resourceUrnIds.put(resourceUrn, id);
+            }
+            return id;
+        }
+
+        /**
+         * Appends the processes of another builder, as if they had been added to this builder in the same order.
+         *
+         * @param other the builder to merge into this one. It should not be used afterwards.
+         * @return this builder.
+         */
+        public Builder merge(Builder other) {
+            ResourceUrn[] otherResourceUrns = new ResourceUrn[other.resourceUrnIds.size()];
+            for (Map.Entry<ResourceUrn, Integer> entry : other.resourceUrnIds.entrySet()) {
+                otherResourceUrns[entry.getValue()] = entry.getKey();
+            }
+            // interning in id order keeps the ids in order of first appearance, like a sequential build
+            int[] resourceUrnIdMap = new int[otherResourceUrns.length];
+            for (int i = 0; i < otherResourceUrns.length; i++) {
+                resourceUrnIdMap[i] = internResourceUrn(otherResourceUrns[i]);
+            }
+
+            String[] otherTags = new String[other.tagIds.size()];
+            for (Map.Entry<String, Integer> entry : other.tagIds.entrySet()) {
+                otherTags[entry.getValue()] = entry.getKey();
+            }
+            int[] tagIdMap = new int[otherTags.length];
+            for (int i = 0; i < otherTags.length; i++) {
+                tagIdMap[i] = internTag(otherTags[i]);
+            }
+
+            int processOffset = processCount;
+            for (int i = 0; i < other.processCount; i++) {
+                appendProcess(other.processes[i]);
+            }
+            inputEdges.addAll(other.inputEdges, resourceUrnIdMap, processOffset);
+            outputEdges.addAll(other.outputEdges, resourceUrnIdMap, processOffset);
+            tagEdges.addAll(other.tagEdges, tagIdMap, processOffset);
+            return this;
+        }
+
+        /**
+         * Freezes the collected processes into an index. The builder should not be used afterwards.
+         *
+         * @return the built index.
+         */
+        public WorkstationProcessIndex build() {
+            int resourceUrnCount = resourceUrnIds.size();
+            ResourceUrn[] resourceUrns = new ResourceUrn[resourceUrnCount];
+            for (Map.Entry<ResourceUrn, Integer> entry : resourceUrnIds.entrySet()) {
+                resourceUrns[entry.getValue()] = entry.getKey();
+            }
+            WorkstationProcess[] frozenProcesses = Arrays.copyOf(processes, processCount);
+            String[] processTypes = sortedProcessTypes(frozenProcesses);
+            Map<String, Integer> processTypeIds = Maps.newHashMapWithExpectedSize(processTypes.length);
+            for (String processType : processTypes) {
+                processTypeIds.put(processType, processTypeIds.size());
+            }
+            int[] processTypeRanks = new int[processCount];
+            for (int i = 0; i < processCount; i++) {
+                processTypeRanks[i] = processTypeIds.get(frozenProcesses[i].getProcessType());
+            }
+
+            int[] inputOffsets = new int[resourceUrnCount + 1];
+            int[] inputAdjacency = inputEdges.toAdjacency(inputOffsets);
+            sortByProcessType(inputOffsets, inputAdjacency, processTypeRanks);
+            int[] inputGroupOffsets = new int[resourceUrnCount + 1];
+            int[] inputGroupStarts = findGroupStarts(inputOffsets, inputAdjacency, processTypeRanks, inputGroupOffsets);
+
+            int[] outputOffsets = new int[resourceUrnCount + 1];
+            int[] outputAdjacency = outputEdges.toAdjacency(outputOffsets);
+            sortByProcessType(outputOffsets, outputAdjacency, processTypeRanks);
+            int[] outputGroupOffsets = new int[resourceUrnCount + 1];
+            int[] outputGroupStarts =
+                findGroupStarts(outputOffsets, outputAdjacency, processTypeRanks, outputGroupOffsets);
+
+            String[] tags = new String[tagIds.size()];
+            for (Map.Entry<String, Integer> entry : tagIds.entrySet()) {
+                tags[entry.getValue()] = entry.getKey();
+            }
+            int[] tagOffsets = new int[tags.length + 1];
+            int[] tagAdjacency = tagEdges.toAdjacency(tagOffsets);
+            sortByProcessType(tagOffsets, tagAdjacency, processTypeRanks);
+            int[] tagGroupOffsets = new int[tags.length + 1];
+            int[] tagGroupStarts = findGroupStarts(tagOffsets, tagAdjacency, processTypeRanks, tagGroupOffsets);
+
+            int[] processOffsets = new int[processTypes.length + 1];
+            int[] processesByType = invert(processTypeRanks, processOffsets);
+            int[] typeInputOffsets = new int[processTypes.length + 1];
+            int[] typeInputResourceUrns = resourceUrnsByProcessType(inputOffsets, inputAdjacency, processTypeRanks,
+                    typeInputOffsets);
+            int[] typeOutputOffsets = new int[processTypes.length + 1];
+            int[] typeOutputResourceUrns = resourceUrnsByProcessType(outputOffsets, outputAdjacency, processTypeRanks,
+                    typeOutputOffsets);
+            ProcessTypeIndex processTypeIndex = new ProcessTypeIndex(ImmutableMap.copyOf(processTypeIds), processTypes,
+                    processOffsets, processesByType,
+                    typeInputOffsets, typeInputResourceUrns,
+                    typeOutputOffsets, typeOutputResourceUrns);
+
+            int[] processInputOffsets = new int[processCount + 1];
+            int[] processInputs = inputEdges.toReverseAdjacency(processInputOffsets);
+            int[] processOutputOffsets = new int[processCount + 1];
+            int[] processOutputs = outputEdges.toReverseAdjacency(processOutputOffsets);
+            int[] processTagOffsets = new int[processCount + 1];
+            int[] processTags = tagEdges.toReverseAdjacency(processTagOffsets);
+            ProcessPartIndex processPartIndex = new ProcessPartIndex(processInputOffsets, processInputs,
+                    processOutputOffsets, processOutputs, processTagOffsets, processTags);
+
+            return new WorkstationProcessIndex(
+                    ImmutableMap.copyOf(resourceUrnIds), resourceUrns,
+                    frozenProcesses, processTypeIndex, processPartIndex,
+                    inputOffsets, inputAdjacency, inputGroupOffsets, inputGroupStarts,
+                    outputOffsets, outputAdjacency, outputGroupOffsets, outputGroupStarts,
+                    ImmutableMap.copyOf(tagIds), tags, tagOffsets, tagAdjacency, tagGroupOffsets, tagGroupStarts);
+        }
+
+        /**
+         * @return the distinct process types of the processes, in natural order.
+         */
+        private static String[] sortedProcessTypes(WorkstationProcess[] processes) {
+            Set<String> processTypes = new TreeSet<>();
+            for (WorkstationProcess process : processes) {
+                processTypes.add(process.getProcessType());
+            }
+            return processTypes.toArray(new String[0]);
+        }
+
+        /**
+         * Counting-sorts the indices of values by value.
+         *
+         * @param values the value of each index, in the range of offsets.
+         * @param offsets the array to fill with the start offset of each value.
+         * @return the indices, grouped by value and ascending within a value.
+         */
+        private static int[] invert(int[] values, int[] offsets) {
+            for (int value : values) {
+                offsets[value + 1]++;
+            }
+            for (int i = 1; i < offsets.length; i++) {
+                offsets[i] += offsets[i - 1];
+            }
+            int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+            int[] result = new int[values.length];
+            for (int i = 0; i < values.length; i++) {
+                result[next[values[i]]++] = i;
+            }
+            return result;
+        }
+
+        /**
+         * Finds the distinct resource urns of each process type. Relies on the processes of each resource urn being
+         * sorted by process type.
+         *
+         * @param typeOffsets the array to fill with the start offset of each process type.
+         * @return the resource urn ids, grouped by process type and ascending within a process type.
+         */
+        private static int[] resourceUrnsByProcessType(int[] offsets, int[] adjacency, int[] processTypeRanks,
+                                                       int[] typeOffsets) {
+            for (int id = 0; id < offsets.length - 1; id++) {
+                for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+                    if (i == offsets[id] || processTypeRanks[adjacency[i]] != processTypeRanks[adjacency[i - 1]]) {
+                        typeOffsets[processTypeRanks[adjacency[i]] + 1]++;
+                    }
+                }
+            }
+            for (int i = 1; i < typeOffsets.length; i++) {
+                typeOffsets[i] += typeOffsets[i - 1];
+            }
+            int[] next = Arrays.copyOf(typeOffsets, typeOffsets.length - 1);
+            int[] result = new int[typeOffsets[typeOffsets.length - 1]];
+            for (int id = 0; id < offsets.length - 1; id++) {
+                for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+                    if (i == offsets[id] || processTypeRanks[adjacency[i]] != processTypeRanks[adjacency[i - 1]]) {
+                        result[next[processTypeRanks[adjacency[i]]]++] = id;
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Sorts the processes of each resource urn by process type rank, keeping processes of the same type in order
+         * of their ids.
+         */
+        private static void sortByProcessType(int[] offsets, int[] adjacency, int[] processTypeRanks) {
+            long[] keys = new long[0];
+            for (int id = 0; id < offsets.length - 1; id++) {
+                int from = offsets[id];
+                int length = offsets[id + 1] - from;
+                if (length < 2) {
+                    continue;
+                }
+                if (keys.length < length) {
+                    keys = new long[Math.max(length, keys.length * 2)];
+                }
+                for (int i = 0; i < length; i++) {
+                    int processId = adjacency[from + i];
+                    keys[i] = ((long) processTypeRanks[processId] << 32) | processId;
+                }
+                Arrays.sort(keys, 0, length);
+                for (int i = 0; i < length; i++) {
+                    adjacency[from + i] = (int) keys[i];
+                }
+            }
+        }
+
+        /**
+         * Finds where each process type group of each resource urn starts.
+         *
+         * @param groupOffsets the array to fill with the range of group starts of each resource urn.
+         * @return the adjacency index at which each group starts.
+         */
+        private static int[] findGroupStarts(int[] offsets, int[] adjacency, int[] processTypeRanks,
+                                             int[] groupOffsets) {
+            for (int id = 0; id < offsets.length - 1; id++) {
+                int groups = 0;
+                for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+                    if (i == offsets[id] || processTypeRanks[adjacency[i]] != processTypeRanks[adjacency[i - 1]]) {
+                        groups++;
+                    }
+                }
+                groupOffsets[id + 1] = groupOffsets[id] + groups;
+            }
+            int[] groupStarts = new int[groupOffsets[groupOffsets.length - 1]];
+            int group = 0;
+            for (int id = 0; id < offsets.length - 1; id++) {
+                for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+                    if (i == offsets[id] || processTypeRanks[adjacency[i]] != processTypeRanks[adjacency[i - 1]]) {
+                        groupStarts[group++] = i;
+                    }
+                }
+            }
+            return groupStarts;
+        }
+    }
+
+    /**
+     * Growable list of (resource urn id, process id) pairs. Tag rows use the tag id in place of the resource urn id.
+     */
+    private static final class EdgeList {
+        private int[] resourceUrnIds = new int[32];
+        private int[] processIds = new int[32];
+        private int size;
+
+        void add(int resourceUrnId, int processId) {
+            if (size == resourceUrnIds.length) {
+                resourceUrnIds = Arrays.copyOf(resourceUrnIds, size * 2);
+                processIds = Arrays.copyOf(processIds, size * 2);
+            }
+            resourceUrnIds[size] = resourceUrnId;
+            processIds[size] = processId;
+            size++;
+        }
+
+        /**
+         * Adds the edges of another edge list, remapping the resource urn ids and offsetting the process ids.
+         *
+         * @param other the edge list to add.
+         * @param resourceUrnIdMap the new id of each resource urn id of other.
+         * @param processOffset the offset to add to the process ids of other.
+         */
+        void addAll(EdgeList other, int[] resourceUrnIdMap, int processOffset) {
+            for (int i = 0; i < other.size; i++) {
+                add(resourceUrnIdMap[other.resourceUrnIds[i]], other.processIds[i] + processOffset);
+            }
+        }
+
+        /**
+         * Adds the edges of existing compressed sparse rows, remapping the row and process ids.
+         *
+         * @param offsets the offsets of the existing rows.
+         * @param adjacency the adjacency of the existing rows.
+         * @param newRowIds the new id of each old row id, or -1 to drop its edges; null to keep the row ids.
+         * @param newProcessIds the new id of each old process id, or -1 to drop its edges.
+         */
+        void addAll(int[] offsets, int[] adjacency, int[] newRowIds, int[] newProcessIds) {
+            for (int row = 0; row < offsets.length - 1; row++) {
+                int newRow = newRowIds != null ? newRowIds[row] : row;
+                if (newRow < 0) {
+                    continue;
+                }
+                for (int i = offsets[row]; i < offsets[row + 1]; i++) {
+                    int processId = newProcessIds[adjacency[i]];
+                    if (processId >= 0) {
+                        add(newRow, processId);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Counting-sorts the edges by resource urn id. The sort is stable, so the processes of each resource urn keep
+         * the order in which they were added.
+         *
+         * @param offsets the array to fill with the start offset of each resource urn, one longer than the number of
+         *         resource urns.
+         * @return the adjacency array.
+         */
+        int[] toAdjacency(int[] offsets) {
+            for (int i = 0; i < size; i++) {
+                offsets[resourceUrnIds[i] + 1]++;
+            }
+            for (int i = 1; i < offsets.length; i++) {
+                offsets[i] += offsets[i - 1];
+            }
+            int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+            int[] adjacency = new int[size];
+            for (int i = 0; i < size; i++) {
+                adjacency[next[resourceUrnIds[i]]++] = processIds[i];
+            }
+            return adjacency;
+        }
+
+        /**
+         * Counting-sorts the edges by process id, the inverse of {@link #toAdjacency(int[])}. The resource urns of
+         * each process keep the order in which they were added.
+         *
+         * @param offsets the array to fill with the start offset of each process, one longer than the number of
+         *         processes.
+         * @return the resource urn ids of each process.
+         */
+        int[] toReverseAdjacency(int[] offsets) {
+            for (int i = 0; i < size; i++) {
+                offsets[processIds[i] + 1]++;
+            }
+            for (int i = 1; i < offsets.length; i++) {
+                offsets[i] += offsets[i - 1];
+            }
+            int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+            int[] reverse = new int[size];
+            for (int i = 0; i < size; i++) {
+                reverse[next[processIds[i]]++] = resourceUrnIds[i];
+            }
+            return reverse;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp;
+
+/**
+ * Notified on the game thread whenever {@link WorkstationProcessRelatedAssetCache} replaces its index, e.g., to keep
+ * a structure derived from the index up to date.
+ */
+public interface WorkstationProcessIndexListener {
+    /**
+     * Called once a freshly built or received index was published. Everything derived from the previous index is
+     * outdated.
+     *
+     * @param index the published index.
+     */
+    void onIndexPublished(WorkstationProcessIndex index);
+
+    /**
+     * Called once processes were added to or removed from the current index.
+     *
+     * @param change the change, holding the changed index and the added and removed processes.
+     */
+    void onIndexChanged(WorkstationProcessIndex.Change change);
+}
@@ -0,0 +1,246 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp;
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Table;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.terasology.gestalt.assets.ResourceUrn;
+import org.terasology.workstation.process.DescribeProcess;
+import org.terasology.workstation.process.ProcessPartDescription;
+import org.terasology.workstation.process.WorkstationProcess;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Compact binary encoding of a {@link WorkstationProcessIndex}, used to skip describing all processes when the
+ * process definitions did not change.
+ * <p>
+ * The encoding holds the interned resource urn table, the process type and id of each process, the compressed
+ * sparse rows of both directions, and the tag table with its rows. It is keyed by a fingerprint; decoding fails if the
+ * fingerprint does not match, if the data is from another format version, or if a process of the snapshot no longer
+ * exists or cannot be told apart from another process by its type and id.
+ * </p>
+ * <p>
+ * Snapshots are kept in {@link #FILE_NAME} in the sandbox of the module.
+ * </p>
+ */
+public final class WorkstationProcessIndexSnapshot {
+    /** Identifies the format, followed by its version. Bump the version when the layout changes. */
+    private static final int MAGIC = 0x57504958;
+    private static final int VERSION = 2;
+
+    /** The name of the snapshot file in the sandbox of the module. */
+    public static final String FILE_NAME = "workstationInGameHelpIndex.bin";
+
+    private WorkstationProcessIndexSnapshot() {
+    }
+
+    /**
+     * Computes the fingerprint of a set of process definitions. The processes describe their inputs and outputs, so
+     * this may only be called on the game thread.
+     *
+     * @param modules the id and version of each module of the environment, in a stable order.
+     * @param processes the processes to index.
+     * @return a fingerprint that changes whenever a module version, the set of processes, or the display name or
+     *         resource urn of an input or output of a process changes.
+     */
+    public static String fingerprint(List<String> modules, Collection<WorkstationProcess> processes) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        hasher.putInt(VERSION);
+        for (String module : modules) {
+            hasher.putString(module, StandardCharsets.UTF_8).putByte((byte) 0);
+        }
+        // the registry does not guarantee an order, so the processes are hashed sorted by their definitions
+        List<String> processKeys = processes.stream()
+                .map(WorkstationProcessIndexSnapshot::describe)
+                .sorted()
+                .collect(Collectors.toList());
+        hasher.putInt(processKeys.size());
+        for (String processKey : processKeys) {
+            hasher.putString(processKey, StandardCharsets.UTF_8).putByte((byte) 0);
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * @return the type and id of a process followed by the resource urn and display name of each input and output.
+     */
+    private static String describe(WorkstationProcess process) {
+        StringBuilder key = new StringBuilder();
+        key.append(process.getProcessType()).append('\0').append(process.getId());
+        if (process instanceof DescribeProcess) {
+            DescribeProcess describeProcess = (DescribeProcess) process;
+            appendParts(key.append('\1'), describeProcess.getInputDescriptions());
+            appendParts(key.append('\1'), describeProcess.getOutputDescriptions());
+        }
+        return key.toString();
+    }
+
+    private static void appendParts(StringBuilder key, Collection<ProcessPartDescription> descriptions) {
+        key.append(descriptions.size());
+        for (ProcessPartDescription description : descriptions) {
+            key.append('\0').append(description.getResourceUrn()).append('\0').append(description.getDisplayName());
+        }
+    }
+
+    /**
+     * Encodes an index. An index with holes left by removed processes is compacted first.
+     *
+     * @param index the index to encode.
+     * @param fingerprint the fingerprint of the process definitions the index was built from.
+     * @return the encoded index.
+     */
+    public static byte[] encode(WorkstationProcessIndex index, String fingerprint) {
+        WorkstationProcessIndex compacted = index.compact();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, fingerprint);
+
+            ResourceUrn[] resourceUrns = compacted.getResourceUrnArray();
+            out.writeInt(resourceUrns.length);
+            for (ResourceUrn resourceUrn : resourceUrns) {
+                writeString(out, resourceUrn.toString());
+            }
+            WorkstationProcess[] processes = compacted.getProcessArray();
+            out.writeInt(processes.length);
+            for (WorkstationProcess process : processes) {
+                writeString(out, process.getProcessType());
+                writeString(out, process.getId());
+            }
+            writeInts(out, compacted.getInputOffsets());
+            writeInts(out, compacted.getInputAdjacency());
+            writeInts(out, compacted.getOutputOffsets());
+            writeInts(out, compacted.getOutputAdjacency());
+
+            String[] tags = compacted.getTagArray();
+            out.writeInt(tags.length);
+            for (String tag : tags) {
+                writeString(out, tag);
+            }
+            writeInts(out, compacted.getTagOffsets());
+            writeInts(out, compacted.getTagAdjacency());
+        } catch (IOException e) {
+            // writing to a byte array does not fail
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes an index, resolving its processes against the current ones.
+     *
+     * @param data the encoded index.
+     * @param fingerprint the expected fingerprint.
+     * @param processes the current processes.
+     * @return the decoded index, or empty if the data does not match the fingerprint or the processes, or if two
+     *         processes share the same type and id, so the snapshot cannot tell which of them it refers to.
+     */
+    public static Optional<WorkstationProcessIndex> decode(ByteBuffer data, String fingerprint,
+                                                           Collection<WorkstationProcess> processes) {
+        try {
+            if (data.getInt() != MAGIC || data.getInt() != VERSION || !fingerprint.equals(readString(data))) {
+                return Optional.empty();
+            }
+            ResourceUrn[] resourceUrns = new ResourceUrn[readCount(data)];
+            for (int i = 0; i < resourceUrns.length; i++) {
+                String resourceUrn = readString(data);
+                if (!ResourceUrn.isValid(resourceUrn)) {
+                    return Optional.empty();
+                }
+                resourceUrns[i] = new ResourceUrn(resourceUrn);
+            }
+
+            Table<String, String, WorkstationProcess> processesByTypeAndId = HashBasedTable.create();
+            for (WorkstationProcess process : processes) {
+                if (processesByTypeAndId.put(process.getProcessType(), process.getId(), process) != null) {
+                    return Optional.empty();
+                }
+            }
+            WorkstationProcess[] indexedProcesses = new WorkstationProcess[readCount(data)];
+            Set<WorkstationProcess> resolved = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (int i = 0; i < indexedProcesses.length; i++) {
+                WorkstationProcess process = processesByTypeAndId.get(readString(data), readString(data));
+                if (process == null || !resolved.add(process)) {
+                    return Optional.empty();
+                }
+                indexedProcesses[i] = process;
+            }
+
+            int[] inputOffsets = readInts(data);
+            int[] inputAdjacency = readInts(data);
+            int[] outputOffsets = readInts(data);
+            int[] outputAdjacency = readInts(data);
+
+            String[] tags = new String[readCount(data)];
+            for (int i = 0; i < tags.length; i++) {
+                tags[i] = readString(data);
+            }
+            return Optional.of(WorkstationProcessIndex.fromRows(resourceUrns, indexedProcesses,
+                    inputOffsets, inputAdjacency, outputOffsets, outputAdjacency,
+                    tags, readInts(data), readInts(data)));
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Reads the number of entries of a table. Every entry takes at least one int, which bounds the count.
+     */
+    private static int readCount(ByteBuffer data) {
+        int count = data.getInt();
+        if (count < 0 || count > data.remaining() / Integer.BYTES) {
+            throw new IllegalArgumentException("Invalid count " + count);
+        }
+        return count;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer data) {
+        int length = data.getInt();
+        if (length < 0 || length > data.remaining()) {
+            throw new IllegalArgumentException("Invalid string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        data.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private static int[] readInts(ByteBuffer data) {
+        int length = data.getInt();
+        if (length < 0 || length > data.remaining() / Integer.BYTES) {
+            throw new IllegalArgumentException("Invalid array length " + length);
+        }
+        int[] values = new int[length];
+        data.asIntBuffer().get(values);
+        data.position(data.position() + length * Integer.BYTES);
+        return values;
+    }
+}
@@ -19,19 +19,34 @@ import org.terasology.gestalt.assets.ResourceUrn;
 import org.terasology.workstation.process.WorkstationProcess;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Cache of all workstation processes. Used for getting workstation processes associated with a resource urn.
+ * <p>
+ * The lookups return all cached processes. Help items and other callers showing processes to a player filter them
+ * with {@link WorkstationProcessVisibilityManager}.
+ * </p>
  */
 public interface WorkstationProcessRelatedAssetCache {
     /**
-     * Gets all input workstation processes related to the resourceUrn.
+     * Gets all input workstation processes related to the resourceUrn, including those with an input of a tag
+     * resourceUrn is a member of.
      *
      * @param resourceUrn the resource urn that the workstation processes are associated with.
      * @return a collection of {@link org.terasology.workstation.process.WorkstationProcess}s.
      */
     Collection<WorkstationProcess> getInputRelatedWorkstationProcesses(ResourceUrn resourceUrn);
 
+    /**
+     * Gets all input workstation processes related to the resourceUrn, grouped and ordered by process type.
+     *
+     * @param resourceUrn the resource urn that the workstation processes are associated with.
+     * @return a list of process type groups.
+     */
+    List<WorkstationProcessIndex.ProcessGroup> getInputRelatedProcessGroups(ResourceUrn resourceUrn);
+
     /**
      * Gets all output workstation processes related to resourceUrn.
      *
@@ -39,4 +54,117 @@ public interface WorkstationProcessRelatedAssetCache {
      * @return a collection of {@link org.terasology.workstation.process.WorkstationProcess}s.
      */
     Collection<WorkstationProcess> getOutputRelatedWorkstationProcesses(ResourceUrn resourceUrn);
+
+    /**
+     * Gets all output workstation processes related to the resourceUrn, grouped and ordered by process type.
+     *
+     * @param resourceUrn the resource urn that the workstation processes are associated with.
+     * @return a list of process type groups.
+     */
+    List<WorkstationProcessIndex.ProcessGroup> getOutputRelatedProcessGroups(ResourceUrn resourceUrn);
+
+    /**
+     * Gets the index of all cached workstation processes, unfiltered by the processes a player unlocked. It is frozen,
+     * changes to the cache replace it.
+     *
+     * @return the current index, empty until the cache is filled.
+     */
+    WorkstationProcessIndex getWorkstationProcessIndex();
+
+    /**
+     * Gets the process types of all cached workstation processes.
+     *
+     * @return a collection of process types.
+     */
+    Collection<String> getWorkstationProcessTypes();
+
+    /**
+     * Gets all workstation processes of a process type, i.e., the recipes of a workstation.
+     *
+     * @param processType the process type of the workstation processes.
+     * @return a collection of {@link org.terasology.workstation.process.WorkstationProcess}s.
+     */
+    Collection<WorkstationProcess> getProcessTypeRelatedWorkstationProcesses(String processType);
+
+    /**
+     * Gets all workstation processes of a process type as a single process type group.
+     *
+     * @param processType the process type of the workstation processes.
+     * @return a list holding the group, empty if there are no processes of that type.
+     */
+    List<WorkstationProcessIndex.ProcessGroup> getProcessTypeRelatedProcessGroups(String processType);
+
+    /**
+     * Gets the resource urns used as input by any workstation process of a process type.
+     *
+     * @param processType the process type of the workstation processes.
+     * @return a collection of distinct resource urns.
+     */
+    Collection<ResourceUrn> getProcessTypeInputResourceUrns(String processType);
+
+    /**
+     * Gets the resource urns produced by any workstation process of a process type.
+     *
+     * @param processType the process type of the workstation processes.
+     * @return a collection of distinct resource urns.
+     */
+    Collection<ResourceUrn> getProcessTypeOutputResourceUrns(String processType);
+
+    /**
+     * Gets the transitive recipe graph of the cached workstation processes. The graph is built on first use after the
+     * cache changed, and its expansions are kept until the next change.
+     *
+     * @return the recipe graph of the current workstation processes.
+     */
+    RecipeGraph getRecipeGraph();
+
+    /**
+     * Gets a future that completes once the cache is filled. Until then the lookups return no processes.
+     *
+     * @return the readiness future of this cache.
+     */
+    CompletableFuture<Void> getReadyFuture();
+
+    /**
+     * Adds a listener notified on the game thread whenever the cache publishes a new index or changes its processes,
+     * see {@link WorkstationProcessSearchManager} for a structure kept up to date this way.
+     *
+     * @param listener the listener to add.
+     */
+    void addIndexListener(WorkstationProcessIndexListener listener);
+
+    /**
+     * Looks for the prefabs of participating process types again and adds or removes the processes of the process
+     * types that started or stopped participating. Call it after loading or reloading prefabs with the
+     * {@link org.terasology.workstationInGameHelp.components.ParticipateInItemCategoryInGameHelpComponent} once the
+     * game began, as only the prefabs loaded by then are found on start.
+     */
+    void refreshParticipatingProcessTypes();
+
+    /**
+     * Adds workstation processes to the cache without rebuilding it from scratch, e.g., after a process was
+     * hot-reloaded or a module registered processes at runtime.
+     *
+     * @param processes the workstation processes to add.
+     */
+    void addWorkstationProcesses(Collection<WorkstationProcess> processes);
+
+    /**
+     * Removes workstation processes from the cache without rebuilding it from scratch.
+     *
+     * @param processes the workstation processes to remove.
+     */
+    void removeWorkstationProcesses(Collection<WorkstationProcess> processes);
+
+    /**
+     * Registers resources as members of a tag, e.g., all wood logs as members of "any wood". Processes with an input
+     * of that tag and no resource urn are then listed among the input related processes of each member.
+     * <p>
+     * The tag is matched against the display name of such inputs, ignoring a leading quantity and case.
+     * </p>
+     *
+     * @param tag the name of the tag.
+     * @param members the resource urns of the members.
+     */
+    void addTagMembers(String tag, Collection<ResourceUrn> members);
 }
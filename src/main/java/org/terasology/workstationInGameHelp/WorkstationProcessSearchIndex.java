@@ -0,0 +1,547 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.terasology.workstation.process.DescribeProcess;
+import org.terasology.workstation.process.ProcessPartDescription;
+import org.terasology.workstation.process.WorkstationProcess;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * Full text search over the processes of a {@link WorkstationProcessIndex}, by the display names of their inputs and
+ * outputs, their process ids and their process types.
+ * <p>
+ * Texts are split into lower case words, also at camel case boundaries. The sorted word dictionary answers prefix
+ * queries by binary search, and a trigram index over the dictionary answers substring queries of three or more
+ * characters. Each word maps to the processes it appears in together with the field it appears in. A query matches
+ * the processes that match all of its words; they are ranked by how well and in which field each word matched.
+ * </p>
+ * <p>
+ * Collecting the words describes every process, which may only happen on the game thread. A {@link Builder} collects
+ * them a few processes at a time, so the game thread can spread it over several frames, and then builds the search
+ * index on any thread.
+ * </p>
+ * <p>
+ * A change of the index only collects the words of the added processes, into a segment of their own, and skips the
+ * removed processes from then on; see {@link #withChanges(WorkstationProcessIndex.Change)}.
+ * </p>
+ */
+public class WorkstationProcessSearchIndex {
+    private static final int FIELD_PROCESS_TYPE = 0;
+    private static final int FIELD_PROCESS_ID = 1;
+    private static final int FIELD_INPUT = 2;
+    private static final int FIELD_OUTPUT = 3;
+    /** The weight of a match in each field; what a recipe makes matters most. */
+    private static final int[] FIELD_WEIGHTS = {1, 2, 2, 3};
+
+    private static final int EXACT_MATCH = 4;
+    private static final int PREFIX_MATCH = 2;
+    private static final int SUBSTRING_MATCH = 1;
+
+    /** The number of segments above which the search index should be rebuilt. */
+    private static final int MAX_SEGMENTS = 8;
+
+    private final WorkstationProcessIndex index;
+
+    /** The segment built from the whole index first, then one per change that added processes. */
+    private final Segment[] segments;
+    /** The id of the first process of each segment; the ids of the segments follow each other. */
+    private final int[] segmentStarts;
+    /** The number of process ids of all segments, including removed processes. */
+    private final int processCount;
+    /** The ids of the removed processes, whose postings are skipped. */
+    private final BitSet removed;
+
+    // scratch space of a query, reused to keep searches free of per-process allocations; allocated by the first search
+    private int[] queryStamps;
+    private int[] matchedWords;
+    private int[] scores;
+    private int[] wordStamps;
+    private int[] wordScores;
+    private int queryStamp;
+    private int wordStamp;
+
+    /**
+     * Builds the search index of all processes of an index right away. Processes that cannot describe themselves are
+     * only found by their process id and process type.
+     *
+     * @param index the index to build the search index of.
+     */
+    public WorkstationProcessSearchIndex(WorkstationProcessIndex index) {
+        this(new Builder(index).addAllTerms());
+    }
+
+    private WorkstationProcessSearchIndex(Builder builder) {
+        this(builder.index, new Segment[]{new Segment(builder)}, new int[]{0}, new BitSet());
+    }
+
+    private WorkstationProcessSearchIndex(WorkstationProcessIndex index, Segment[] segments, int[] segmentStarts,
+                                          BitSet removed) {
+        this.index = index;
+        this.segments = segments;
+        this.segmentStarts = segmentStarts;
+        this.processCount = segmentStarts[segments.length - 1] + segments[segments.length - 1].processes.size();
+        this.removed = removed;
+    }
+
+    /**
+     * @return the index this search index was built from, or changed to.
+     */
+    public WorkstationProcessIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Creates a search index with the changes of the index applied. Only the words of the added processes are
+     * collected, into a new segment, as the processes describe themselves on the calling thread; the postings of the
+     * removed processes are skipped from then on.
+     *
+     * @param change a change of the index of this search index.
+     * @return the changed search index; this search index is not modified.
+     */
+    public WorkstationProcessSearchIndex withChanges(WorkstationProcessIndex.Change change) {
+        if (change.isEmpty()) {
+            return change.getIndex() == index ? this
+                    : new WorkstationProcessSearchIndex(change.getIndex(), segments, segmentStarts, removed);
+        }
+        BitSet newRemoved = (BitSet) removed.clone();
+        for (WorkstationProcess process : change.getRemovedProcesses()) {
+            int id = findProcessId(process);
+            if (id >= 0) {
+                newRemoved.set(id);
+            }
+        }
+        if (change.getAddedProcesses().isEmpty()) {
+            return new WorkstationProcessSearchIndex(change.getIndex(), segments, segmentStarts, newRemoved);
+        }
+        Segment[] newSegments = Arrays.copyOf(segments, segments.length + 1);
+        newSegments[segments.length] = new Segment(new Builder(change.getIndex(), change.getAddedProcesses())
+                .addAllTerms());
+        int[] newSegmentStarts = Arrays.copyOf(segmentStarts, segments.length + 1);
+        newSegmentStarts[segments.length] = processCount;
+        return new WorkstationProcessSearchIndex(change.getIndex(), newSegments, newSegmentStarts, newRemoved);
+    }
+
+    /**
+     * Tells whether the changes applied so far made searches slower than a search index built from scratch would be,
+     * because of too many segments or too many removed processes.
+     *
+     * @return true if the search index should be rebuilt.
+     */
+    public boolean needsRebuild() {
+        return segments.length > MAX_SEGMENTS || removed.cardinality() > processCount / 2;
+    }
+
+    /**
+     * @return the id of the process that is not removed, or -1 if there is none.
+     */
+    private int findProcessId(WorkstationProcess process) {
+        for (int segment = segments.length - 1; segment >= 0; segment--) {
+            Integer id = segments[segment].getProcessIds().get(process);
+            if (id != null && !removed.get(segmentStarts[segment] + id)) {
+                return segmentStarts[segment] + id;
+            }
+        }
+        return -1;
+    }
+
+    private WorkstationProcess getProcess(int id) {
+        int segment = Arrays.binarySearch(segmentStarts, id);
+        if (segment < 0) {
+            segment = -segment - 2;
+        }
+        return segments[segment].processes.get(id - segmentStarts[segment]);
+    }
+
+    /**
+     * Finds the processes matching all words of a query, see {@link #search(String, int, Predicate)}.
+     *
+     * @param query the words to search for, e.g., "iron ing" for the recipes of iron ingots.
+     * @param limit the maximum number of results.
+     * @return the matching processes, best matches first.
+     */
+    public List<WorkstationProcess> search(String query, int limit) {
+        return search(query, limit, process -> true);
+    }
+
+    /**
+     * Finds the processes matching all words of a query. A query word matches a word of a process if it is equal to
+     * it, a prefix of it, or, with at least three characters, a part of it.
+     *
+     * @param query the words to search for, e.g., "iron ing" for the recipes of iron ingots.
+     * @param limit the maximum number of results, counted after filtering.
+     * @param filter keeps the processes that may be returned, e.g., the ones the player sees. Only tested on matching
+     *         processes, best matches first, until the limit is reached.
+     * @return the matching processes the filter keeps, best matches first.
+     */
+    public synchronized List<WorkstationProcess> search(String query, int limit, Predicate<WorkstationProcess> filter) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty() || limit <= 0 || processCount == removed.cardinality()) {
+            return Collections.emptyList();
+        }
+        if (scores == null) {
+            queryStamps = new int[processCount];
+            matchedWords = new int[processCount];
+            scores = new int[processCount];
+            wordStamps = new int[processCount];
+            wordScores = new int[processCount];
+        }
+        queryStamp++;
+        IntList candidates = new IntList();
+        for (int word = 0; word < words.size(); word++) {
+            IntList touched = scoreWord(words.get(word));
+            candidates = new IntList();
+            for (int i = 0; i < touched.size; i++) {
+                int processId = touched.values[i];
+                if (word == 0) {
+                    queryStamps[processId] = queryStamp;
+                    matchedWords[processId] = 0;
+                    scores[processId] = 0;
+                }
+                if (queryStamps[processId] == queryStamp && matchedWords[processId] == word) {
+                    matchedWords[processId] = word + 1;
+                    scores[processId] += wordScores[processId];
+                    candidates.add(processId);
+                }
+            }
+            if (candidates.size == 0) {
+                return Collections.emptyList();
+            }
+        }
+
+        long[] ranked = new long[candidates.size];
+        for (int i = 0; i < candidates.size; i++) {
+            int processId = candidates.values[i];
+            ranked[i] = ((long) (Integer.MAX_VALUE - scores[processId]) << 32) | processId;
+        }
+        Arrays.sort(ranked);
+        List<WorkstationProcess> result = Lists.newArrayListWithCapacity(Math.min(limit, ranked.length));
+        for (int i = 0; i < ranked.length && result.size() < limit; i++) {
+            WorkstationProcess process = getProcess((int) ranked[i]);
+            if (filter.test(process)) {
+                result.add(process);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Scores the processes matching a single query word.
+     *
+     * @return the ids of the matching processes, each once; their scores are in wordScores.
+     */
+    private IntList scoreWord(String word) {
+        wordStamp++;
+        IntList touched = new IntList();
+        for (int segment = 0; segment < segments.length; segment++) {
+            Segment terms = segments[segment];
+            int from = terms.lowerBound(word);
+            int to = terms.lowerBound(word + Character.MAX_VALUE);
+            for (int term = from; term < to; term++) {
+                scoreTerm(segment, term, terms.terms[term].equals(word) ? EXACT_MATCH : PREFIX_MATCH, touched);
+            }
+            if (word.length() >= 3) {
+                for (int term : terms.findTermsContaining(word)) {
+                    if (term < from || term >= to) {
+                        scoreTerm(segment, term, SUBSTRING_MATCH, touched);
+                    }
+                }
+            }
+        }
+        return touched;
+    }
+
+    private void scoreTerm(int segment, int term, int matchWeight, IntList touched) {
+        Segment terms = segments[segment];
+        for (int i = terms.termOffsets[term]; i < terms.termOffsets[term + 1]; i++) {
+            int processId = segmentStarts[segment] + (terms.postings[i] >>> 2);
+            if (removed.get(processId)) {
+                continue;
+            }
+            int score = matchWeight * FIELD_WEIGHTS[terms.postings[i] & 3];
+            if (wordStamps[processId] != wordStamp) {
+                wordStamps[processId] = wordStamp;
+                wordScores[processId] = score;
+                touched.add(processId);
+            } else if (wordScores[processId] < score) {
+                wordScores[processId] = score;
+            }
+        }
+    }
+
+    private static int[] intersect(int[] left, int[] right) {
+        int[] result = new int[Math.min(left.length, right.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[count++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static long trigram(String word, int start) {
+        return ((long) word.charAt(start) << 32) | ((long) word.charAt(start + 1) << 16) | word.charAt(start + 2);
+    }
+
+    /**
+     * Adds the words of a text to the terms of a process, keeping the field with the highest weight per word.
+     */
+    private static void addTerms(Map<String, Integer> processTerms, String text, int field) {
+        for (String word : tokenize(text)) {
+            processTerms.merge(word, field,
+                    (left, right) -> FIELD_WEIGHTS[left] >= FIELD_WEIGHTS[right] ? left : right);
+        }
+    }
+
+    /**
+     * Splits a text into lower case words at every character that is not a letter or digit, and where a lower case
+     * letter is followed by an upper case one.
+     *
+     * @param text the text to split, may be null.
+     * @return the words, in order.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return Collections.emptyList();
+        }
+        List<String> words = Lists.newArrayList();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            boolean wordChar = Character.isLetterOrDigit(c);
+            boolean camelBoundary = wordChar && start >= 0 && Character.isUpperCase(c)
+                    && Character.isLowerCase(text.charAt(i - 1));
+            if (start >= 0 && (!wordChar || camelBoundary)) {
+                words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+            if (wordChar && start < 0) {
+                start = i;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Collects the words of the processes of an index in steps, then builds the search index.
+     * <p>
+     * The words are collected on the game thread, as the processes describe themselves. {@link #build()} only works on
+     * the collected words and may run on any thread once all of them are collected.
+     * </p>
+     */
+    public static final class Builder {
+        private final WorkstationProcessIndex index;
+        private final List<WorkstationProcess> processes;
+        private final Map<String, IntList> termPostings = new TreeMap<>();
+        private final Map<String, Integer> processTerms = Maps.newHashMap();
+        private int collected;
+
+        /**
+         * Creates a builder for the search index of all processes of an index.
+         *
+         * @param index the index to build the search index of.
+         */
+        public Builder(WorkstationProcessIndex index) {
+            this(index, index.getProcesses());
+        }
+
+        private Builder(WorkstationProcessIndex index, List<WorkstationProcess> processes) {
+            this.index = index;
+            this.processes = processes;
+        }
+
+        /**
+         * @return the index the search index is built of.
+         */
+        public WorkstationProcessIndex getIndex() {
+            return index;
+        }
+
+        /**
+         * Collects the words of processes until all are collected or the deadline has passed. At least one process is
+         * collected per call.
+         *
+         * @param deadlineNanos the {@link System#nanoTime()} to stop at.
+         * @return true if the words of all processes are collected.
+         */
+        public boolean addTermsUntil(long deadlineNanos) {
+            while (collected < processes.size()) {
+                addTerms(collected++);
+                if (System.nanoTime() - deadlineNanos >= 0) {
+                    break;
+                }
+            }
+            return isComplete();
+        }
+
+        /**
+         * @return true if the words of all processes are collected.
+         */
+        public boolean isComplete() {
+            return collected == processes.size();
+        }
+
+        /**
+         * Builds the search index from the collected words.
+         *
+         * @return the search index.
+         * @throws IllegalStateException if the words of some processes are not collected yet.
+         */
+        public WorkstationProcessSearchIndex build() {
+            if (!isComplete()) {
+                throw new IllegalStateException("Collected the words of " + collected + " of " + processes.size()
+                        + " processes");
+            }
+            return new WorkstationProcessSearchIndex(this);
+        }
+
+        private Builder addAllTerms() {
+            while (collected < processes.size()) {
+                addTerms(collected++);
+            }
+            return this;
+        }
+
+        private void addTerms(int processId) {
+            WorkstationProcess process = processes.get(processId);
+            processTerms.clear();
+            WorkstationProcessSearchIndex.addTerms(processTerms, process.getProcessType(), FIELD_PROCESS_TYPE);
+            WorkstationProcessSearchIndex.addTerms(processTerms, process.getId(), FIELD_PROCESS_ID);
+            if (process instanceof DescribeProcess) {
+                for (ProcessPartDescription description : ((DescribeProcess) process).getInputDescriptions()) {
+                    WorkstationProcessSearchIndex.addTerms(processTerms, description.getDisplayName(), FIELD_INPUT);
+                }
+                for (ProcessPartDescription description : ((DescribeProcess) process).getOutputDescriptions()) {
+                    WorkstationProcessSearchIndex.addTerms(processTerms, description.getDisplayName(), FIELD_OUTPUT);
+                }
+            }
+            for (Map.Entry<String, Integer> term : processTerms.entrySet()) {
+                termPostings.computeIfAbsent(term.getKey(), key -> new IntList()).add(processId << 2 | term.getValue());
+            }
+        }
+    }
+
+    /**
+     * The words of some processes. The process ids of the postings are local to the segment.
+     */
+    private static final class Segment {
+        private final List<WorkstationProcess> processes;
+
+        /** All distinct words, in natural order. */
+        private final String[] terms;
+        /**
+         * {@code postings[termOffsets[term]]} to {@code postings[termOffsets[term + 1]]} are the postings of a term.
+         */
+        private final int[] termOffsets;
+        /** The process id of each posting, shifted left by two, or-ed with the field of the best match. */
+        private final int[] postings;
+        /** The ids of the terms containing each trigram, ascending. */
+        private final Map<Long, int[]> trigramTerms;
+
+        /** The id of each process, built by the first change that removes processes. */
+        private volatile Map<WorkstationProcess, Integer> processIds;
+
+        Segment(Builder builder) {
+            this.processes = builder.processes;
+            Map<String, IntList> termPostings = builder.termPostings;
+
+            this.terms = termPostings.keySet().toArray(new String[0]);
+            this.termOffsets = new int[terms.length + 1];
+            int postingCount = 0;
+            for (int term = 0; term < terms.length; term++) {
+                postingCount += termPostings.get(terms[term]).size;
+                termOffsets[term + 1] = postingCount;
+            }
+            this.postings = new int[postingCount];
+            Map<Long, IntList> trigrams = Maps.newHashMap();
+            for (int term = 0; term < terms.length; term++) {
+                IntList termPosting = termPostings.get(terms[term]);
+                System.arraycopy(termPosting.values, 0, postings, termOffsets[term], termPosting.size);
+                String word = terms[term];
+                for (int i = 0; i + 3 <= word.length(); i++) {
+                    IntList trigramTermIds = trigrams.computeIfAbsent(trigram(word, i), key -> new IntList());
+                    if (trigramTermIds.size == 0 || trigramTermIds.values[trigramTermIds.size - 1] != term) {
+                        trigramTermIds.add(term);
+                    }
+                }
+            }
+            this.trigramTerms = Maps.newHashMapWithExpectedSize(trigrams.size());
+            for (Map.Entry<Long, IntList> trigram : trigrams.entrySet()) {
+                trigramTerms.put(trigram.getKey(), Arrays.copyOf(trigram.getValue().values, trigram.getValue().size));
+            }
+        }
+
+        Map<WorkstationProcess, Integer> getProcessIds() {
+            Map<WorkstationProcess, Integer> ids = processIds;
+            if (ids == null) {
+                ids = Maps.newHashMapWithExpectedSize(processes.size());
+                for (int i = 0; i < processes.size(); i++) {
+                    ids.put(processes.get(i), i);
+                }
+                processIds = ids;
+            }
+            return ids;
+        }
+
+        /**
+         * Intersects the terms of all trigrams of word, then checks the remaining terms.
+         */
+        int[] findTermsContaining(String word) {
+            int[] result = null;
+            for (int i = 0; i + 3 <= word.length(); i++) {
+                int[] trigramTermIds = trigramTerms.get(trigram(word, i));
+                if (trigramTermIds == null) {
+                    return new int[0];
+                }
+                result = result == null ? trigramTermIds : intersect(result, trigramTermIds);
+            }
+            int count = 0;
+            int[] verified = new int[result.length];
+            for (int term : result) {
+                if (terms[term].contains(word)) {
+                    verified[count++] = term;
+                }
+            }
+            return Arrays.copyOf(verified, count);
+        }
+
+        int lowerBound(String word) {
+            int index = Arrays.binarySearch(terms, word);
+            return index >= 0 ? index : -index - 1;
+        }
+    }
+
+    /**
+     * Growable int array.
+     */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp;
+
+import org.terasology.engine.rendering.nui.widgets.browser.data.ParagraphData;
+import org.terasology.workstation.process.WorkstationProcess;
+
+import java.util.List;
+
+/**
+ * Searches the workstation processes of {@link WorkstationProcessRelatedAssetCache} by the display names of their
+ * inputs and outputs, their process ids and their process types. Fast enough to search as the player types.
+ * <p>
+ * The search index is built over a few frames after the cache published a new index, and changed along with the
+ * processes added to or removed from it. Until the first one is built no processes are found.
+ * </p>
+ */
+public interface WorkstationProcessSearchManager {
+    /**
+     * Searches the workstation processes the local player sees, see {@link WorkstationProcessVisibilityManager}.
+     *
+     * @param query the words to search for; each word may be the start or, with at least three characters, a part of
+     *         a word of the process.
+     * @param limit the maximum number of results, counted among the visible processes.
+     * @return the visible processes matching all words of the query, best matches first.
+     */
+    List<WorkstationProcess> searchWorkstationProcesses(String query, int limit);
+
+    /**
+     * Searches the workstation processes the local player sees and gets the paragraphs showing them, one recipe per
+     * result. The paragraphs are built lazily, as the list is iterated over.
+     *
+     * @param query the words to search for.
+     * @param limit the maximum number of results.
+     * @return a list of paragraph data, one per result, best matches first.
+     */
+    List<ParagraphData> getSearchResultParagraphs(String query, int limit);
+}
@@ -0,0 +1,262 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.workstation.process.WorkstationProcess;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The workstation processes each player has unlocked, e.g., on servers where recipes have to be discovered.
+ * <p>
+ * Unlocks are kept as one bitset per player over the process ids of the current {@link WorkstationProcessIndex}, so
+ * a player takes one bit per process and filtering a lookup only tests bits of the ids it already holds. When the
+ * index changes, the bitsets are remapped once; processes that kept their id keep their bit.
+ * </p>
+ * <p>
+ * Unlocks and locks that arrive before the first index is set, e.g., restored with the player while the index is
+ * still being built, are queued per process and applied once it is set.
+ * </p>
+ */
+public class WorkstationProcessVisibility {
+    private WorkstationProcessIndex index = WorkstationProcessIndex.EMPTY;
+
+    private final Map<EntityRef, BitSet> unlockedProcesses = Maps.newHashMap();
+
+    /** Whether an index was set. Until then, unlocks and locks are queued in {@link #pendingChanges}. */
+    private boolean indexSet;
+
+    /** The queued changes of each player, true for an unlock and false for a lock of a process. */
+    private final Map<EntityRef, Map<WorkstationProcess, Boolean>> pendingChanges = Maps.newHashMap();
+
+    /**
+     * Switches to a new index, remapping the unlocked processes of all players to its ids. Unlocked processes that are
+     * not part of the new index are dropped. The first index also applies the queued unlocks and locks.
+     *
+     * @param newIndex the new index.
+     */
+    public synchronized void setIndex(WorkstationProcessIndex newIndex) {
+        if (!indexSet) {
+            indexSet = true;
+            index = newIndex;
+            applyPendingChanges();
+            return;
+        }
+        if (newIndex == index) {
+            return;
+        }
+        WorkstationProcessIndex oldIndex = index;
+        index = newIndex;
+        if (unlockedProcesses.isEmpty()) {
+            return;
+        }
+
+        WorkstationProcess[] oldProcesses = oldIndex.getProcessArray();
+        WorkstationProcess[] newProcesses = newIndex.getProcessArray();
+        for (Map.Entry<EntityRef, BitSet> entry : unlockedProcesses.entrySet()) {
+            BitSet remapped = new BitSet(newProcesses.length);
+            BitSet unlocked = entry.getValue();
+            for (int id = unlocked.nextSetBit(0); id >= 0; id = unlocked.nextSetBit(id + 1)) {
+                WorkstationProcess process = oldProcesses[id];
+                Integer newId = id < newProcesses.length && newProcesses[id] == process ? Integer.valueOf(id)
+                        : newIndex.getProcessId(process);
+                if (newId != null) {
+                    remapped.set(newId);
+                }
+            }
+            entry.setValue(remapped);
+        }
+    }
+
+    private void applyPendingChanges() {
+        for (Map.Entry<EntityRef, Map<WorkstationProcess, Boolean>> player : pendingChanges.entrySet()) {
+            for (Map.Entry<WorkstationProcess, Boolean> change : player.getValue().entrySet()) {
+                Collection<WorkstationProcess> process = Collections.singletonList(change.getKey());
+                if (change.getValue()) {
+                    unlock(player.getKey(), process);
+                } else {
+                    lock(player.getKey(), process);
+                }
+            }
+        }
+        pendingChanges.clear();
+    }
+
+    /**
+     * Queues unlocks or locks of processes for a player until the first index is set. A later change of the same
+     * process replaces an earlier one.
+     *
+     * @return the processes whose queued state changed.
+     */
+    private List<WorkstationProcess> queue(EntityRef player, Collection<WorkstationProcess> processes,
+                                           boolean unlock) {
+        Map<WorkstationProcess, Boolean> changes = pendingChanges.computeIfAbsent(player,
+                key -> Maps.newLinkedHashMap());
+        List<WorkstationProcess> changed = Lists.newArrayList();
+        for (WorkstationProcess process : processes) {
+            Boolean previous = changes.put(process, unlock);
+            if (previous == null ? unlock : previous != unlock) {
+                changed.add(process);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Unlocks processes for a player. Before the first index is set, the unlocks are queued instead.
+     *
+     * @param player the player entity.
+     * @param processes the processes to unlock. Processes that are not indexed are ignored.
+     * @return the processes that were not unlocked before.
+     */
+    public synchronized List<WorkstationProcess> unlock(EntityRef player, Collection<WorkstationProcess> processes) {
+        if (!indexSet) {
+            return queue(player, processes, true);
+        }
+        BitSet unlocked = unlockedProcesses.computeIfAbsent(player, key -> new BitSet(index.getProcessArray().length));
+        List<WorkstationProcess> changed = Lists.newArrayList();
+        for (WorkstationProcess process : processes) {
+            Integer id = index.getProcessId(process);
+            if (id != null && !unlocked.get(id)) {
+                unlocked.set(id);
+                changed.add(process);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Locks processes for a player again. Before the first index is set, the locks are queued instead.
+     *
+     * @param player the player entity.
+     * @param processes the processes to lock.
+     * @return the processes that were unlocked before.
+     */
+    public synchronized List<WorkstationProcess> lock(EntityRef player, Collection<WorkstationProcess> processes) {
+        if (!indexSet) {
+            return queue(player, processes, false);
+        }
+        BitSet unlocked = unlockedProcesses.get(player);
+        if (unlocked == null) {
+            return Collections.emptyList();
+        }
+        List<WorkstationProcess> changed = Lists.newArrayList();
+        for (WorkstationProcess process : processes) {
+            Integer id = index.getProcessId(process);
+            if (id != null && unlocked.get(id)) {
+                unlocked.clear(id);
+                changed.add(process);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Drops all unlocks of a player, e.g., when the player left.
+     *
+     * @param player the player entity.
+     * @return the processes that were unlocked, or queued to be unlocked, before.
+     */
+    public synchronized List<WorkstationProcess> forget(EntityRef player) {
+        List<WorkstationProcess> changed = Lists.newArrayList();
+        BitSet unlocked = unlockedProcesses.remove(player);
+        if (unlocked != null) {
+            WorkstationProcess[] processes = index.getProcessArray();
+            for (int id = unlocked.nextSetBit(0); id >= 0; id = unlocked.nextSetBit(id + 1)) {
+                changed.add(processes[id]);
+            }
+        }
+        Map<WorkstationProcess, Boolean> pending = pendingChanges.remove(player);
+        if (pending != null) {
+            for (Map.Entry<WorkstationProcess, Boolean> change : pending.entrySet()) {
+                if (change.getValue()) {
+                    changed.add(change.getKey());
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * @param player the player entity.
+     * @param process the process to check.
+     * @return true if the player unlocked the process.
+     */
+    public synchronized boolean isUnlocked(EntityRef player, WorkstationProcess process) {
+        BitSet unlocked = unlockedProcesses.get(player);
+        Integer id = unlocked != null ? index.getProcessId(process) : null;
+        return id != null && unlocked.get(id);
+    }
+
+    /**
+     * Keeps the processes a player unlocked.
+     *
+     * @param player the player entity.
+     * @param processes processes of the current index.
+     * @return the unlocked processes, in the same order.
+     */
+    public synchronized List<WorkstationProcess> filter(EntityRef player, Collection<WorkstationProcess> processes) {
+        BitSet unlocked = unlockedProcesses.getOrDefault(player, new BitSet());
+        List<WorkstationProcess> result = index.filterProcesses(processes, unlocked);
+        if (result != null) {
+            return result;
+        }
+        result = Lists.newArrayListWithCapacity(processes.size());
+        for (WorkstationProcess process : processes) {
+            Integer id = index.getProcessId(process);
+            if (id != null && unlocked.get(id)) {
+                result.add(process);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Keeps the processes a player unlocked, dropping groups without any.
+     *
+     * @param player the player entity.
+     * @param groups process type groups of the current index.
+     * @return the groups of the unlocked processes, in the same order.
+     */
+    public synchronized List<WorkstationProcessIndex.ProcessGroup> filterGroups(
+            EntityRef player, List<WorkstationProcessIndex.ProcessGroup> groups) {
+        List<WorkstationProcessIndex.ProcessGroup> result = Lists.newArrayListWithCapacity(groups.size());
+        for (WorkstationProcessIndex.ProcessGroup group : groups) {
+            List<WorkstationProcess> processes = filter(player, group.getProcesses());
+            if (processes == group.getProcesses()) {
+                result.add(group);
+            } else if (!processes.isEmpty()) {
+                result.add(new WorkstationProcessIndex.ProcessGroup(group.getProcessType(), processes));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of players with unlocks, or with queued changes before the first index is set.
+     */
+    public synchronized int getPlayerCount() {
+        return unlockedProcesses.size() + pendingChanges.size();
+    }
+
+    /**
+     * Estimates the heap used by the bitsets of all players, not counting the players themselves.
+     *
+     * @return the estimated number of bytes.
+     */
+    public synchronized long estimateHeapBytes() {
+        long bytes = 0;
+        for (BitSet unlocked : unlockedProcesses.values()) {
+            // the bitset object, its word array and the map entry
+            bytes += 24 + 16 + unlocked.size() / Byte.SIZE + 48;
+        }
+        return bytes;
+    }
+}
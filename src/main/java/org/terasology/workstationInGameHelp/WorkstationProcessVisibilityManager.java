@@ -0,0 +1,76 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp;
+
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.workstation.process.WorkstationProcess;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the workstation processes each player unlocked and decides which processes the help shows to the local
+ * player. Only matters if {@link WorkstationHelpSettings#isFilterByUnlockedProcesses()} is set; otherwise every
+ * process is visible.
+ * <p>
+ * The lookups of {@link WorkstationProcessRelatedAssetCache} are not filtered, so callers that show processes to the
+ * player filter them here.
+ * </p>
+ */
+public interface WorkstationProcessVisibilityManager {
+    /**
+     * Unlocks workstation processes for a player.
+     *
+     * @param player the client entity of the player.
+     * @param processes the workstation processes to unlock.
+     */
+    void unlockWorkstationProcesses(EntityRef player, Collection<WorkstationProcess> processes);
+
+    /**
+     * Locks workstation processes for a player again.
+     *
+     * @param player the client entity of the player.
+     * @param processes the workstation processes to lock.
+     */
+    void lockWorkstationProcesses(EntityRef player, Collection<WorkstationProcess> processes);
+
+    /**
+     * Drops all unlocked workstation processes of a player, e.g., when the player left.
+     *
+     * @param player the client entity of the player.
+     */
+    void forgetUnlockedWorkstationProcesses(EntityRef player);
+
+    /**
+     * Tells whether the local player sees a workstation process.
+     *
+     * @param process a workstation process of the current index.
+     * @return true if lookups are not filtered or the local player unlocked the process.
+     */
+    boolean isVisible(WorkstationProcess process);
+
+    /**
+     * Keeps the workstation processes the local player sees.
+     *
+     * @param processes workstation processes of the current index.
+     * @return the visible processes in the same order, or processes unchanged if lookups are not filtered.
+     */
+    Collection<WorkstationProcess> filterVisible(Collection<WorkstationProcess> processes);
+
+    /**
+     * Keeps the workstation processes the local player sees, dropping groups without any.
+     *
+     * @param groups process type groups of the current index.
+     * @return the groups of the visible processes in the same order, or groups unchanged if lookups are not filtered.
+     */
+    List<WorkstationProcessIndex.ProcessGroup> filterVisibleGroups(List<WorkstationProcessIndex.ProcessGroup> groups);
+
+    /**
+     * Adds a listener that is called with the workstation processes whose visibility to the local player changed,
+     * e.g., to invalidate the help pages showing them. It is not called while lookups are not filtered.
+     *
+     * @param listener the listener to call on the thread that changed the visibility.
+     */
+    void addVisibilityListener(Consumer<Collection<WorkstationProcess>> listener);
+}
@@ -0,0 +1,39 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp.events;
+
+import org.terasology.engine.network.ServerEvent;
+import org.terasology.gestalt.entitysystem.event.Event;
+
+/**
+ * Sent by a client to its client entity to ask the server for its workstation process index.
+ * The server answers with {@link WorkstationProcessIndexEvent}s, and only sends its index if the fingerprint of the
+ * client matches its own.
+ */
+@ServerEvent
+public class RequestWorkstationProcessIndexEvent implements Event {
+    /** The fingerprint of the module environment and processes of the client. */
+    private String fingerprint;
+
+    /**
+     * Default constructor, required for serialization.
+     */
+    public RequestWorkstationProcessIndexEvent() {
+    }
+
+    /**
+     * Constructor that sets the instance variables with the given parameters.
+     *
+     * @param fingerprint the fingerprint of the module environment and processes of the client.
+     */
+    public RequestWorkstationProcessIndexEvent(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * @return the fingerprint of the module environment and processes of the client.
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+}
@@ -0,0 +1,77 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp.events;
+
+import org.terasology.engine.network.OwnerEvent;
+import org.terasology.gestalt.entitysystem.event.Event;
+
+/**
+ * Sent by the server to a client entity with a chunk of the encoded workstation process index of the server. The
+ * chunks are sent in order, and the client decodes the index once it received all of them. A single event without a
+ * chunk tells the client that the server does not send its index, e.g., because the fingerprints differ.
+ *
+ * @see org.terasology.workstationInGameHelp.WorkstationProcessIndexSnapshot
+ */
+@OwnerEvent
+public class WorkstationProcessIndexEvent implements Event {
+    /** The fingerprint of the module environment and processes the index was built from. */
+    private String fingerprint;
+
+    /** The position of the chunk in the encoded index. */
+    private int offset;
+
+    /** The length of the whole encoded index. */
+    private int length;
+
+    /** The chunk of the encoded index. */
+    private byte[] chunk;
+
+    /**
+     * Default constructor, required for serialization.
+     */
+    public WorkstationProcessIndexEvent() {
+    }
+
+    /**
+     * Constructor that sets the instance variables with the given parameters.
+     *
+     * @param fingerprint the fingerprint to set.
+     * @param offset the position of the chunk in the encoded index.
+     * @param length the length of the whole encoded index.
+     * @param chunk the chunk of the encoded index to set, or null if the server does not send its index.
+     */
+    public WorkstationProcessIndexEvent(String fingerprint, int offset, int length, byte[] chunk) {
+        this.fingerprint = fingerprint;
+        this.offset = offset;
+        this.length = length;
+        this.chunk = chunk;
+    }
+
+    /**
+     * @return the fingerprint of the module environment and processes the index was built from.
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @return the position of the chunk in the encoded index.
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return the length of the whole encoded index.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return the chunk of the encoded index, or null if the server does not send its index.
+     */
+    public byte[] getChunk() {
+        return chunk;
+    }
+}
@@ -0,0 +1,29 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp.metrics;
+
+import java.util.Map;
+
+/**
+ * Receives the metrics of the workstation help, e.g., to forward them to a monitoring system.
+ * <p>
+ * Sinks are called on the thread that records or flushes the metrics, so implementations have to be thread-safe and
+ * should not block.
+ * </p>
+ */
+public interface MetricsSink {
+    /**
+     * Called for every recorded duration.
+     *
+     * @param name the name of the timed operation.
+     * @param nanos the duration in nanoseconds.
+     */
+    void onTiming(String name, long nanos);
+
+    /**
+     * Called whenever the metrics are flushed, with the current value of every counter, gauge and histogram summary.
+     *
+     * @param values the metric values by name, in name order.
+     */
+    void onSnapshot(Map<String, Long> values);
+}
@@ -0,0 +1,195 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Counters, gauges and latency histograms of the workstation help pipeline.
+ * <p>
+ * Recording is lock-free and cheap enough for the paragraph hot path. Values are only aggregated when a
+ * {@link #snapshot() snapshot} is taken, e.g., by the console command or when the metrics are
+ * {@link #flush() flushed} to the registered {@link MetricsSink}s.
+ * </p>
+ */
+public class WorkstationHelpMetrics {
+    /** Process types participating in the in-game help. */
+    public static final String PROCESS_TYPES_DISCOVERED = "discovery.processTypes";
+    /** Workstation processes handed to the index. */
+    public static final String PROCESSES_SCANNED = "index.processesScanned";
+    /** Input and output descriptions with a resource urn that were indexed. */
+    public static final String DESCRIPTIONS_INDEXED = "index.descriptionsIndexed";
+    /** Time to load or build the index. */
+    public static final String INDEX_BUILD = "index.build";
+    /** Whether the index was loaded from its snapshot (1) or built (0). */
+    public static final String INDEX_FROM_SNAPSHOT = "index.fromSnapshot";
+    /** Estimated heap retained by the index, in bytes. */
+    public static final String INDEX_HEAP_BYTES = "index.heapBytes";
+    /** Time spent in postBegin, without a background build. */
+    public static final String POST_BEGIN = "postBegin";
+    /** Help items added to the help registry. */
+    public static final String HELP_ITEMS_REGISTERED = "helpItems.registered";
+    /** Calls of getParagraphs of a help item. */
+    public static final String GET_PARAGRAPHS = "paragraphs.get";
+    /** Time to build a single paragraph. */
+    public static final String PARAGRAPH_BUILD = "paragraphs.build";
+    /** Paragraphs built, including process type headers. */
+    public static final String PARAGRAPHS_BUILT = "paragraphs.built";
+    /** Help pages whose remaining paragraphs are waiting to be built over the next frames. */
+    public static final String PARAGRAPHS_QUEUED = "paragraphs.queued";
+    /** Widgets built for process part descriptions. */
+    public static final String WIDGETS_BUILT = "paragraphs.widgetsBuilt";
+    /** Icon renderables of process part descriptions that were reused instead of built. */
+    public static final String ICONS_REUSED = "paragraphs.iconsReused";
+    /** Time to answer a search query. */
+    public static final String SEARCH = "search";
+    /** Players with unlocked processes. */
+    public static final String VISIBILITY_PLAYERS = "visibility.players";
+    /** Estimated heap used by the unlocked processes of all players, in bytes. */
+    public static final String VISIBILITY_HEAP_BYTES = "visibility.heapBytes";
+    /** Help pages found in the paragraph cache. */
+    public static final String CACHE_HITS = "paragraphCache.hits";
+    /** Help pages missing from the paragraph cache. */
+    public static final String CACHE_MISSES = "paragraphCache.misses";
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<MetricsSink> sinks = new CopyOnWriteArrayList<>();
+
+    /**
+     * Adds to a counter.
+     *
+     * @param name the name of the counter.
+     * @param delta the amount to add.
+     */
+    public void add(String name, long delta) {
+        counters.computeIfAbsent(name, key -> new LongAdder()).add(delta);
+    }
+
+    /**
+     * Increments a counter by one.
+     *
+     * @param name the name of the counter.
+     */
+    public void increment(String name) {
+        add(name, 1);
+    }
+
+    /**
+     * Sets a gauge to a fixed value.
+     *
+     * @param name the name of the gauge.
+     * @param value the current value.
+     */
+    public void setGauge(String name, long value) {
+        gauges.put(name, () -> value);
+    }
+
+    /**
+     * Sets a gauge that is read whenever a snapshot is taken, e.g., a counter kept by another class.
+     *
+     * @param name the name of the gauge.
+     * @param value supplies the current value.
+     */
+    public void setGauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    /**
+     * Records a duration in the histogram of name and passes it on to the sinks.
+     *
+     * @param name the name of the timed operation.
+     * @param nanos the duration in nanoseconds.
+     */
+    public void recordNanos(String name, long nanos) {
+        histograms.computeIfAbsent(name, key -> new LatencyHistogram()).record(nanos);
+        for (MetricsSink sink : sinks) {
+            sink.onTiming(name, nanos);
+        }
+    }
+
+    /**
+     * Records the time passed since startNanos.
+     *
+     * @param name the name of the timed operation.
+     * @param startNanos the {@link System#nanoTime()} at the start of the operation.
+     */
+    public void recordSince(String name, long startNanos) {
+        recordNanos(name, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Gets the histogram of a timed operation.
+     *
+     * @param name the name of the timed operation.
+     * @return the histogram, empty if nothing was recorded yet.
+     */
+    public LatencyHistogram getHistogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    /**
+     * Registers a sink that receives every recorded duration and every flushed snapshot.
+     *
+     * @param sink the sink to add.
+     */
+    public void addSink(MetricsSink sink) {
+        sinks.addIfAbsent(sink);
+    }
+
+    /**
+     * Unregisters a sink.
+     *
+     * @param sink the sink to remove.
+     */
+    public void removeSink(MetricsSink sink) {
+        sinks.remove(sink);
+    }
+
+    /**
+     * Takes a snapshot of all metrics. Each histogram is summarized by its count, total, p50, p99 and max, in
+     * nanoseconds.
+     *
+     * @return the metric values by name, in name order.
+     */
+    public Map<String, Long> snapshot() {
+        Map<String, Long> values = new TreeMap<>();
+        counters.forEach((name, counter) -> values.put(name, counter.sum()));
+        gauges.forEach((name, gauge) -> values.put(name, gauge.getAsLong()));
+        histograms.forEach((name, histogram) -> {
+            values.put(name + ".count", histogram.getCount());
+            values.put(name + ".totalNanos", histogram.getTotalNanos());
+            values.put(name + ".p50Nanos", histogram.getPercentileNanos(50));
+            values.put(name + ".p99Nanos", histogram.getPercentileNanos(99));
+            values.put(name + ".maxNanos", histogram.getMaxNanos());
+        });
+        return values;
+    }
+
+    /**
+     * Passes a snapshot of all metrics to the sinks.
+     *
+     * @return the snapshot that was passed on.
+     */
+    public Map<String, Long> flush() {
+        Map<String, Long> values = snapshot();
+        for (MetricsSink sink : sinks) {
+            sink.onSnapshot(values);
+        }
+        return values;
+    }
+
+    /**
+     * Resets all counters and histograms. Gauges keep their values.
+     */
+    public void reset() {
+        counters.values().forEach(LongAdder::reset);
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+}
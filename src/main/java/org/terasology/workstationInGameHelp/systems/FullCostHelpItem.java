@@ -0,0 +1,136 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp.systems;
+
+import org.terasology.engine.rendering.nui.widgets.browser.data.ParagraphData;
+import org.terasology.gestalt.assets.ResourceUrn;
+import org.terasology.inGameHelpAPI.components.HelpItem;
+import org.terasology.workstation.process.ProcessPartDescription;
+import org.terasology.workstationInGameHelp.RecipeGraph;
+import org.terasology.workstationInGameHelp.WorkstationProcessRelatedAssetCache;
+import org.terasology.workstationInGameHelp.metrics.WorkstationHelpMetrics;
+import org.terasology.workstationInGameHelp.ui.WorkstationProcesses;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Contains help item information for the base materials needed in total to make resourceUrn.
+ */
+public class FullCostHelpItem implements HelpItem {
+    /**
+     * The resource urn to get the help information from.
+     */
+    ResourceUrn resourceUrn;
+
+    /**
+     * What the help items share. Used for getting the recipe graph.
+     */
+    WorkstationHelpItemContext context;
+
+    /**
+     * Constructor that sets the instance variables with the given parameters.
+     *
+     * @param resourceUrn the resource urn to set.
+     * @param context what the help items share.
+     */
+    public FullCostHelpItem(ResourceUrn resourceUrn, WorkstationHelpItemContext context) {
+        this.resourceUrn = resourceUrn;
+        this.context = context;
+    }
+
+    /**
+     * Gets the title of this help item.
+     *
+     * @return the title of this help item.
+     */
+    @Override
+    public String getTitle() {
+        return "Full Cost";
+    }
+
+    /**
+     * Gets the category of this help item.
+     *
+     * @return the category of this help item.
+     */
+    @Override
+    public String getCategory() {
+        return "";
+    }
+
+    /**
+     * Gets one paragraph per base material needed to make resourceUrn, with the total quantity of it and its icon.
+     * Inputs that accept any resource of a tag are not expanded, see {@link RecipeGraph#getBaseMaterials(ResourceUrn)}.
+     *
+     * @return an iterable of paragraph data, or a loading paragraph while the processes are being indexed.
+     */
+    @Override
+    public Iterable<ParagraphData> getParagraphs() {
+        long start = System.nanoTime();
+        Iterable<ParagraphData> paragraphs = collectParagraphs();
+        context.getMetrics().recordSince(WorkstationHelpMetrics.GET_PARAGRAPHS, start);
+        return paragraphs;
+    }
+
+    private Iterable<ParagraphData> collectParagraphs() {
+        WorkstationProcessRelatedAssetCache workstationProcessRelatedAssetCache =
+                context.getWorkstationProcessRelatedAssetCache();
+        if (!workstationProcessRelatedAssetCache.getReadyFuture().isDone()) {
+            return Collections.singletonList(WorkstationProcesses.getLoadingParagraph());
+        }
+        RecipeGraph recipeGraph = workstationProcessRelatedAssetCache.getRecipeGraph();
+        if (recipeGraph.getRecipe(resourceUrn) == null) {
+            return Collections.emptyList();
+        }
+        List<ParagraphData> paragraphs = recipeGraph.getBaseMaterials(resourceUrn).entrySet().stream()
+                .map(FullCostHelpItem::getMaterialParagraph)
+                .collect(Collectors.toList());
+        context.getMetrics().add(WorkstationHelpMetrics.PARAGRAPHS_BUILT, paragraphs.size());
+        return paragraphs;
+    }
+
+    /**
+     * Describes a base material with its total quantity. The description of the material in a recipe is not reused,
+     * as its widget shows the quantity of that recipe.
+     */
+    private static ParagraphData getMaterialParagraph(Map.Entry<ResourceUrn, Double> material) {
+        ResourceUrn materialUrn = material.getKey();
+        double quantity = material.getValue();
+        ProcessPartDescription description = new ProcessPartDescription(materialUrn,
+                WorkstationProcesses.formatQuantity(quantity) + " " + materialUrn);
+        return WorkstationProcesses.getMaterialParagraph(quantity, description);
+    }
+
+    /**
+     * Compares this to another object to see if they are equal.
+     *
+     * @param o the object to compare to.
+     * @return true if the object is also a full cost help item and has the same resource urn, false if otherwise.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FullCostHelpItem)) {
+            return false;
+        }
+
+        FullCostHelpItem that = (FullCostHelpItem) o;
+
+        return resourceUrn.equals(that.resourceUrn);
+    }
+
+    /**
+     * Gets the hashcode from resourceUrn.
+     *
+     * @return the hashcode of this.
+     */
+    @Override
+    public int hashCode() {
+        return resourceUrn.hashCode();
+    }
+}
@@ -4,50 +4,31 @@ package org.terasology.workstationInGameHelp.systems;
 
 import org.terasology.gestalt.assets.ResourceUrn;
 import org.terasology.engine.rendering.nui.widgets.browser.data.ParagraphData;
-import org.terasology.inGameHelpAPI.components.HelpItem;
 import org.terasology.workstation.process.WorkstationProcess;
-import org.terasology.workstation.system.WorkstationRegistry;
-import org.terasology.workstationInGameHelp.WorkstationProcessRelatedAssetCache;
+import org.terasology.workstationInGameHelp.WorkstationProcessIndex;
+import org.terasology.workstationInGameHelp.ui.ProcessParagraphCache;
 import org.terasology.workstationInGameHelp.ui.WorkstationProcesses;
 
-import java.util.Collection;
-import java.util.Comparator;
-import java.util.stream.Collectors;
+import java.util.List;
 
 /**
  * Contains help item information for input related workstation processes for resourceUrn.
  */
-public class InputProcessesHelpItem implements HelpItem {
+public class InputProcessesHelpItem extends ProcessGroupsHelpItem {
     /**
      * The resource urn to get the help information from.
      */
     ResourceUrn resourceUrn;
 
-    /**
-     * Reference to the {@link org.terasology.workstationInGameHelp.WorkstationProcessRelatedAssetCache}. Used for
-     * getting workstation processes associated with resourceUrn.
-     */
-    WorkstationProcessRelatedAssetCache workstationProcessRelatedAssetCache;
-
-    /**
-     * Reference to the workstation registry.
-     */
-    WorkstationRegistry workstationRegistry;
-
     /**
      * Constructor that sets the instance variables from the given parameters.
      *
      * @param resourceUrn the resource urn to set.
-     * @param workstationProcessRelatedAssetCache the workstation process related asset cache to set.
-     * @param workstationRegistry the workstation registry to set.
+     * @param context what the help items share.
      */
-    public InputProcessesHelpItem(
-            ResourceUrn resourceUrn,
-            WorkstationProcessRelatedAssetCache workstationProcessRelatedAssetCache,
-            WorkstationRegistry workstationRegistry) {
+    public InputProcessesHelpItem(ResourceUrn resourceUrn, WorkstationHelpItemContext context) {
+        super(context);
         this.resourceUrn = resourceUrn;
-        this.workstationProcessRelatedAssetCache = workstationProcessRelatedAssetCache;
-        this.workstationRegistry = workstationRegistry;
     }
 
     /**
@@ -61,36 +42,44 @@ public class InputProcessesHelpItem implements HelpItem {
     }
 
     /**
-     * Gets the category of this help item.
+     * Gets the resource urn the paragraphs of this help item are cached under.
      *
-     * @return the category of this help item.
+     * @return resourceUrn.
      */
     @Override
-    public String getCategory() {
-        return "";
+    protected ResourceUrn getCacheKey() {
+        return resourceUrn;
     }
 
     /**
-     * Gets data for input workstation processes that are associated with resourceUrn.
+     * Gets the direction the paragraphs of this help item are cached under.
      *
-     * @return a sorted iterable of paragraph data.
+     * @return the input direction.
      */
     @Override
-    public Iterable<ParagraphData> getParagraphs() {
-        Collection<WorkstationProcess> relatedWorkstationProcesses =
-                workstationProcessRelatedAssetCache.getInputRelatedWorkstationProcesses(resourceUrn);
+    protected ProcessParagraphCache.Direction getDirection() {
+        return ProcessParagraphCache.Direction.INPUT;
+    }
 
-        //TODO: group by `workstationProcess.getProcessType()` and add title for the process?
-        /*
-        FlowParagraphData titleParagraphData = new FlowParagraphData(null);
-        titleParagraphData.append(new TextFlowRenderable(workstationProcess.getProcessTypeName(), null, null));
-        result.add(titleParagraphData);
-        */
+    /**
+     * Gets the input related workstation processes of resourceUrn, grouped by process type.
+     *
+     * @return a list of process type groups.
+     */
+    @Override
+    protected List<WorkstationProcessIndex.ProcessGroup> getProcessGroups() {
+        return context.getWorkstationProcessRelatedAssetCache().getInputRelatedProcessGroups(resourceUrn);
+    }
 
-        return relatedWorkstationProcesses.stream()
-                .sorted(Comparator.comparing(WorkstationProcess::getProcessType))
-                .map(WorkstationProcesses::getInputHelpParagraphs)
-                .collect(Collectors.toList());
+    /**
+     * Gets the paragraph of a process that resourceUrn is used in.
+     *
+     * @param process the process to describe.
+     * @return the paragraph of the process.
+     */
+    @Override
+    protected ParagraphData getProcessParagraph(WorkstationProcess process) {
+        return WorkstationProcesses.getInputHelpParagraphs(process);
     }
 
     /**
@@ -0,0 +1,157 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp.systems;
+
+import com.google.common.collect.Iterables;
+import org.terasology.engine.rendering.nui.widgets.browser.data.ParagraphData;
+import org.terasology.gestalt.assets.ResourceUrn;
+import org.terasology.inGameHelpAPI.components.HelpItem;
+import org.terasology.workstation.process.WorkstationProcess;
+import org.terasology.workstationInGameHelp.WorkstationHelpSettings;
+import org.terasology.workstationInGameHelp.WorkstationProcessIndex;
+import org.terasology.workstationInGameHelp.metrics.WorkstationHelpMetrics;
+import org.terasology.workstationInGameHelp.ui.ProcessParagraphCache;
+import org.terasology.workstationInGameHelp.ui.ProcessParagraphs;
+import org.terasology.workstationInGameHelp.ui.WorkstationProcesses;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Base of the help items that list workstation processes in one section per process type. Their paragraphs are
+ * cached, paged and built over several frames past the first screen.
+ */
+public abstract class ProcessGroupsHelpItem implements HelpItem {
+    /**
+     * What the help items share, e.g., the cache the processes are looked up in and the cache of built paragraphs.
+     */
+    final WorkstationHelpItemContext context;
+
+    /**
+     * The number of pages shown if the paragraphs are paged, see {@link WorkstationHelpSettings#getPageSize()}.
+     * Paragraphs past the shown pages are never built.
+     */
+    int shownPages = 1;
+
+    /** The paragraph with the "show next" button, kept as long as the numbers of recipes it shows stay the same. */
+    ParagraphData moreRecipesParagraph;
+
+    /** The number of hidden and of next recipes {@link #moreRecipesParagraph} shows. */
+    int moreRecipesHidden;
+    int moreRecipesNext;
+
+    /**
+     * Constructor that sets the instance variables with the given parameters.
+     *
+     * @param context what the help items share.
+     */
+    protected ProcessGroupsHelpItem(WorkstationHelpItemContext context) {
+        this.context = context;
+    }
+
+    /**
+     * Gets the category of this help item.
+     *
+     * @return the category of this help item.
+     */
+    @Override
+    public String getCategory() {
+        return "";
+    }
+
+    /**
+     * Gets the paragraphs of the listed workstation processes, in one section per process type. The first screen of
+     * paragraphs is built right away, the others over the next frames.
+     * <p>
+     * The paragraphs are a live view: every iteration shows the current state, so reading them again shows the
+     * processes once they are indexed and the paragraphs built in the meantime. If the paragraphs are paged, only
+     * the shown pages are listed, followed by a button that shows the next page. Opening the help page again shows
+     * the first page only.
+     * </p>
+     *
+     * @return an iterable of paragraph data, or a loading paragraph while the processes are being indexed.
+     */
+    @Override
+    public Iterable<ParagraphData> getParagraphs() {
+        return () -> {
+            long start = System.nanoTime();
+            if (!context.isHelpBrowserRefreshing()) {
+                shownPages = 1;
+            }
+            Iterator<ParagraphData> paragraphs = collectParagraphs().iterator();
+            context.getMetrics().recordSince(WorkstationHelpMetrics.GET_PARAGRAPHS, start);
+            return paragraphs;
+        };
+    }
+
+    /**
+     * Shows one more page of paragraphs and refreshes the help screen to show it.
+     */
+    public void showNextPage() {
+        shownPages++;
+        context.requestHelpBrowserRefresh();
+    }
+
+    /**
+     * @return the resource urn the paragraphs are cached under, together with {@link #getDirection()}.
+     */
+    protected abstract ResourceUrn getCacheKey();
+
+    /**
+     * @return the direction the paragraphs are cached under.
+     */
+    protected abstract ProcessParagraphCache.Direction getDirection();
+
+    /**
+     * @return the listed processes, grouped and ordered by process type, before keeping the ones the player sees.
+     */
+    protected abstract List<WorkstationProcessIndex.ProcessGroup> getProcessGroups();
+
+    /**
+     * Builds the paragraph of a single listed process.
+     *
+     * @param process the process to describe.
+     * @return the paragraph of the process.
+     */
+    protected abstract ParagraphData getProcessParagraph(WorkstationProcess process);
+
+    private Iterable<ParagraphData> collectParagraphs() {
+        if (!context.getWorkstationProcessRelatedAssetCache().getReadyFuture().isDone()) {
+            return Collections.singletonList(WorkstationProcesses.getLoadingParagraph());
+        }
+        ProcessParagraphs paragraphs = context.getProcessParagraphCache().get(getCacheKey(), getDirection(),
+                this::buildParagraphs);
+        int pageSize = context.getSettings().getPageSize();
+        int size = paragraphs.size();
+        int shown = pageSize <= 0 ? size : (int) Math.min(size, (long) shownPages * pageSize);
+        if (shown >= size) {
+            return context.getParagraphBuildQueue().getFirstParagraphs(paragraphs, size);
+        }
+        int shownProcesses = paragraphs.getProcessCountBefore(shown);
+        int hiddenProcesses = paragraphs.getProcessCountBefore(size) - shownProcesses;
+        int nextProcesses = paragraphs.getProcessCountBefore((int) Math.min(size, (long) shown + pageSize))
+                - shownProcesses;
+        return Iterables.concat(context.getParagraphBuildQueue().getFirstParagraphs(paragraphs, shown),
+                Collections.singletonList(getMoreRecipesParagraph(hiddenProcesses, nextProcesses)));
+    }
+
+    /**
+     * Gets the paragraph with the "show next" button, building its button only if the numbers it shows changed.
+     */
+    private ParagraphData getMoreRecipesParagraph(int hiddenProcesses, int nextProcesses) {
+        if (moreRecipesParagraph == null || moreRecipesHidden != hiddenProcesses || moreRecipesNext != nextProcesses) {
+            moreRecipesParagraph = WorkstationProcesses.getMoreRecipesParagraph(hiddenProcesses, nextProcesses,
+                    this::showNextPage);
+            moreRecipesHidden = hiddenProcesses;
+            moreRecipesNext = nextProcesses;
+        }
+        return moreRecipesParagraph;
+    }
+
+    private ProcessParagraphs buildParagraphs() {
+        List<WorkstationProcessIndex.ProcessGroup> groups =
+                context.getWorkstationProcessVisibilityManager().filterVisibleGroups(getProcessGroups());
+        return new ProcessParagraphs(groups, this::getProcessParagraph, context.getMetrics());
+    }
+}
@@ -0,0 +1,128 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp.systems;
+
+import org.terasology.workstationInGameHelp.WorkstationHelpSettings;
+import org.terasology.workstationInGameHelp.WorkstationProcessRelatedAssetCache;
+import org.terasology.workstationInGameHelp.WorkstationProcessVisibilityManager;
+import org.terasology.workstationInGameHelp.metrics.WorkstationHelpMetrics;
+import org.terasology.workstationInGameHelp.ui.ProcessParagraphBuildQueue;
+import org.terasology.workstationInGameHelp.ui.ProcessParagraphCache;
+
+/**
+ * What the workstation help items share: where they look up processes and which of them the player sees, how they
+ * page and cache their paragraphs, where they record their metrics, and how they get the help screen to show their
+ * changed paragraphs. Created once by {@link WorkstationItemsInGameHelpCommonSystem} and passed to every help item it
+ * registers.
+ */
+public final class WorkstationHelpItemContext {
+    private final WorkstationProcessRelatedAssetCache workstationProcessRelatedAssetCache;
+    private final WorkstationProcessVisibilityManager workstationProcessVisibilityManager;
+    private final WorkstationHelpSettings settings;
+    private final WorkstationHelpMetrics metrics;
+    private final ProcessParagraphCache processParagraphCache;
+    private final ProcessParagraphBuildQueue paragraphBuildQueue;
+
+    /** Whether the help screen should read the shown help page again on the next frame. */
+    private volatile boolean helpBrowserRefreshRequested;
+
+    /** Whether the help screen read the shown help page again during the current frame. */
+    private volatile boolean helpBrowserRefreshing;
+
+    /**
+     * @param workstationProcessRelatedAssetCache the cache the help items look up their processes in.
+     * @param workstationProcessVisibilityManager decides which of the looked up processes the player sees.
+     * @param settings the live settings of the workstation help.
+     * @param metrics the metrics the help items record to.
+     * @param processParagraphCache the cache of the built paragraphs of all help items.
+     * @param paragraphBuildQueue builds the paragraphs past the first screen of a help page over several frames.
+     */
+    public WorkstationHelpItemContext(WorkstationProcessRelatedAssetCache workstationProcessRelatedAssetCache,
+                                      WorkstationProcessVisibilityManager workstationProcessVisibilityManager,
+                                      WorkstationHelpSettings settings, WorkstationHelpMetrics metrics,
+                                      ProcessParagraphCache processParagraphCache,
+                                      ProcessParagraphBuildQueue paragraphBuildQueue) {
+        this.workstationProcessRelatedAssetCache = workstationProcessRelatedAssetCache;
+        this.workstationProcessVisibilityManager = workstationProcessVisibilityManager;
+        this.settings = settings;
+        this.metrics = metrics;
+        this.processParagraphCache = processParagraphCache;
+        this.paragraphBuildQueue = paragraphBuildQueue;
+    }
+
+    /**
+     * @return the cache the help items look up their processes in.
+     */
+    public WorkstationProcessRelatedAssetCache getWorkstationProcessRelatedAssetCache() {
+        return workstationProcessRelatedAssetCache;
+    }
+
+    /**
+     * @return decides which of the looked up processes the player sees.
+     */
+    public WorkstationProcessVisibilityManager getWorkstationProcessVisibilityManager() {
+        return workstationProcessVisibilityManager;
+    }
+
+    /**
+     * @return the live settings of the workstation help.
+     */
+    public WorkstationHelpSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * @return the metrics the help items record to.
+     */
+    public WorkstationHelpMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return the cache of the built paragraphs of all help items.
+     */
+    public ProcessParagraphCache getProcessParagraphCache() {
+        return processParagraphCache;
+    }
+
+    /**
+     * @return the queue that builds the paragraphs past the first screen of a help page over several frames.
+     */
+    public ProcessParagraphBuildQueue getParagraphBuildQueue() {
+        return paragraphBuildQueue;
+    }
+
+    /**
+     * Asks for the help screen to read the shown help page again on the next frame, e.g., after the player chose to
+     * show more of its paragraphs.
+     */
+    public void requestHelpBrowserRefresh() {
+        helpBrowserRefreshRequested = true;
+    }
+
+    /**
+     * Tells whether the paragraphs are read because the help screen was refreshed, rather than because the player
+     * opened a help page. Help items keep their paging state across refreshes only.
+     *
+     * @return true if the help screen was refreshed during the current frame.
+     */
+    public boolean isHelpBrowserRefreshing() {
+        return helpBrowserRefreshing;
+    }
+
+    /**
+     * @return whether a refresh was requested since the last call.
+     */
+    boolean takeHelpBrowserRefreshRequest() {
+        boolean requested = helpBrowserRefreshRequested;
+        helpBrowserRefreshRequested = false;
+        return requested;
+    }
+
+    /**
+     * @param helpBrowserRefreshing whether the help screen is refreshed during the current frame.
+     */
+    void setHelpBrowserRefreshing(boolean helpBrowserRefreshing) {
+        this.helpBrowserRefreshing = helpBrowserRefreshing;
+    }
+}
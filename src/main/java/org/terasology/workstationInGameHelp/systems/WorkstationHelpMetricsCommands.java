@@ -0,0 +1,49 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp.systems;
+
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.logic.console.commandSystem.annotations.Command;
+import org.terasology.engine.logic.console.commandSystem.annotations.CommandParam;
+import org.terasology.engine.logic.permission.PermissionManager;
+import org.terasology.engine.registry.In;
+import org.terasology.workstationInGameHelp.WorkstationHelpMetricsManager;
+import org.terasology.workstationInGameHelp.metrics.WorkstationHelpMetrics;
+
+import java.util.Map;
+
+/**
+ * Console commands to inspect the metrics of the workstation help.
+ */
+@RegisterSystem
+public class WorkstationHelpMetricsCommands extends BaseComponentSystem {
+    /** Reference to the {@link WorkstationHelpMetricsManager} that keeps the metrics. */
+    @In
+    WorkstationHelpMetricsManager workstationHelpMetricsManager;
+
+    /**
+     * Shows the current metrics and flushes them to the registered metrics sinks.
+     *
+     * @param reset whether to reset the counters and histograms afterwards.
+     * @return one line per metric.
+     */
+    @Command(shortDescription = "Shows the metrics of the workstation help",
+            helpText = "Shows the index build and help page metrics of the workstation help, and flushes them to the "
+                    + "registered metrics sinks. Pass true to reset the counters and histograms afterwards.",
+            requiredPermission = PermissionManager.DEBUG_PERMISSION)
+    public String workstationHelpMetrics(@CommandParam(value = "reset", required = false) Boolean reset) {
+        WorkstationHelpMetrics metrics = workstationHelpMetricsManager.getMetrics();
+        StringBuilder result = new StringBuilder();
+        for (Map.Entry<String, Long> metric : metrics.flush().entrySet()) {
+            if (result.length() > 0) {
+                result.append('\n');
+            }
+            result.append(metric.getKey()).append(" = ").append(metric.getValue());
+        }
+        if (Boolean.TRUE.equals(reset)) {
+            metrics.reset();
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,29 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp.systems;
+
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.registry.Share;
+import org.terasology.workstationInGameHelp.WorkstationHelpMetricsManager;
+import org.terasology.workstationInGameHelp.metrics.WorkstationHelpMetrics;
+
+/**
+ * System that keeps the metrics of the workstation help, shown by the workstationHelpMetrics command.
+ */
+@RegisterSystem
+@Share(WorkstationHelpMetricsManager.class)
+public class WorkstationHelpMetricsSystem extends BaseComponentSystem implements WorkstationHelpMetricsManager {
+    /** Metrics of the index build, of the search and of the help items. */
+    final WorkstationHelpMetrics metrics = new WorkstationHelpMetrics();
+
+    /**
+     * Gets the metrics of the workstation help.
+     *
+     * @return the metrics of this system.
+     */
+    @Override
+    public WorkstationHelpMetrics getMetrics() {
+        return metrics;
+    }
+}
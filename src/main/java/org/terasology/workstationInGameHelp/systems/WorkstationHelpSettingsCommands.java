@@ -0,0 +1,64 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp.systems;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.logic.console.commandSystem.annotations.Command;
+import org.terasology.engine.logic.console.commandSystem.annotations.CommandParam;
+import org.terasology.engine.logic.permission.PermissionManager;
+import org.terasology.engine.registry.In;
+import org.terasology.workstationInGameHelp.WorkstationHelpSettings;
+import org.terasology.workstationInGameHelp.WorkstationHelpSettingsManager;
+
+import java.util.Map;
+
+/**
+ * Console command to show and change the settings of the workstation help.
+ */
+@RegisterSystem
+public class WorkstationHelpSettingsCommands extends BaseComponentSystem {
+    /** Reference to the {@link WorkstationHelpSettingsManager} that keeps the settings. */
+    @In
+    WorkstationHelpSettingsManager workstationHelpSettingsManager;
+
+    /**
+     * Shows all settings, or changes one setting and saves the settings file.
+     *
+     * @param name the name of the setting to change, or null to show all settings.
+     * @param value the new value of the setting.
+     * @return one line per setting, or the changed setting, or why it could not be changed.
+     */
+    @Command(shortDescription = "Shows or changes the settings of the workstation help",
+            helpText = "Without arguments, shows all settings of the workstation help. With a name and a value, "
+                    + "changes that setting and saves it. Settings of the index build take effect on the next start.",
+            requiredPermission = PermissionManager.DEBUG_PERMISSION)
+    public String workstationHelpSetting(@CommandParam(value = "name", required = false) String name,
+                                         @CommandParam(value = "value", required = false) String value) {
+        WorkstationHelpSettings settings = workstationHelpSettingsManager.getSettings();
+        if (name == null) {
+            StringBuilder result = new StringBuilder();
+            for (Map.Entry<String, JsonElement> setting : settings.toJson().entrySet()) {
+                if (result.length() > 0) {
+                    result.append('\n');
+                }
+                result.append(setting.getKey()).append(" = ").append(setting.getValue());
+            }
+            return result.toString();
+        }
+        if (value == null) {
+            JsonElement current = settings.toJson().get(name);
+            return current != null ? name + " = " + current : "Unknown setting " + name;
+        }
+
+        try {
+            settings.copyFrom(settings.with(name, value));
+        } catch (IllegalArgumentException | JsonParseException e) {
+            return e.getMessage();
+        }
+        workstationHelpSettingsManager.saveSettings();
+        return name + " = " + settings.toJson().get(name);
+    }
+}
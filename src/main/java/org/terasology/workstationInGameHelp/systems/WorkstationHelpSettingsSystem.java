@@ -0,0 +1,89 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp.systems;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.engine.core.module.SandboxFileManager;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.registry.In;
+import org.terasology.engine.registry.Share;
+import org.terasology.workstationInGameHelp.WorkstationHelpSettings;
+import org.terasology.workstationInGameHelp.WorkstationHelpSettingsManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * System that reads the settings of the workstation help from their file in the sandbox of the module and saves them
+ * back.
+ */
+@RegisterSystem
+@Share(WorkstationHelpSettingsManager.class)
+public class WorkstationHelpSettingsSystem extends BaseComponentSystem implements WorkstationHelpSettingsManager {
+    private static final Logger logger = LoggerFactory.getLogger(WorkstationHelpSettingsSystem.class);
+
+    /** Reference to the sandboxed file access of the module, used for the settings file. */
+    @In
+    SandboxFileManager sandboxFileManager;
+
+    /** The settings of the workstation help, read from their file in {@link #initialise()}. */
+    final WorkstationHelpSettings settings = new WorkstationHelpSettings();
+
+    /**
+     * Reads the settings file, writing one with the default settings if there is none yet.
+     *
+     * @throws IllegalStateException if no sandbox file manager was injected.
+     */
+    @Override
+    public void initialise() {
+        super.initialise();
+        if (sandboxFileManager == null) {
+            throw new IllegalStateException("No SandboxFileManager is shared, cannot read the workstation settings");
+        }
+        boolean[] found = new boolean[1];
+        try {
+            sandboxFileManager.readFile(WorkstationHelpSettings.FILE_NAME, bytes -> {
+                found[0] = true;
+                settings.copyFrom(WorkstationHelpSettings.fromJson(new String(bytes, StandardCharsets.UTF_8)));
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Failed to read the workstation help settings, using the defaults", e);
+            return;
+        }
+        if (!found[0]) {
+            saveSettings();
+        }
+    }
+
+    /**
+     * Gets the settings of the workstation help.
+     *
+     * @return the live settings.
+     */
+    @Override
+    public WorkstationHelpSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Saves the current settings to the settings file in the sandbox of the module.
+     */
+    @Override
+    public void saveSettings() {
+        byte[] json = settings.toJson().toString().getBytes(StandardCharsets.UTF_8);
+        try {
+            sandboxFileManager.writeFile(WorkstationHelpSettings.FILE_NAME, out -> {
+                try {
+                    out.write(json);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Failed to save the workstation help settings", e);
+        }
+    }
+}
@@ -16,33 +16,77 @@
 package org.terasology.workstationInGameHelp.systems;
 
 import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.terasology.gestalt.assets.ResourceUrn;
+import org.terasology.engine.core.GameThread;
+import org.terasology.engine.core.module.ModuleManager;
+import org.terasology.engine.core.module.SandboxFileManager;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.event.ReceiveEvent;
 import org.terasology.engine.entitySystem.prefab.Prefab;
+import org.terasology.engine.entitySystem.prefab.PrefabManager;
 import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
 import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.entitySystem.systems.UpdateSubscriberSystem;
+import org.terasology.engine.logic.players.LocalPlayer;
+import org.terasology.engine.network.ClientComponent;
+import org.terasology.engine.network.NetworkMode;
+import org.terasology.engine.network.NetworkSystem;
 import org.terasology.engine.registry.In;
 import org.terasology.engine.registry.Share;
+import org.terasology.engine.rendering.nui.NUIManager;
+import org.terasology.engine.rendering.nui.UIScreenLayer;
 import org.terasology.engine.utilities.Assets;
 import org.terasology.inGameHelpAPI.ItemsCategoryInGameHelpRegistry;
 import org.terasology.workstation.process.DescribeProcess;
 import org.terasology.workstation.process.ProcessPartDescription;
 import org.terasology.workstation.process.WorkstationProcess;
 import org.terasology.workstation.system.WorkstationRegistry;
+import org.terasology.workstationInGameHelp.RecipeGraph;
+import org.terasology.workstationInGameHelp.WorkstationHelpMetricsManager;
+import org.terasology.workstationInGameHelp.WorkstationHelpSettings;
+import org.terasology.workstationInGameHelp.WorkstationHelpSettingsManager;
+import org.terasology.workstationInGameHelp.WorkstationProcessIndex;
+import org.terasology.workstationInGameHelp.WorkstationProcessIndexListener;
+import org.terasology.workstationInGameHelp.WorkstationProcessIndexSnapshot;
 import org.terasology.workstationInGameHelp.WorkstationProcessRelatedAssetCache;
+import org.terasology.workstationInGameHelp.WorkstationProcessVisibilityManager;
 import org.terasology.workstationInGameHelp.components.ParticipateInItemCategoryInGameHelpComponent;
+import org.terasology.workstationInGameHelp.events.RequestWorkstationProcessIndexEvent;
+import org.terasology.workstationInGameHelp.events.WorkstationProcessIndexEvent;
+import org.terasology.workstationInGameHelp.metrics.WorkstationHelpMetrics;
+import org.terasology.workstationInGameHelp.ui.ProcessParagraphBuildQueue;
+import org.terasology.workstationInGameHelp.ui.ProcessParagraphCache;
+import org.terasology.workstationInGameHelp.ui.WorkstationProcesses;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 /**
  * System that handles the resource urns and workstation processes of the prefabs that have the {@link org.terasology.workstationInGameHelp.components.ParticipateInItemCategoryInGameHelpComponent}.
  */
 @RegisterSystem
 @Share(WorkstationProcessRelatedAssetCache.class)
-public class WorkstationItemsInGameHelpCommonSystem extends BaseComponentSystem implements WorkstationProcessRelatedAssetCache {
+public class WorkstationItemsInGameHelpCommonSystem extends BaseComponentSystem
+        implements WorkstationProcessRelatedAssetCache, UpdateSubscriberSystem {
+    private static final Logger logger = LoggerFactory.getLogger(WorkstationItemsInGameHelpCommonSystem.class);
+
     /** Reference to the {@link org.terasology.inGameHelpAPI.ItemsCategoryInGameHelpRegistry} that is used to add workstation help items. */
     @In
     ItemsCategoryInGameHelpRegistry itemsCategoryInGameHelpRegistry;
@@ -51,69 +95,1005 @@ public class WorkstationItemsInGameHelpCommonSystem extends BaseComponentSystem
     @In
     WorkstationRegistry workstationRegistry;
 
-    /** Maps resource urns to input related workstation processes. */
-    Multimap<ResourceUrn, WorkstationProcess> inputAssetsToWorkstationProcesses = HashMultimap.create();
+    /** Reference to the prefab manager that is used to find the prefabs of participating process types. */
+    @In
+    PrefabManager prefabManager;
+
+    /** Reference to the module manager that is used to fingerprint the module environment for the index snapshot. */
+    @In
+    ModuleManager moduleManager;
+
+    /** Reference to the network system that is used to decide whether the index is built locally or replicated. */
+    @In
+    NetworkSystem networkSystem;
+
+    /** Reference to the local player whose client entity requests the index from the server. */
+    @In
+    LocalPlayer localPlayer;
+
+    /**
+     * Reference to the NUI manager that is used to refresh the in-game help screen once queued paragraphs are built.
+     * Not available on headless servers.
+     */
+    @In
+    NUIManager nuiManager;
+
+    /** Reference to the sandboxed file access of the module, used for the index snapshot file. */
+    @In
+    SandboxFileManager sandboxFileManager;
+
+    /** Reference to the {@link WorkstationHelpSettingsManager} that keeps the settings of the workstation help. */
+    @In
+    WorkstationHelpSettingsManager workstationHelpSettingsManager;
+
+    /** Reference to the {@link WorkstationHelpMetricsManager} that keeps the metrics of the workstation help. */
+    @In
+    WorkstationHelpMetricsManager workstationHelpMetricsManager;
+
+    /** Reference to the {@link WorkstationProcessVisibilityManager} whose changes invalidate the cached help pages. */
+    @In
+    WorkstationProcessVisibilityManager workstationProcessVisibilityManager;
+
+    /** The live settings of the workstation help, taken from the settings manager in {@link #initialise()}. */
+    WorkstationHelpSettings settings;
+
+    /**
+     * Maps resource urns to input and output related workstation processes. Frozen once built in {@link #postBegin()},
+     * changes replace the whole index so readers on other threads always see a complete one.
+     */
+    volatile WorkstationProcessIndex workstationProcessIndex = WorkstationProcessIndex.EMPTY;
+
+    /** The recipe graph of the current index, built on first use. */
+    volatile RecipeGraph recipeGraph;
+
+    /** Notified whenever the index is published or changed. */
+    final List<WorkstationProcessIndexListener> indexListeners = Lists.newCopyOnWriteArrayList();
+
+    /** Completed on the game thread once the index is published and its help items are registered. */
+    final CompletableFuture<Void> readyFuture = new CompletableFuture<>();
+
+    /** The default time spent adding processes to the index per frame while it is built over several frames. */
+    static final long DEFAULT_INDEX_BUILD_BUDGET_NANOS = 4_000_000;
+
+    /**
+     * The builder of the index while its processes are added over several frames, see
+     * {@link WorkstationHelpSettings#isAsyncIndexBuild()}, null otherwise.
+     */
+    WorkstationProcessIndex.Builder incrementalIndexBuilder;
+
+    /** The number of participating processes already added to {@link #incrementalIndexBuilder}. */
+    int incrementalIndexProgress;
+
+    /** When the index build started, in {@link System#nanoTime()}. */
+    long indexBuildStart;
+
+    /** The time spent adding processes to the index per frame while it is built over several frames, in nanoseconds. */
+    long indexBuildBudgetNanos = DEFAULT_INDEX_BUILD_BUDGET_NANOS;
+
+    /** Processes added while the index was still being built in the background, applied once it is published. */
+    List<WorkstationProcess> pendingAddedProcesses = Lists.newArrayList();
+
+    /** Processes removed while the index was still being built in the background, applied once it is published. */
+    List<WorkstationProcess> pendingRemovedProcesses = Lists.newArrayList();
+
+    /** The default time a client waits for the index of the server before building its own. */
+    static final long DEFAULT_INDEX_REQUEST_TIMEOUT_NANOS = 10_000_000_000L;
+
+    /** Whether this client requested the index from the server and neither got it nor gave up waiting yet. */
+    boolean indexRequestPending;
+
+    /** When the index was requested from the server, in {@link System#nanoTime()}. */
+    long indexRequestStart;
+
+    /** The time a client waits for the index of the server before building its own, in nanoseconds. */
+    long indexRequestTimeoutNanos = DEFAULT_INDEX_REQUEST_TIMEOUT_NANOS;
+
+    /** The participating process types, found in {@link #postBegin()} and by later refreshes. */
+    Set<String> participatingProcessTypes = Collections.emptySet();
+
+    /** The participating processes found in {@link #postBegin()}. */
+    List<WorkstationProcess> participatingProcesses = Collections.emptyList();
+
+    /** The fingerprint of the module environment and the participating processes. */
+    String indexFingerprint = "";
+
+    /** The encoded index sent to clients, and the index it was encoded from. */
+    byte[] encodedIndex;
+    WorkstationProcessIndex encodedIndexSource;
 
-    /** Maps resource urns to output related workstation processes. */
-    Multimap<ResourceUrn, WorkstationProcess> outputAssetsToWorkstationProcesses = HashMultimap.create();
+    /** The size of the chunks the encoded index is sent to clients in, in bytes. */
+    static final int INDEX_CHUNK_BYTES = 16 * 1024;
+
+    /** The encoded index of the server while its chunks are received, null if none are. */
+    byte[] receivedIndex;
+
+    /** The number of bytes of {@link #receivedIndex} received so far. */
+    int receivedIndexBytes;
+
+    /** The tags each resource urn is a member of, as registered with {@link #addTagMembers(String, Collection)}. */
+    SetMultimap<ResourceUrn, String> resourceUrnTags = HashMultimap.create();
+
+    /** The members of each tag. */
+    SetMultimap<String, ResourceUrn> tagMembers = HashMultimap.create();
+
+    /**
+     * The value of {@link WorkstationHelpSettings#isFilterByUnlockedProcesses()} the cached help pages were built
+     * with.
+     */
+    boolean filteringByUnlockedProcesses;
+
+    /** Resource urns that already have an input processes help item in the registry. */
+    Set<ResourceUrn> registeredInputHelpItems = Sets.newHashSet();
+
+    /** Resource urns that already have an output processes help item in the registry. */
+    Set<ResourceUrn> registeredOutputHelpItems = Sets.newHashSet();
+
+    /** Resource urns that already have a full cost help item in the registry. */
+    Set<ResourceUrn> registeredFullCostHelpItems = Sets.newHashSet();
+
+    /** Process types that already have a workstation recipes help item in the registry, with its prefab urn. */
+    Map<String, ResourceUrn> registeredProcessTypeHelpItems = Maps.newHashMap();
+
+    /** Caches the paragraphs of the registered help items. Invalidated whenever the process index changes. */
+    final ProcessParagraphCache processParagraphCache = new ProcessParagraphCache(
+            ProcessParagraphCache.DEFAULT_MAXIMUM_SIZE, ProcessParagraphCache.DEFAULT_MAXIMUM_ICONS);
+
+    /** Builds the paragraphs of opened help pages past their first screen, a little every frame. */
+    final ProcessParagraphBuildQueue paragraphBuildQueue =
+            new ProcessParagraphBuildQueue(ProcessParagraphBuildQueue.DEFAULT_FIRST_SCREEN_SIZE);
+
+    /** The time spent building queued paragraphs per frame, in nanoseconds. */
+    long paragraphBuildBudgetNanos = ProcessParagraphBuildQueue.DEFAULT_FRAME_BUDGET_NANOS;
+
+    /** The uri of the screen of the InGameHelp module that shows the help items. */
+    static final String IN_GAME_HELP_SCREEN = "InGameHelp:inGameHelpScreen";
+
+    /** The metrics of the workstation help, taken from the metrics manager in {@link #initialise()}. */
+    WorkstationHelpMetrics metrics;
+
+    /** What the registered help items share, created in {@link #initialise()}. */
+    WorkstationHelpItemContext helpItemContext;
+
+    /**
+     * Takes the settings and metrics from their managers, creates what the help items share, and invalidates the
+     * cached help pages whenever the local player unlocks or locks processes.
+     *
+     * @throws IllegalStateException if no sandbox file manager was injected.
+     */
+    @Override
+    public void initialise() {
+        super.initialise();
+        if (sandboxFileManager == null) {
+            throw new IllegalStateException("No SandboxFileManager is shared, cannot keep the workstation process "
+                    + "index snapshot");
+        }
+        settings = workstationHelpSettingsManager.getSettings();
+        metrics = workstationHelpMetricsManager.getMetrics();
+        helpItemContext = new WorkstationHelpItemContext(this, workstationProcessVisibilityManager, settings,
+                metrics, processParagraphCache, paragraphBuildQueue);
+        workstationProcessVisibilityManager.addVisibilityListener(this::invalidateVisibilityChanges);
+    }
 
     /**
      * Fills the workstation registry with input and output processes help items.
-     * Fills the input and output workstation processes maps with the cooresponding resourceUrn and workstation process.
+     * Builds the workstation process index with the cooresponding resourceUrn and workstation process.
      */
     @Override
     public void postBegin() {
         super.postBegin();
+        long start = System.nanoTime();
+        metrics.setGauge(WorkstationHelpMetrics.CACHE_HITS, processParagraphCache::getHits);
+        metrics.setGauge(WorkstationHelpMetrics.CACHE_MISSES, processParagraphCache::getMisses);
+        metrics.setGauge(WorkstationHelpMetrics.WIDGETS_BUILT, WorkstationProcesses::getWidgetsBuilt);
+        metrics.setGauge(WorkstationHelpMetrics.ICONS_REUSED, WorkstationProcesses::getIconsReused);
+        metrics.setGauge(WorkstationHelpMetrics.PARAGRAPHS_QUEUED, paragraphBuildQueue::size);
+        metrics.setGauge(WorkstationHelpMetrics.DESCRIPTIONS_INDEXED,
+                () -> workstationProcessIndex.getInputEdgeCount() + workstationProcessIndex.getOutputEdgeCount());
+        metrics.setGauge(WorkstationHelpMetrics.INDEX_HEAP_BYTES, () -> workstationProcessIndex.estimateHeapBytes());
+
+        participatingProcessTypes = discoverParticipatingProcessTypes();
+        List<WorkstationProcess> processes =
+                Lists.newArrayList(workstationRegistry.getWorkstationProcesses(participatingProcessTypes));
+        String fingerprint = WorkstationProcessIndexSnapshot.fingerprint(getModuleVersions(), processes);
+        participatingProcesses = processes;
+        indexFingerprint = fingerprint;
+        metrics.setGauge(WorkstationHelpMetrics.PROCESSES_SCANNED, processes.size());
 
-        Set<String> processTypesWithAutoRegistration = Sets.newHashSet();
+        if (!requestIndexFromServer()) {
+            startIndexBuild(processes, fingerprint);
+        }
+        metrics.recordSince(WorkstationHelpMetrics.POST_BEGIN, start);
+    }
 
-        //gets prefabs that have the {@link org.terasology.workstationInGameHelp.components.ParticipateInItemCategoryInGameHelpComponent}.
-        Assets.list(Prefab.class).stream()
-                .map(x -> Assets.get(x, Prefab.class).get())
-                .filter(x -> x.hasComponent(ParticipateInItemCategoryInGameHelpComponent.class))
-                .forEach(x -> processTypesWithAutoRegistration.add(x.getName()));
+    /**
+     * Invalidates the cached help pages if filtering by unlocked processes was switched, builds the index locally if
+     * the server did not answer the index request in time, continues the index build if it is built over several
+     * frames, and builds queued help paragraphs, each within its frame budget. Once
+     * queued paragraphs of a help page are built, or the shown processes changed, the help screen is refreshed.
+     *
+     * @param delta the time since the last frame, in seconds.
+     */
+    @Override
+    public void update(float delta) {
+        helpItemContext.setHelpBrowserRefreshing(false);
+        if (filteringByUnlockedProcesses != settings.isFilterByUnlockedProcesses()) {
+            filteringByUnlockedProcesses = settings.isFilterByUnlockedProcesses();
+            processParagraphCache.invalidateAll();
+            paragraphBuildQueue.clear();
+        }
+        if (indexRequestPending && System.nanoTime() - indexRequestStart >= indexRequestTimeoutNanos) {
+            indexRequestPending = false;
+            receivedIndex = null;
+            logger.warn("The server did not send its workstation process index within {} ms, building it locally",
+                    indexRequestTimeoutNanos / 1_000_000);
+            startIndexBuild(participatingProcesses, indexFingerprint);
+        }
+        if (incrementalIndexBuilder != null) {
+            continueIncrementalIndexBuild();
+        }
+        boolean pageBuilt = paragraphBuildQueue.run(paragraphBuildBudgetNanos);
+        if (helpItemContext.takeHelpBrowserRefreshRequest() || pageBuilt) {
+            refreshHelpBrowser();
+        }
+    }
 
-        Collection<WorkstationProcess> processes = workstationRegistry.getWorkstationProcesses(processTypesWithAutoRegistration);
+    /**
+     * Makes the in-game help screen read the paragraphs of the shown help page again, if it is open. The help browser
+     * lays out the paragraphs of a page when it navigates to it, so paragraphs built or changed later only show up
+     * once the page is read again.
+     */
+    private void refreshHelpBrowser() {
+        if (nuiManager == null || !nuiManager.isOpen(IN_GAME_HELP_SCREEN)) {
+            return;
+        }
+        UIScreenLayer screen = nuiManager.getScreen(IN_GAME_HELP_SCREEN);
+        if (screen != null) {
+            // opening the screen navigates to the document of its current help item again
+            helpItemContext.setHelpBrowserRefreshing(true);
+            screen.onOpened();
+        }
+    }
 
-        for (WorkstationProcess process : workstationRegistry.getWorkstationProcesses(processTypesWithAutoRegistration)) {
+    /**
+     * Asks the server for its index if this is a remote client and {@link
+     * WorkstationHelpSettings#isReplicateIndexToClients()} is set. If the server does not answer in time, the index is
+     * built locally by {@link #update(float)}.
+     *
+     * @return true if the index was requested, false if it has to be built locally.
+     */
+    private boolean requestIndexFromServer() {
+        if (!settings.isReplicateIndexToClients() || networkSystem.getMode() != NetworkMode.CLIENT) {
+            return false;
+        }
+        EntityRef clientEntity = localPlayer.getClientEntity();
+        if (!clientEntity.exists()) {
+            return false;
+        }
+        indexRequestPending = true;
+        indexRequestStart = System.nanoTime();
+        clientEntity.send(new RequestWorkstationProcessIndexEvent(indexFingerprint));
+        return true;
+    }
+
+    /**
+     * Loads the index from its snapshot or builds it locally. It is built right away, or over several frames if
+     * {@link WorkstationHelpSettings#isAsyncIndexBuild()} is set.
+     *
+     * @param processes the processes to index.
+     * @param fingerprint the fingerprint of the module environment and the processes.
+     */
+    private void startIndexBuild(List<WorkstationProcess> processes, String fingerprint) {
+        indexBuildStart = System.nanoTime();
+        metrics.setGauge(WorkstationHelpMetrics.INDEX_FROM_SNAPSHOT, 0);
+        Optional<WorkstationProcessIndex> snapshot = readIndexSnapshot(processes, fingerprint);
+        if (snapshot.isPresent()) {
+            metrics.setGauge(WorkstationHelpMetrics.INDEX_FROM_SNAPSHOT, 1);
+            metrics.recordSince(WorkstationHelpMetrics.INDEX_BUILD, indexBuildStart);
+            publishIndex(snapshot.get());
+            return;
+        }
+
+        if (settings.isAsyncIndexBuild()) {
+            incrementalIndexBuilder = new WorkstationProcessIndex.Builder();
+            incrementalIndexProgress = 0;
+            return;
+        }
+        WorkstationProcessIndex index = buildIndex(processes);
+        metrics.recordSince(WorkstationHelpMetrics.INDEX_BUILD, indexBuildStart);
+        publishIndex(index);
+        writeIndexSnapshot(index, fingerprint);
+    }
+
+    /**
+     * Describes participating processes and adds them to the index until the frame budget is used up. Their help items
+     * are registered right away and show a loading paragraph until the index is published.
+     * <p>
+     * Processes are only described on the game thread, as they may create widgets and look up assets while doing so.
+     * Once all processes are added, only freezing the collected rows is left, which runs in the background.
+     * </p>
+     */
+    private void continueIncrementalIndexBuild() {
+        long deadline = System.nanoTime() + indexBuildBudgetNanos;
+        List<WorkstationProcess> processes = participatingProcesses;
+        while (incrementalIndexProgress < processes.size()) {
+            WorkstationProcess process = processes.get(incrementalIndexProgress++);
             if (process instanceof DescribeProcess) {
-                DescribeProcess processRelatedAssets = (DescribeProcess) process;
-                //adds input related workstation processes and resource urns to inputAssetsToWorkstationProcesses.
-                //creates and adds input processes help items to the registry.
-                for (ProcessPartDescription processPartDescription : processRelatedAssets.getInputDescriptions()) {
-                    if (processPartDescription.getResourceUrn() != null) {
-                        inputAssetsToWorkstationProcesses.put(processPartDescription.getResourceUrn(), process);
-                        Optional<Prefab> assetPrefab = Assets.get(processPartDescription.getResourceUrn(), Prefab.class);
-                        if (assetPrefab.isPresent()) {
-                            itemsCategoryInGameHelpRegistry.addKnownPrefab(assetPrefab.get(), new InputProcessesHelpItem(processPartDescription.getResourceUrn(), this, workstationRegistry));
-                        }
+                DescribeProcess describeProcess = (DescribeProcess) process;
+                Collection<ProcessPartDescription> inputs = describeProcess.getInputDescriptions();
+                Collection<ProcessPartDescription> outputs = describeProcess.getOutputDescriptions();
+                incrementalIndexBuilder.addProcess(process, inputs, outputs);
+                registerHelpItems(inputs, outputs);
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                return;
+            }
+        }
+
+        WorkstationProcessIndex.Builder builder = incrementalIndexBuilder;
+        incrementalIndexBuilder = null;
+        String fingerprint = indexFingerprint;
+        CompletableFuture.supplyAsync(builder::build, ForkJoinPool.commonPool())
+                .whenComplete((index, failure) -> GameThread.asynch(() -> {
+                    if (failure != null) {
+                        logger.error("Failed to build the workstation process index", failure);
+                        readyFuture.completeExceptionally(failure);
+                    } else {
+                        metrics.recordSince(WorkstationHelpMetrics.INDEX_BUILD, indexBuildStart);
+                        publishIndex(index);
+                        writeIndexSnapshot(index, fingerprint);
+                    }
+                }));
+    }
+
+    /**
+     * Answers the index request of a client once the index of the server is ready. The index is only sent if the
+     * fingerprint of the client matches, as the client could not decode it otherwise, and in chunks of
+     * {@link #INDEX_CHUNK_BYTES}.
+     *
+     * @param event the request.
+     * @param clientEntity the client entity of the requesting client.
+     */
+    @ReceiveEvent(components = ClientComponent.class)
+    public void onRequestWorkstationProcessIndex(RequestWorkstationProcessIndexEvent event, EntityRef clientEntity) {
+        if (!networkSystem.getMode().isAuthority()) {
+            return;
+        }
+        readyFuture.whenComplete((ignored, failure) -> GameThread.asynch(() -> {
+            if (!clientEntity.exists()) {
+                return;
+            }
+            if (failure != null || !indexFingerprint.equals(event.getFingerprint())) {
+                // without an index the client falls back to building its own
+                clientEntity.send(new WorkstationProcessIndexEvent(indexFingerprint, 0, 0, null));
+                return;
+            }
+            byte[] index = getEncodedIndex();
+            for (int offset = 0; offset < index.length; offset += INDEX_CHUNK_BYTES) {
+                byte[] chunk = Arrays.copyOfRange(index, offset, Math.min(index.length, offset + INDEX_CHUNK_BYTES));
+                clientEntity.send(new WorkstationProcessIndexEvent(indexFingerprint, offset, index.length, chunk));
+            }
+        }));
+    }
+
+    /**
+     * Collects the chunks of the index received from the server and publishes the index once all arrived, or builds
+     * the index locally if the server does not send it or it does not match this client. Every chunk restarts the
+     * request timeout. Answers that arrive after the request timed out are ignored, as the index is built locally by
+     * then.
+     *
+     * @param event a chunk of the index of the server.
+     * @param clientEntity the client entity of this client.
+     */
+    @ReceiveEvent(components = ClientComponent.class)
+    public void onWorkstationProcessIndex(WorkstationProcessIndexEvent event, EntityRef clientEntity) {
+        if (networkSystem.getMode() != NetworkMode.CLIENT || !indexRequestPending) {
+            return;
+        }
+        byte[] chunk = event.getChunk();
+        if (chunk == null || !indexFingerprint.equals(event.getFingerprint()) || event.getOffset() < 0
+                || event.getLength() < (long) event.getOffset() + chunk.length) {
+            buildIndexLocallyAfterRequest();
+            return;
+        }
+        if (receivedIndex == null || receivedIndex.length != event.getLength()) {
+            receivedIndex = new byte[event.getLength()];
+            receivedIndexBytes = 0;
+        }
+        System.arraycopy(chunk, 0, receivedIndex, event.getOffset(), chunk.length);
+        receivedIndexBytes += chunk.length;
+        indexRequestStart = System.nanoTime();
+        if (receivedIndexBytes < receivedIndex.length) {
+            return;
+        }
+        Optional<WorkstationProcessIndex> index = WorkstationProcessIndexSnapshot.decode(
+                ByteBuffer.wrap(receivedIndex), indexFingerprint, participatingProcesses);
+        if (!index.isPresent()) {
+            buildIndexLocallyAfterRequest();
+            return;
+        }
+        indexRequestPending = false;
+        receivedIndex = null;
+        logger.debug("Received the workstation process index from the server");
+        publishIndex(index.get());
+    }
+
+    /**
+     * Gives up on the index of the server and builds the index locally.
+     */
+    private void buildIndexLocallyAfterRequest() {
+        indexRequestPending = false;
+        receivedIndex = null;
+        logger.info("The workstation process index of the server does not match, building it locally");
+        startIndexBuild(participatingProcesses, indexFingerprint);
+    }
+
+    /**
+     * @return the current index encoded for clients, encoding it only if it changed since the last call.
+     */
+    private byte[] getEncodedIndex() {
+        WorkstationProcessIndex index = workstationProcessIndex;
+        if (encodedIndex == null || encodedIndexSource != index) {
+            encodedIndex = WorkstationProcessIndexSnapshot.encode(index, indexFingerprint);
+            encodedIndexSource = index;
+        }
+        return encodedIndex;
+    }
+
+    /**
+     * @return the id and version of each module of the environment, in dependency order.
+     */
+    private List<String> getModuleVersions() {
+        return moduleManager.getEnvironment().getModulesOrderedByDependencies().stream()
+                .map(module -> module.getId() + ":" + module.getVersion())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Loads the index from its snapshot if {@link WorkstationHelpSettings#isUseIndexSnapshot()} is set and the
+     * fingerprint matches.
+     *
+     * @param processes the processes to index.
+     * @param fingerprint the fingerprint of the module environment and the processes.
+     * @return the loaded index, empty if there is no matching snapshot.
+     */
+    private Optional<WorkstationProcessIndex> readIndexSnapshot(List<WorkstationProcess> processes,
+                                                                String fingerprint) {
+        if (!settings.isUseIndexSnapshot()) {
+            return Optional.empty();
+        }
+        List<WorkstationProcessIndex> snapshot = Lists.newArrayListWithCapacity(1);
+        try {
+            sandboxFileManager.readFile(WorkstationProcessIndexSnapshot.FILE_NAME, bytes ->
+                    WorkstationProcessIndexSnapshot.decode(ByteBuffer.wrap(bytes), fingerprint, processes)
+                            .ifPresent(snapshot::add));
+        } catch (RuntimeException e) {
+            // the sandbox does not promise how a denied or failed read is reported
+            logger.warn("Failed to read the workstation process index snapshot, rebuilding it", e);
+            return Optional.empty();
+        }
+        if (snapshot.isEmpty()) {
+            return Optional.empty();
+        }
+        logger.info("Loaded the workstation process index from its snapshot {}",
+                WorkstationProcessIndexSnapshot.FILE_NAME);
+        return Optional.of(snapshot.get(0));
+    }
+
+    /**
+     * Writes a freshly built index to its snapshot if {@link WorkstationHelpSettings#isUseIndexSnapshot()} is set.
+     *
+     * @param index the built index.
+     * @param fingerprint the fingerprint of the module environment and the processes.
+     */
+    private void writeIndexSnapshot(WorkstationProcessIndex index, String fingerprint) {
+        if (!settings.isUseIndexSnapshot()) {
+            return;
+        }
+        byte[] encoded = WorkstationProcessIndexSnapshot.encode(index, fingerprint);
+        try {
+            sandboxFileManager.writeFile(WorkstationProcessIndexSnapshot.FILE_NAME, out -> {
+                try {
+                    out.write(encoded);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Failed to write the workstation process index snapshot", e);
+        }
+    }
+
+    /**
+     * Builds the process index from scratch. The processes are described on the game thread; if
+     * {@link WorkstationHelpSettings#isParallelIndexBuild()} is set, their rows are collected on the common fork-join
+     * pool.
+     *
+     * @param processes the processes to index.
+     * @return the built index.
+     */
+    private WorkstationProcessIndex buildIndex(List<WorkstationProcess> processes) {
+        if (settings.isParallelIndexBuild()) {
+            return WorkstationProcessIndex.buildParallel(processes, ForkJoinPool.commonPool());
+        }
+        WorkstationProcessIndex.Builder indexBuilder = new WorkstationProcessIndex.Builder();
+        for (WorkstationProcess process : processes) {
+            indexBuilder.addProcess(process);
+        }
+        return indexBuilder.build();
+    }
+
+    /**
+     * Publishes a freshly built index on the game thread, registers its help items and applies the changes made
+     * while it was being built.
+     *
+     * @param index the index to publish.
+     */
+    private void publishIndex(WorkstationProcessIndex index) {
+        workstationProcessIndex = index;
+        for (WorkstationProcessIndexListener listener : indexListeners) {
+            listener.onIndexPublished(index);
+        }
+        processParagraphCache.invalidateAll();
+        paragraphBuildQueue.clear();
+        registerAllHelpItems();
+        readyFuture.complete(null);
+        helpItemContext.requestHelpBrowserRefresh();
+        metrics.flush();
+
+        if (!pendingAddedProcesses.isEmpty() || !pendingRemovedProcesses.isEmpty()) {
+            updateWorkstationProcesses(pendingAddedProcesses, pendingRemovedProcesses);
+            pendingAddedProcesses = Lists.newArrayList();
+            pendingRemovedProcesses = Lists.newArrayList();
+        }
+    }
+
+    /**
+     * Gets the future that completes once the index is published and its help items are registered.
+     *
+     * @return the readiness future of the index.
+     */
+    @Override
+    public CompletableFuture<Void> getReadyFuture() {
+        return readyFuture;
+    }
+
+    /**
+     * Adds a listener notified on the game thread whenever the index is published or changed.
+     *
+     * @param listener the listener to add.
+     */
+    @Override
+    public void addIndexListener(WorkstationProcessIndexListener listener) {
+        indexListeners.add(listener);
+    }
+
+    /**
+     * Registers the help items of every resource urn in the index. Each resource urn is resolved to its prefab once,
+     * no matter in how many processes it appears.
+     * <p>
+     * The help registry only accepts one help item per {@code addKnownPrefab} call and has no batch registration, so
+     * each registered resource urn and direction is still one call. What is saved are the repeated calls for the same
+     * resource urn and direction, one per further process referencing it, which are counted and logged.
+     * </p>
+     */
+    private void registerAllHelpItems() {
+        WorkstationProcessIndex index = workstationProcessIndex;
+        int registeredBefore = registeredInputHelpItems.size() + registeredOutputHelpItems.size();
+        int skippedRepeats = 0;
+        int withoutPrefab = 0;
+        for (ResourceUrn resourceUrn : index.getResourceUrns()) {
+            skippedRepeats += Math.max(0, index.getInputProcesses(resourceUrn).size() - 1)
+                    + Math.max(0, index.getOutputProcesses(resourceUrn).size() - 1);
+            if (!registerHelpItems(resourceUrn)) {
+                withoutPrefab++;
+            }
+        }
+        for (ResourceUrn resourceUrn : resourceUrnTags.keySet()) {
+            if (!index.getResourceUrns().contains(resourceUrn) && !registerHelpItems(resourceUrn)) {
+                withoutPrefab++;
+            }
+        }
+        int registered = registeredInputHelpItems.size() + registeredOutputHelpItems.size() - registeredBefore;
+        logger.debug("Registered {} workstation help items, skipped {} repeated references of the same resource in "
+                + "the same direction, {} resources have no prefab", registered, skippedRepeats, withoutPrefab);
+
+        for (String processType : index.getProcessTypes()) {
+            registerProcessTypeHelpItem(processType);
+        }
+    }
+
+    /**
+     * Registers the recipes help item on the prefab of a workstation process type, if it is not registered yet.
+     *
+     * @param processType the process type to register the help item for.
+     */
+    private void registerProcessTypeHelpItem(String processType) {
+        if (registeredProcessTypeHelpItems.containsKey(processType)) {
+            return;
+        }
+        Optional<Prefab> processTypePrefab = Assets.getPrefab(processType);
+        if (processTypePrefab.isPresent()) {
+            registeredProcessTypeHelpItems.put(processType, processTypePrefab.get().getUrn());
+            metrics.increment(WorkstationHelpMetrics.HELP_ITEMS_REGISTERED);
+            itemsCategoryInGameHelpRegistry.addKnownPrefab(processTypePrefab.get(), new WorkstationRecipesHelpItem(
+                    processType, processTypePrefab.get().getUrn(), helpItemContext));
+        }
+    }
+
+    /**
+     * Adds workstation processes to the index. Only the resource urns and process types related to the added processes
+     * are invalidated and, if they have no help items yet, registered with the help registry. Processes that are
+     * already indexed are skipped.
+     *
+     * @param processes the workstation processes to add.
+     */
+    @Override
+    public void addWorkstationProcesses(Collection<WorkstationProcess> processes) {
+        updateWorkstationProcesses(processes, Collections.emptyList());
+    }
+
+    /**
+     * Removes workstation processes from the index. Only the resource urns and process types related to the removed
+     * processes are invalidated, as the index tells without describing the processes again. Their help items stay
+     * registered, as the help registry does not support removal, and show the remaining processes.
+     *
+     * @param processes the workstation processes to remove.
+     */
+    @Override
+    public void removeWorkstationProcesses(Collection<WorkstationProcess> processes) {
+        updateWorkstationProcesses(Collections.emptyList(), processes);
+    }
+
+    private void updateWorkstationProcesses(Collection<WorkstationProcess> added,
+                                            Collection<WorkstationProcess> removed) {
+        if (!readyFuture.isDone()) {
+            pendingAddedProcesses.addAll(added);
+            pendingRemovedProcesses.addAll(removed);
+            return;
+        }
+        WorkstationProcessIndex.Change change = workstationProcessIndex.change(added, removed);
+        if (change.isEmpty()) {
+            return;
+        }
+        workstationProcessIndex = change.getIndex();
+        for (WorkstationProcessIndexListener listener : indexListeners) {
+            listener.onIndexChanged(change);
+        }
+        helpItemContext.requestHelpBrowserRefresh();
+
+        for (String processType : change.getAffectedProcessTypes()) {
+            invalidateProcessType(processType);
+            if (workstationProcessIndex.getProcessGroupOfType(processType) != null) {
+                registerProcessTypeHelpItem(processType);
+            }
+        }
+        Set<ResourceUrn> resourceUrns = Sets.newHashSet(change.getAffectedResourceUrns());
+        for (String tag : change.getAffectedTags()) {
+            resourceUrns.addAll(tagMembers.get(tag));
+        }
+        for (ResourceUrn resourceUrn : resourceUrns) {
+            processParagraphCache.invalidate(resourceUrn);
+            registerHelpItems(resourceUrn);
+        }
+    }
+
+    /**
+     * Invalidates the cached recipes help page of a process type, if it has one.
+     *
+     * @param processType the process type whose processes changed.
+     */
+    private void invalidateProcessType(String processType) {
+        ResourceUrn processTypeUrn = registeredProcessTypeHelpItems.get(processType);
+        if (processTypeUrn != null) {
+            processParagraphCache.invalidate(processTypeUrn, ProcessParagraphCache.Direction.PROCESS_TYPE);
+        }
+    }
+
+    /**
+     * Registers the input and output processes help items of resourceUrn, if it has related processes in that
+     * direction and the help item is not registered yet.
+     *
+     * @param resourceUrn the resource urn to register help items for.
+     * @return false if help items were needed but resourceUrn has no prefab, true otherwise.
+     */
+    private boolean registerHelpItems(ResourceUrn resourceUrn) {
+        boolean hasInputProcesses = !registeredInputHelpItems.contains(resourceUrn)
+                && !workstationProcessIndex.getInputProcesses(resourceUrn, resourceUrnTags.get(resourceUrn)).isEmpty();
+        boolean hasOutputProcesses = (!registeredOutputHelpItems.contains(resourceUrn)
+                || settings.isRegisterFullCostHelpItems() && !registeredFullCostHelpItems.contains(resourceUrn))
+                && !workstationProcessIndex.getOutputProcesses(resourceUrn).isEmpty();
+        return registerHelpItems(resourceUrn, hasInputProcesses, hasOutputProcesses);
+    }
+
+    /**
+     * Registers the help items of the resources described by a process before it is indexed, including the members
+     * of the tags of its inputs.
+     *
+     * @param inputs the descriptions of the inputs of the process.
+     * @param outputs the descriptions of the outputs of the process.
+     */
+    private void registerHelpItems(Collection<ProcessPartDescription> inputs,
+                                   Collection<ProcessPartDescription> outputs) {
+        for (ProcessPartDescription input : inputs) {
+            if (input.getResourceUrn() != null) {
+                registerHelpItems(input.getResourceUrn(), true, false);
+            } else {
+                String tag = WorkstationProcessIndex.getTag(input);
+                if (tag != null) {
+                    for (ResourceUrn member : tagMembers.get(tag)) {
+                        registerHelpItems(member, true, false);
                     }
                 }
-                //adds output related workstation processes and resource urns to inputAssetsToWorkstationProcesses.
-                //creates and adds output processes help items to the registry.
-
-                for (ProcessPartDescription processPartDescription : processRelatedAssets.getOutputDescriptions()) {
-                    if (processPartDescription.getResourceUrn() != null) {
-                        outputAssetsToWorkstationProcesses.put(processPartDescription.getResourceUrn(), process);
-                        Optional<Prefab> assetPrefab = Assets.get(processPartDescription.getResourceUrn(), Prefab.class);
-                        if (assetPrefab.isPresent()) {
-                            itemsCategoryInGameHelpRegistry.addKnownPrefab(assetPrefab.get(), new OutputProcessesHelpItem(processPartDescription.getResourceUrn(), this, workstationRegistry));
-                        }
+            }
+        }
+        for (ProcessPartDescription output : outputs) {
+            if (output.getResourceUrn() != null) {
+                registerHelpItems(output.getResourceUrn(), false, true);
+            }
+        }
+    }
+
+    /**
+     * Registers the help items of resourceUrn for the directions it has related processes in, unless they are
+     * registered already.
+     *
+     * @param resourceUrn the resource urn to register help items for.
+     * @param hasInputProcesses whether resourceUrn is an input of any process.
+     * @param hasOutputProcesses whether resourceUrn is an output of any process.
+     * @return false if help items were needed but resourceUrn has no prefab, true otherwise.
+     */
+    private boolean registerHelpItems(ResourceUrn resourceUrn, boolean hasInputProcesses, boolean hasOutputProcesses) {
+        boolean needsInputHelpItem = hasInputProcesses && !registeredInputHelpItems.contains(resourceUrn);
+        boolean needsOutputHelpItem = hasOutputProcesses && !registeredOutputHelpItems.contains(resourceUrn);
+        boolean needsFullCostHelpItem = hasOutputProcesses && settings.isRegisterFullCostHelpItems()
+                && !registeredFullCostHelpItems.contains(resourceUrn);
+        if (!needsInputHelpItem && !needsOutputHelpItem && !needsFullCostHelpItem) {
+            return true;
+        }
+
+        Optional<Prefab> assetPrefab = Assets.get(resourceUrn, Prefab.class);
+        if (!assetPrefab.isPresent()) {
+            return false;
+        }
+        if (needsInputHelpItem) {
+            registeredInputHelpItems.add(resourceUrn);
+            metrics.increment(WorkstationHelpMetrics.HELP_ITEMS_REGISTERED);
+            itemsCategoryInGameHelpRegistry.addKnownPrefab(assetPrefab.get(),
+                    new InputProcessesHelpItem(resourceUrn, helpItemContext));
+        }
+        if (needsOutputHelpItem) {
+            registeredOutputHelpItems.add(resourceUrn);
+            metrics.increment(WorkstationHelpMetrics.HELP_ITEMS_REGISTERED);
+            itemsCategoryInGameHelpRegistry.addKnownPrefab(assetPrefab.get(),
+                    new OutputProcessesHelpItem(resourceUrn, helpItemContext));
+        }
+        if (needsFullCostHelpItem) {
+            registeredFullCostHelpItems.add(resourceUrn);
+            metrics.increment(WorkstationHelpMetrics.HELP_ITEMS_REGISTERED);
+            itemsCategoryInGameHelpRegistry.addKnownPrefab(assetPrefab.get(),
+                    new FullCostHelpItem(resourceUrn, helpItemContext));
+        }
+        return true;
+    }
+
+    /**
+     * Registers resources as members of a tag. Members that gain input related processes get a help item, and the
+     * cached help pages of all new members are invalidated.
+     *
+     * @param tag the name of the tag.
+     * @param members the resource urns of the members.
+     */
+    @Override
+    public void addTagMembers(String tag, Collection<ResourceUrn> members) {
+        String normalizedTag = WorkstationProcessIndex.normalizeTag(tag);
+        for (ResourceUrn member : members) {
+            if (resourceUrnTags.put(member, normalizedTag)) {
+                tagMembers.put(normalizedTag, member);
+                if (readyFuture.isDone()) {
+                    processParagraphCache.invalidate(member);
+                    registerHelpItems(member);
+                }
+            }
+        }
+    }
+
+    /**
+     * Invalidates the cached help pages showing processes whose visibility to the local player changed.
+     *
+     * @param changed the processes that were unlocked or locked.
+     */
+    private void invalidateVisibilityChanges(Collection<WorkstationProcess> changed) {
+        for (WorkstationProcess process : changed) {
+            invalidateProcessType(process.getProcessType());
+            for (ResourceUrn resourceUrn : getRelatedResourceUrns(process)) {
+                processParagraphCache.invalidate(resourceUrn);
+            }
+        }
+        helpItemContext.requestHelpBrowserRefresh();
+    }
+
+    /**
+     * Gets the resource urns of all inputs and outputs of process, and the members of the tags of its inputs.
+     *
+     * @param process the workstation process to get the resource urns from.
+     * @return the resource urns, empty if the process does not describe its inputs and outputs.
+     */
+    private Set<ResourceUrn> getRelatedResourceUrns(WorkstationProcess process) {
+        Set<ResourceUrn> resourceUrns = Sets.newHashSet();
+        if (process instanceof DescribeProcess) {
+            DescribeProcess describeProcess = (DescribeProcess) process;
+            for (ProcessPartDescription description : describeProcess.getInputDescriptions()) {
+                if (description.getResourceUrn() != null) {
+                    resourceUrns.add(description.getResourceUrn());
+                } else {
+                    String tag = WorkstationProcessIndex.getTag(description);
+                    if (tag != null) {
+                        resourceUrns.addAll(tagMembers.get(tag));
                     }
                 }
             }
+            for (ProcessPartDescription description : describeProcess.getOutputDescriptions()) {
+                if (description.getResourceUrn() != null) {
+                    resourceUrns.add(description.getResourceUrn());
+                }
+            }
         }
+        return resourceUrns;
+    }
+
+    /**
+     * Gets the recipe graph of the current index, building it if the index changed since it was last built.
+     *
+     * @return the recipe graph of the current workstation processes.
+     */
+    @Override
+    public RecipeGraph getRecipeGraph() {
+        WorkstationProcessIndex index = workstationProcessIndex;
+        RecipeGraph graph = recipeGraph;
+        if (graph == null || graph.getIndex() != index) {
+            graph = new RecipeGraph(index);
+            recipeGraph = graph;
+        }
+        return graph;
+    }
+
+    /**
+     * Gets the current index of all workstation processes.
+     *
+     * @return the current index, empty until it is published.
+     */
+    @Override
+    public WorkstationProcessIndex getWorkstationProcessIndex() {
+        return workstationProcessIndex;
+    }
+
+    /**
+     * Gets the process types of all indexed workstation processes.
+     *
+     * @return a collection of process types.
+     */
+    @Override
+    public Collection<String> getWorkstationProcessTypes() {
+        return workstationProcessIndex.getProcessTypes();
+    }
+
+    /**
+     * Gets all workstation processes of a process type.
+     *
+     * @param processType the process type of the workstation processes.
+     * @return a collection of {@link org.terasology.workstation.process.WorkstationProcess}s.
+     */
+    @Override
+    public Collection<WorkstationProcess> getProcessTypeRelatedWorkstationProcesses(String processType) {
+        WorkstationProcessIndex.ProcessGroup group = workstationProcessIndex.getProcessGroupOfType(processType);
+        return group != null ? group.getProcesses() : Collections.emptyList();
+    }
+
+    /**
+     * Gets all workstation processes of a process type as a single process type group.
+     *
+     * @param processType the process type of the workstation processes.
+     * @return a list holding the group, empty if there are no processes of that type.
+     */
+    @Override
+    public List<WorkstationProcessIndex.ProcessGroup> getProcessTypeRelatedProcessGroups(String processType) {
+        WorkstationProcessIndex.ProcessGroup group = workstationProcessIndex.getProcessGroupOfType(processType);
+        return group != null ? Collections.singletonList(group) : Collections.emptyList();
     }
 
     /**
-     * Gets all input related workstation processes associated with resourceUrn.
+     * Gets the resource urns used as input by any workstation process of a process type.
+     *
+     * @param processType the process type of the workstation processes.
+     * @return a collection of distinct resource urns.
+     */
+    @Override
+    public Collection<ResourceUrn> getProcessTypeInputResourceUrns(String processType) {
+        return workstationProcessIndex.getInputResourceUrnsOfType(processType);
+    }
+
+    /**
+     * Gets the resource urns produced by any workstation process of a process type.
+     *
+     * @param processType the process type of the workstation processes.
+     * @return a collection of distinct resource urns.
+     */
+    @Override
+    public Collection<ResourceUrn> getProcessTypeOutputResourceUrns(String processType) {
+        return workstationProcessIndex.getOutputResourceUrnsOfType(processType);
+    }
+
+    /**
+     * Finds the process types whose prefabs have the {@link ParticipateInItemCategoryInGameHelpComponent}. Only the
+     * loaded prefabs are listed; prefabs loaded later are picked up by {@link #refreshParticipatingProcessTypes()}.
+     *
+     * @return the names of the participating process type prefabs.
+     */
+    private Set<String> discoverParticipatingProcessTypes() {
+        Set<String> processTypes = Sets.newHashSet();
+        for (Prefab prefab : prefabManager.listPrefabs(ParticipateInItemCategoryInGameHelpComponent.class)) {
+            processTypes.add(prefab.getName());
+        }
+        metrics.setGauge(WorkstationHelpMetrics.PROCESS_TYPES_DISCOVERED, processTypes.size());
+        logger.debug("Discovered {} process types participating in the in-game help", processTypes.size());
+        return processTypes;
+    }
+
+    /**
+     * Lists the participating process type prefabs again, e.g., after prefabs were loaded or reloaded, and adds the
+     * processes of the process types that started participating, and removes the ones of the process types that
+     * stopped, like {@link #addWorkstationProcesses(Collection)} and {@link #removeWorkstationProcesses(Collection)}.
+     */
+    @Override
+    public void refreshParticipatingProcessTypes() {
+        Set<String> processTypes = discoverParticipatingProcessTypes();
+        Set<String> addedProcessTypes = Sets.difference(processTypes, participatingProcessTypes).immutableCopy();
+        Set<String> removedProcessTypes = Sets.difference(participatingProcessTypes, processTypes).immutableCopy();
+        participatingProcessTypes = processTypes;
+        if (addedProcessTypes.isEmpty() && removedProcessTypes.isEmpty()) {
+            return;
+        }
+        List<WorkstationProcess> added = addedProcessTypes.isEmpty() ? Collections.emptyList()
+                : Lists.newArrayList(workstationRegistry.getWorkstationProcesses(addedProcessTypes));
+        Set<WorkstationProcess> removed = Sets.newLinkedHashSet();
+        for (String processType : removedProcessTypes) {
+            removed.addAll(getProcessTypeRelatedWorkstationProcesses(processType));
+        }
+        for (WorkstationProcess process : pendingAddedProcesses) {
+            if (removedProcessTypes.contains(process.getProcessType())) {
+                removed.add(process);
+            }
+        }
+        for (WorkstationProcess process : participatingProcesses) {
+            if (removedProcessTypes.contains(process.getProcessType())) {
+                removed.add(process);
+            }
+        }
+        updateWorkstationProcesses(added, removed);
+    }
+
+    /**
+     * Gets all input related workstation processes associated with resourceUrn, including the processes with an input
+     * of a tag resourceUrn is a member of. The processes of a tag are indexed once and shared by all its members.
      *
      * @param resourceUrn the resource urn that the workstation processes are associated with.
      * @return a collection of {@link org.terasology.workstation.process.WorkstationProcess}s.
      */
     @Override
     public Collection<WorkstationProcess> getInputRelatedWorkstationProcesses(ResourceUrn resourceUrn) {
-        return inputAssetsToWorkstationProcesses.get(resourceUrn);
+        return workstationProcessIndex.getInputProcesses(resourceUrn, resourceUrnTags.get(resourceUrn));
+    }
+
+    /**
+     * Gets all input related workstation processes associated with resourceUrn, including the processes with an input
+     * of a tag resourceUrn is a member of, grouped by process type.
+     *
+     * @param resourceUrn the resource urn that the workstation processes are associated with.
+     * @return a list of process type groups.
+     */
+    @Override
+    public List<WorkstationProcessIndex.ProcessGroup> getInputRelatedProcessGroups(ResourceUrn resourceUrn) {
+        return workstationProcessIndex.getInputProcessGroups(resourceUrn, resourceUrnTags.get(resourceUrn));
     }
 
     /**
@@ -124,6 +1104,17 @@ public class WorkstationItemsInGameHelpCommonSystem extends BaseComponentSystem
      */
     @Override
     public Collection<WorkstationProcess> getOutputRelatedWorkstationProcesses(ResourceUrn resourceUrn) {
-        return outputAssetsToWorkstationProcesses.get(resourceUrn);
+        return workstationProcessIndex.getOutputProcesses(resourceUrn);
+    }
+
+    /**
+     * Gets all output related workstation processes associated with resourceUrn, grouped by process type.
+     *
+     * @param resourceUrn the resource urn that the workstation processes are associated with.
+     * @return a list of process type groups.
+     */
+    @Override
+    public List<WorkstationProcessIndex.ProcessGroup> getOutputRelatedProcessGroups(ResourceUrn resourceUrn) {
+        return workstationProcessIndex.getOutputProcessGroups(resourceUrn);
     }
 }
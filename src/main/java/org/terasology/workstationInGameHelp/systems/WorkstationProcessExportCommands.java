@@ -0,0 +1,91 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp.systems;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.engine.core.module.SandboxFileManager;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.logic.console.commandSystem.annotations.Command;
+import org.terasology.engine.logic.console.commandSystem.annotations.CommandParam;
+import org.terasology.engine.logic.permission.PermissionManager;
+import org.terasology.engine.registry.In;
+import org.terasology.workstationInGameHelp.WorkstationProcessExporter;
+import org.terasology.workstationInGameHelp.WorkstationProcessRelatedAssetCache;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Console command to export the workstation processes for offline tools. Also available on headless servers.
+ */
+@RegisterSystem
+public class WorkstationProcessExportCommands extends BaseComponentSystem {
+    private static final Logger logger = LoggerFactory.getLogger(WorkstationProcessExportCommands.class);
+
+    private static final String DEFAULT_FILE_NAME = "workstationProcesses.jsonl";
+
+    /** Reference to the {@link WorkstationProcessRelatedAssetCache} whose processes are exported. */
+    @In
+    WorkstationProcessRelatedAssetCache workstationProcessRelatedAssetCache;
+
+    /** Reference to the sandboxed file access of the module, which the export is written with. */
+    @In
+    SandboxFileManager sandboxFileManager;
+
+    /**
+     * Checks that the sandbox file manager was injected, as the export cannot be written without it.
+     */
+    @Override
+    public void initialise() {
+        super.initialise();
+        if (sandboxFileManager == null) {
+            throw new IllegalStateException("No SandboxFileManager is shared, cannot export workstation processes");
+        }
+    }
+
+    /**
+     * Exports all indexed workstation processes, unlocked or not, as JSON Lines to a file in the sandbox of the module.
+     *
+     * @param fileName the name of the file, or null for the default name.
+     * @return a message with the number of exported processes and the file, or why the export failed.
+     */
+    @Command(shortDescription = "Exports the workstation processes as JSON Lines",
+            helpText = "Writes one line per indexed workstation process, with its process type and the urns, names "
+                    + "and quantities of its inputs and outputs, to a file in the sandbox of the module.",
+            requiredPermission = PermissionManager.DEBUG_PERMISSION)
+    public String exportWorkstationProcesses(@CommandParam(value = "fileName", required = false) String fileName) {
+        if (!workstationProcessRelatedAssetCache.getReadyFuture().isDone()) {
+            return "The workstation processes are still being indexed, try again later.";
+        }
+        String file = fileName != null ? fileName : DEFAULT_FILE_NAME;
+
+        long start = System.nanoTime();
+        int[] count = new int[1];
+        try {
+            sandboxFileManager.writeFile(file, stream -> {
+                // the sandbox closes the stream, so the writer is only flushed
+                Writer out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+                try {
+                    count[0] = WorkstationProcessExporter.exportJsonLines(
+                            workstationProcessRelatedAssetCache.getWorkstationProcessIndex(), out);
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            // the sandbox does not promise how a denied or failed write is reported
+            logger.error("Failed to export the workstation processes to {}", file, e);
+            return "Failed to export the workstation processes: " + e.getMessage();
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        return "Exported " + count[0] + " workstation processes to " + file + " in the module sandbox in "
+                + millis + " ms";
+    }
+}
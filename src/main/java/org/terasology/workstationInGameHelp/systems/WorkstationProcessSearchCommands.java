@@ -0,0 +1,81 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp.systems;
+
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.logic.console.commandSystem.annotations.Command;
+import org.terasology.engine.logic.console.commandSystem.annotations.CommandParam;
+import org.terasology.engine.registry.In;
+import org.terasology.workstation.process.DescribeProcess;
+import org.terasology.workstation.process.ProcessPartDescription;
+import org.terasology.workstation.process.WorkstationProcess;
+import org.terasology.workstationInGameHelp.WorkstationProcessRelatedAssetCache;
+import org.terasology.workstationInGameHelp.WorkstationProcessSearchManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Console command to search the workstation recipes by the names of their inputs and outputs.
+ */
+@RegisterSystem
+public class WorkstationProcessSearchCommands extends BaseComponentSystem {
+    private static final int DEFAULT_LIMIT = 10;
+
+    /** Reference to the {@link WorkstationProcessSearchManager} that searches the processes. */
+    @In
+    WorkstationProcessSearchManager workstationProcessSearchManager;
+
+    /** Reference to the {@link WorkstationProcessRelatedAssetCache} that tells whether the processes are indexed. */
+    @In
+    WorkstationProcessRelatedAssetCache workstationProcessRelatedAssetCache;
+
+    /**
+     * Searches the workstation recipes and prints one line per result, best matches first.
+     *
+     * @param query the words to search for.
+     * @param limit the maximum number of results, or null for the default.
+     * @return one line per found recipe with its process type, inputs and outputs, or why nothing was found.
+     */
+    @Command(shortDescription = "Searches the workstation recipes",
+            helpText = "Finds the workstation recipes whose inputs, outputs, id or process type contain all words of "
+                    + "the query, e.g., \"iron ing\", and prints one line per recipe, best matches first.")
+    public String searchWorkstationRecipes(@CommandParam("query") String query,
+                                           @CommandParam(value = "limit", required = false) Integer limit) {
+        List<WorkstationProcess> results = workstationProcessSearchManager.searchWorkstationProcesses(query,
+                limit != null ? limit : DEFAULT_LIMIT);
+        if (results.isEmpty()) {
+            return workstationProcessRelatedAssetCache.getReadyFuture().isDone()
+                    ? "No workstation recipes found for " + query
+                    : "The workstation processes are still being indexed, try again later.";
+        }
+        StringBuilder result = new StringBuilder();
+        for (WorkstationProcess process : results) {
+            if (result.length() > 0) {
+                result.append('\n');
+            }
+            result.append(process.getProcessType()).append(": ");
+            if (process instanceof DescribeProcess) {
+                DescribeProcess describeProcess = (DescribeProcess) process;
+                appendParts(result, describeProcess.getInputDescriptions());
+                result.append(" = ");
+                appendParts(result, describeProcess.getOutputDescriptions());
+            } else {
+                result.append(process.getId());
+            }
+        }
+        return result.toString();
+    }
+
+    private static void appendParts(StringBuilder result, Collection<ProcessPartDescription> descriptions) {
+        boolean first = true;
+        for (ProcessPartDescription description : descriptions) {
+            if (!first) {
+                result.append(" + ");
+            }
+            first = false;
+            result.append(description.getDisplayName());
+        }
+    }
+}
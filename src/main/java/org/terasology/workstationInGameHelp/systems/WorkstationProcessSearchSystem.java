@@ -0,0 +1,196 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp.systems;
+
+import com.google.common.collect.Lists;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.engine.core.GameThread;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.entitySystem.systems.UpdateSubscriberSystem;
+import org.terasology.engine.registry.In;
+import org.terasology.engine.registry.Share;
+import org.terasology.engine.rendering.nui.widgets.browser.data.ParagraphData;
+import org.terasology.workstation.process.WorkstationProcess;
+import org.terasology.workstationInGameHelp.WorkstationHelpMetricsManager;
+import org.terasology.workstationInGameHelp.WorkstationProcessIndex;
+import org.terasology.workstationInGameHelp.WorkstationProcessIndexListener;
+import org.terasology.workstationInGameHelp.WorkstationProcessRelatedAssetCache;
+import org.terasology.workstationInGameHelp.WorkstationProcessSearchIndex;
+import org.terasology.workstationInGameHelp.WorkstationProcessSearchManager;
+import org.terasology.workstationInGameHelp.WorkstationProcessVisibilityManager;
+import org.terasology.workstationInGameHelp.metrics.WorkstationHelpMetrics;
+import org.terasology.workstationInGameHelp.ui.WorkstationProcesses;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * System that keeps the search index of the index of {@link WorkstationProcessRelatedAssetCache}. A published index
+ * gets a search index built over several frames; processes added or removed later only change the search terms of
+ * those processes.
+ */
+@RegisterSystem
+@Share(WorkstationProcessSearchManager.class)
+public class WorkstationProcessSearchSystem extends BaseComponentSystem
+        implements UpdateSubscriberSystem, WorkstationProcessSearchManager, WorkstationProcessIndexListener {
+    private static final Logger logger = LoggerFactory.getLogger(WorkstationProcessSearchSystem.class);
+
+    /** The default time spent collecting the words of the search index per frame. */
+    static final long DEFAULT_SEARCH_INDEX_BUILD_BUDGET_NANOS = 2_000_000;
+
+    /** Reference to the {@link WorkstationProcessRelatedAssetCache} whose processes are searched. */
+    @In
+    WorkstationProcessRelatedAssetCache workstationProcessRelatedAssetCache;
+
+    /** Reference to the {@link WorkstationProcessVisibilityManager} that decides which of the found processes show. */
+    @In
+    WorkstationProcessVisibilityManager workstationProcessVisibilityManager;
+
+    /** Reference to the {@link WorkstationHelpMetricsManager} that the search times are recorded to. */
+    @In
+    WorkstationHelpMetricsManager workstationHelpMetricsManager;
+
+    /**
+     * The search index of the current index, or of a previous one while the search index of the current one is
+     * being built. Null until the first one is built.
+     */
+    volatile WorkstationProcessSearchIndex searchIndex;
+
+    /** Collects the words of the index being built for its search index over several frames, null if it is not. */
+    WorkstationProcessSearchIndex.Builder searchIndexBuilder;
+
+    /** The index whose search index is being collected or built, null if none is. */
+    WorkstationProcessIndex buildingIndex;
+
+    /** The changes of {@link #buildingIndex} made while its search index is built, applied once it is. */
+    final List<WorkstationProcessIndex.Change> pendingChanges = Lists.newArrayList();
+
+    /** The time spent collecting the words of the search index per frame, in nanoseconds. */
+    long searchIndexBuildBudgetNanos = DEFAULT_SEARCH_INDEX_BUILD_BUDGET_NANOS;
+
+    /**
+     * Listens to the index of the cache.
+     */
+    @Override
+    public void initialise() {
+        super.initialise();
+        workstationProcessRelatedAssetCache.addIndexListener(this);
+    }
+
+    /**
+     * Collects the words of the search index being built until the frame budget is used up. Once all are collected,
+     * the search index is built in the background and published on the game thread, unless another index was
+     * published in the meantime.
+     *
+     * @param delta the time since the last frame, in seconds.
+     */
+    @Override
+    public void update(float delta) {
+        if (searchIndexBuilder == null
+                || !searchIndexBuilder.addTermsUntil(System.nanoTime() + searchIndexBuildBudgetNanos)) {
+            return;
+        }
+        WorkstationProcessSearchIndex.Builder builder = searchIndexBuilder;
+        searchIndexBuilder = null;
+        CompletableFuture.supplyAsync(builder::build, ForkJoinPool.commonPool())
+                .whenComplete((search, failure) -> GameThread.asynch(() -> {
+                    if (builder.getIndex() != buildingIndex) {
+                        return;
+                    }
+                    if (failure != null) {
+                        logger.error("Failed to build the workstation process search index", failure);
+                    } else {
+                        publishSearchIndex(search);
+                    }
+                    buildingIndex = null;
+                    pendingChanges.clear();
+                }));
+    }
+
+    /**
+     * Starts building the search index of a freshly published index. Until it is built, searches use the previous
+     * one.
+     *
+     * @param index the published index.
+     */
+    @Override
+    public void onIndexPublished(WorkstationProcessIndex index) {
+        startSearchIndexBuild(index);
+    }
+
+    /**
+     * Adds the search terms of the added processes to the search index and drops the ones of the removed processes.
+     * While the search index is being built, the change is applied once it is. If the changes applied so far made
+     * the search index slow, it is rebuilt.
+     *
+     * @param change the change of the index.
+     */
+    @Override
+    public void onIndexChanged(WorkstationProcessIndex.Change change) {
+        if (buildingIndex != null) {
+            pendingChanges.add(change);
+        } else if (searchIndex == null) {
+            startSearchIndexBuild(change.getIndex());
+        } else {
+            WorkstationProcessSearchIndex changed = searchIndex.withChanges(change);
+            searchIndex = changed;
+            if (changed.needsRebuild()) {
+                startSearchIndexBuild(change.getIndex());
+            }
+        }
+    }
+
+    /**
+     * Searches the workstation processes the local player sees. Processes the player does not see are skipped before
+     * the limit is applied, so hidden processes never take the place of visible ones.
+     *
+     * @param query the words to search for.
+     * @param limit the maximum number of results, counted among the visible processes.
+     * @return the visible processes matching all words of the query, best matches first.
+     */
+    @Override
+    public List<WorkstationProcess> searchWorkstationProcesses(String query, int limit) {
+        long start = System.nanoTime();
+        WorkstationProcessSearchIndex search = searchIndex;
+        if (search == null) {
+            return Collections.emptyList();
+        }
+        List<WorkstationProcess> results = search.search(query, limit, workstationProcessVisibilityManager::isVisible);
+        workstationHelpMetricsManager.getMetrics().recordSince(WorkstationHelpMetrics.SEARCH, start);
+        return results;
+    }
+
+    /**
+     * Searches the workstation processes the local player sees and gets their paragraphs, see
+     * {@link WorkstationProcesses#getSearchResultParagraphs(List)}.
+     *
+     * @param query the words to search for.
+     * @param limit the maximum number of results.
+     * @return a list of paragraph data, one per result, best matches first.
+     */
+    @Override
+    public List<ParagraphData> getSearchResultParagraphs(String query, int limit) {
+        return WorkstationProcesses.getSearchResultParagraphs(searchWorkstationProcesses(query, limit));
+    }
+
+    private void startSearchIndexBuild(WorkstationProcessIndex index) {
+        searchIndexBuilder = new WorkstationProcessSearchIndex.Builder(index);
+        buildingIndex = index;
+        pendingChanges.clear();
+    }
+
+    /**
+     * Publishes a built search index with the changes made while it was built applied.
+     */
+    private void publishSearchIndex(WorkstationProcessSearchIndex search) {
+        WorkstationProcessSearchIndex changed = search;
+        for (WorkstationProcessIndex.Change change : pendingChanges) {
+            changed = changed.withChanges(change);
+        }
+        searchIndex = changed;
+    }
+}
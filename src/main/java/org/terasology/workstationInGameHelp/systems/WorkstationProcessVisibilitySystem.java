@@ -0,0 +1,178 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp.systems;
+
+import com.google.common.collect.Lists;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.logic.players.LocalPlayer;
+import org.terasology.engine.registry.In;
+import org.terasology.engine.registry.Share;
+import org.terasology.workstation.process.WorkstationProcess;
+import org.terasology.workstationInGameHelp.WorkstationHelpMetricsManager;
+import org.terasology.workstationInGameHelp.WorkstationHelpSettings;
+import org.terasology.workstationInGameHelp.WorkstationHelpSettingsManager;
+import org.terasology.workstationInGameHelp.WorkstationProcessIndex;
+import org.terasology.workstationInGameHelp.WorkstationProcessRelatedAssetCache;
+import org.terasology.workstationInGameHelp.WorkstationProcessVisibility;
+import org.terasology.workstationInGameHelp.WorkstationProcessVisibilityManager;
+import org.terasology.workstationInGameHelp.metrics.WorkstationHelpMetrics;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * System that keeps the workstation processes each player unlocked, over the ids of the index of
+ * {@link WorkstationProcessRelatedAssetCache}. The unlocks follow the index whenever it is replaced.
+ */
+@RegisterSystem
+@Share(WorkstationProcessVisibilityManager.class)
+public class WorkstationProcessVisibilitySystem extends BaseComponentSystem
+        implements WorkstationProcessVisibilityManager {
+    /** Reference to the {@link WorkstationProcessRelatedAssetCache} whose index the unlocks refer to. */
+    @In
+    WorkstationProcessRelatedAssetCache workstationProcessRelatedAssetCache;
+
+    /** Reference to the {@link WorkstationHelpSettingsManager} that tells whether lookups are filtered. */
+    @In
+    WorkstationHelpSettingsManager workstationHelpSettingsManager;
+
+    /** Reference to the {@link WorkstationHelpMetricsManager} that the size of the unlocks is reported to. */
+    @In
+    WorkstationHelpMetricsManager workstationHelpMetricsManager;
+
+    /** Reference to the local player whose unlocked processes are visible. */
+    @In
+    LocalPlayer localPlayer;
+
+    /** The processes each player unlocked. */
+    final WorkstationProcessVisibility processVisibility = new WorkstationProcessVisibility();
+
+    /** The listeners called with the processes whose visibility to the local player changed. */
+    final List<Consumer<Collection<WorkstationProcess>>> visibilityListeners = Lists.newCopyOnWriteArrayList();
+
+    /**
+     * Reports the number of players with unlocks and the heap they take to the metrics.
+     */
+    @Override
+    public void initialise() {
+        super.initialise();
+        WorkstationHelpMetrics metrics = workstationHelpMetricsManager.getMetrics();
+        metrics.setGauge(WorkstationHelpMetrics.VISIBILITY_PLAYERS, processVisibility::getPlayerCount);
+        metrics.setGauge(WorkstationHelpMetrics.VISIBILITY_HEAP_BYTES, processVisibility::estimateHeapBytes);
+    }
+
+    /**
+     * Unlocks workstation processes for a player. If it is the local player, the visibility listeners are called.
+     *
+     * @param player the client entity of the player.
+     * @param processes the workstation processes to unlock.
+     */
+    @Override
+    public void unlockWorkstationProcesses(EntityRef player, Collection<WorkstationProcess> processes) {
+        notifyVisibilityChanged(player, visibility().unlock(player, processes));
+    }
+
+    /**
+     * Locks workstation processes for a player again. If it is the local player, the visibility listeners are called.
+     *
+     * @param player the client entity of the player.
+     * @param processes the workstation processes to lock.
+     */
+    @Override
+    public void lockWorkstationProcesses(EntityRef player, Collection<WorkstationProcess> processes) {
+        notifyVisibilityChanged(player, visibility().lock(player, processes));
+    }
+
+    /**
+     * Drops all unlocked workstation processes of a player. If it is the local player, the visibility listeners are
+     * called.
+     *
+     * @param player the client entity of the player.
+     */
+    @Override
+    public void forgetUnlockedWorkstationProcesses(EntityRef player) {
+        notifyVisibilityChanged(player, visibility().forget(player));
+    }
+
+    /**
+     * Tells whether the local player sees a workstation process.
+     *
+     * @param process a workstation process of the current index.
+     * @return true if lookups are not filtered or the local player unlocked the process.
+     */
+    @Override
+    public boolean isVisible(WorkstationProcess process) {
+        return !isFiltering() || visibility().isUnlocked(localPlayer.getClientEntity(), process);
+    }
+
+    /**
+     * Keeps the workstation processes the local player unlocked.
+     *
+     * @param processes workstation processes of the current index.
+     * @return the unlocked processes in the same order, or processes unchanged if lookups are not filtered.
+     */
+    @Override
+    public Collection<WorkstationProcess> filterVisible(Collection<WorkstationProcess> processes) {
+        if (!isFiltering()) {
+            return processes;
+        }
+        return visibility().filter(localPlayer.getClientEntity(), processes);
+    }
+
+    /**
+     * Keeps the workstation processes the local player unlocked, dropping groups without any.
+     *
+     * @param groups process type groups of the current index.
+     * @return the groups of the unlocked processes, or groups unchanged if lookups are not filtered.
+     */
+    @Override
+    public List<WorkstationProcessIndex.ProcessGroup> filterVisibleGroups(
+            List<WorkstationProcessIndex.ProcessGroup> groups) {
+        if (!isFiltering()) {
+            return groups;
+        }
+        return visibility().filterGroups(localPlayer.getClientEntity(), groups);
+    }
+
+    /**
+     * Adds a listener that is called with the workstation processes whose visibility to the local player changed.
+     *
+     * @param listener the listener to call on the thread that changed the visibility.
+     */
+    @Override
+    public void addVisibilityListener(Consumer<Collection<WorkstationProcess>> listener) {
+        visibilityListeners.add(listener);
+    }
+
+    /**
+     * @return whether {@link WorkstationHelpSettings#isFilterByUnlockedProcesses()} is set.
+     */
+    private boolean isFiltering() {
+        return workstationHelpSettingsManager.getSettings().isFilterByUnlockedProcesses();
+    }
+
+    /**
+     * Gets the unlocks, switched to the current index of the cache first if it was replaced since. Until the cache is
+     * filled, unlocks and locks stay queued.
+     *
+     * @return the unlocks of all players.
+     */
+    private WorkstationProcessVisibility visibility() {
+        if (workstationProcessRelatedAssetCache.getReadyFuture().isDone()) {
+            processVisibility.setIndex(workstationProcessRelatedAssetCache.getWorkstationProcessIndex());
+        }
+        return processVisibility;
+    }
+
+    private void notifyVisibilityChanged(EntityRef player, Collection<WorkstationProcess> changed) {
+        if (!isFiltering() || changed.isEmpty() || !player.equals(localPlayer.getClientEntity())) {
+            return;
+        }
+        for (Consumer<Collection<WorkstationProcess>> listener : visibilityListeners) {
+            listener.accept(changed);
+        }
+    }
+}
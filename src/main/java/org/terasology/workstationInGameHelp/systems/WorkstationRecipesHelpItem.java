@@ -0,0 +1,123 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp.systems;
+
+import org.terasology.engine.rendering.nui.widgets.browser.data.ParagraphData;
+import org.terasology.gestalt.assets.ResourceUrn;
+import org.terasology.workstation.process.WorkstationProcess;
+import org.terasology.workstationInGameHelp.WorkstationProcessIndex;
+import org.terasology.workstationInGameHelp.ui.ProcessParagraphCache;
+import org.terasology.workstationInGameHelp.ui.WorkstationProcesses;
+
+import java.util.List;
+
+/**
+ * Contains help item information for all workstation processes of a process type, i.e., what a workstation can make.
+ */
+public class WorkstationRecipesHelpItem extends ProcessGroupsHelpItem {
+    /**
+     * The process type to list the workstation processes of.
+     */
+    String processType;
+
+    /**
+     * The resource urn of the process type prefab. Used as key in the paragraph cache.
+     */
+    ResourceUrn processTypeUrn;
+
+    /**
+     * Constructor that sets the instance variables with the given parameters.
+     *
+     * @param processType the process type to set.
+     * @param processTypeUrn the resource urn of the process type prefab to set.
+     * @param context what the help items share.
+     */
+    public WorkstationRecipesHelpItem(String processType, ResourceUrn processTypeUrn,
+                                      WorkstationHelpItemContext context) {
+        super(context);
+        this.processType = processType;
+        this.processTypeUrn = processTypeUrn;
+    }
+
+    /**
+     * Gets the title of this help item.
+     *
+     * @return the title of this help item.
+     */
+    @Override
+    public String getTitle() {
+        return "Recipes";
+    }
+
+    /**
+     * Gets the resource urn the paragraphs of this help item are cached under.
+     *
+     * @return the resource urn of the process type prefab.
+     */
+    @Override
+    protected ResourceUrn getCacheKey() {
+        return processTypeUrn;
+    }
+
+    /**
+     * Gets the direction the paragraphs of this help item are cached under.
+     *
+     * @return the process type direction.
+     */
+    @Override
+    protected ProcessParagraphCache.Direction getDirection() {
+        return ProcessParagraphCache.Direction.PROCESS_TYPE;
+    }
+
+    /**
+     * Gets the workstation processes of the process type, grouped by process type.
+     *
+     * @return a list of process type groups.
+     */
+    @Override
+    protected List<WorkstationProcessIndex.ProcessGroup> getProcessGroups() {
+        return context.getWorkstationProcessRelatedAssetCache().getProcessTypeRelatedProcessGroups(processType);
+    }
+
+    /**
+     * Gets the paragraph of a recipe of the workstation.
+     *
+     * @param process the process to describe.
+     * @return the paragraph of the process.
+     */
+    @Override
+    protected ParagraphData getProcessParagraph(WorkstationProcess process) {
+        return WorkstationProcesses.getOutputHelpParagraphs(process);
+    }
+
+    /**
+     * Compares this to another object to see if they are equal.
+     *
+     * @param o the object to compare to.
+     * @return true if the object is also a workstation recipes help item and has the same process type, false if
+     *         otherwise.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof WorkstationRecipesHelpItem)) {
+            return false;
+        }
+
+        WorkstationRecipesHelpItem that = (WorkstationRecipesHelpItem) o;
+
+        return processType.equals(that.processType);
+    }
+
+    /**
+     * Gets the hashcode from processType.
+     *
+     * @return the hashcode of this.
+     */
+    @Override
+    public int hashCode() {
+        return processType.hashCode();
+    }
+}
@@ -0,0 +1,129 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.workstationInGameHelp.ui;
+
+import com.google.common.collect.Iterables;
+import org.terasology.engine.rendering.nui.widgets.browser.data.ParagraphData;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Builds the paragraphs of help pages over several frames, so opening a help item with many recipes does not build
+ * all of their widgets in a single frame.
+ * <p>
+ * A help page shows its first screen of paragraphs right away. The remaining paragraphs are queued and built in
+ * display order by {@link #run(long)}, which is called once per frame with a time budget. Pages are built in the order
+ * they were queued.
+ * </p>
+ */
+public class ProcessParagraphBuildQueue {
+    /** The default number of paragraphs that are built right away, about one screen of the help browser. */
+    public static final int DEFAULT_FIRST_SCREEN_SIZE = 16;
+
+    /** The default time spent building paragraphs per frame. */
+    public static final long DEFAULT_FRAME_BUDGET_NANOS = 2_000_000;
+
+    private final int firstScreenSize;
+
+    /** The queued pages, in queue order, with the number of leading paragraphs to build of each. */
+    private final Map<ProcessParagraphs, Integer> pending = new LinkedHashMap<>();
+
+    /**
+     * Creates a queue that builds firstScreenSize paragraphs of a page right away.
+     *
+     * @param firstScreenSize the number of paragraphs to build right away.
+     */
+    public ProcessParagraphBuildQueue(int firstScreenSize) {
+        this.firstScreenSize = firstScreenSize;
+    }
+
+    /**
+     * Gets the paragraphs to show of a help page. The first screen of paragraphs is built right away; if more of the
+     * count paragraphs are missing, they are queued and a loading paragraph is shown after the built ones.
+     * <p>
+     * The result only holds the paragraphs built so far. Help items call this again on every iteration of their
+     * paragraphs, so the help browser gets the paragraphs built in the meantime whenever it reads the page again,
+     * e.g., after {@link #run(long)} reported the page as built.
+     * </p>
+     *
+     * @param paragraphs the paragraphs of the help page.
+     * @param count the number of leading paragraphs to show.
+     * @return the built paragraphs, in display order, followed by a loading paragraph if some are still missing.
+     */
+    public Iterable<ParagraphData> getFirstParagraphs(ProcessParagraphs paragraphs, int count) {
+        int end = Math.min(count, paragraphs.size());
+        for (int i = 0; i < Math.min(firstScreenSize, end); i++) {
+            paragraphs.get(i);
+        }
+        int built = Math.min(paragraphs.getBuiltCount(), end);
+        Iterable<ParagraphData> shown = paragraphs.page(0, built);
+        if (built >= end) {
+            return shown;
+        }
+        enqueue(paragraphs, end);
+        return Iterables.concat(shown, Collections.singletonList(WorkstationProcesses.getLoadingMoreParagraph()));
+    }
+
+    /**
+     * Queues the first count paragraphs of a help page to be built.
+     *
+     * @param paragraphs the paragraphs of the help page.
+     * @param count the number of leading paragraphs to build.
+     */
+    public synchronized void enqueue(ProcessParagraphs paragraphs, int count) {
+        pending.merge(paragraphs, count, Math::max);
+    }
+
+    /**
+     * Builds queued paragraphs until the budget is used up or the queue is empty.
+     *
+     * @param budgetNanos the time to spend building, in nanoseconds.
+     * @return true if all queued paragraphs of at least one help page were built, so it has to be read again to show
+     *         them.
+     */
+    public boolean run(long budgetNanos) {
+        long deadline = System.nanoTime() + budgetNanos;
+        boolean finished = false;
+        while (true) {
+            ProcessParagraphs paragraphs;
+            int count;
+            synchronized (this) {
+                Iterator<Map.Entry<ProcessParagraphs, Integer>> iterator = pending.entrySet().iterator();
+                if (!iterator.hasNext()) {
+                    return finished;
+                }
+                Map.Entry<ProcessParagraphs, Integer> job = iterator.next();
+                paragraphs = job.getKey();
+                count = job.getValue();
+            }
+            if (!paragraphs.buildUntil(count, deadline)) {
+                return finished;
+            }
+            synchronized (this) {
+                pending.remove(paragraphs, count);
+            }
+            finished = true;
+            if (System.nanoTime() - deadline >= 0) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return the number of queued help pages.
+     */
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    /**
+     * Drops all queued help pages, e.g., when the cached paragraphs were invalidated.
+     */
+    public synchronized void clear() {
+        pending.clear();
+    }
+}
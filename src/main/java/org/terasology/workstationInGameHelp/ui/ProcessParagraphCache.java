@@ -0,0 +1,180 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.workstationInGameHelp.ui;
+
+import org.terasology.gestalt.assets.ResourceUrn;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of the rendered process paragraphs of help items, keyed by resource urn and direction.
+ * <p>
+ * The least recently used entries are evicted once the cache holds too many help pages or their built paragraphs
+ * hold too many icons, as the icon widgets of cached paragraphs stay alive even after they were evicted from the
+ * shared icon cache of {@link WorkstationProcesses}. Entries have to be invalidated explicitly when the set of
+ * processes related to a resource urn changes.
+ * </p>
+ */
+public class ProcessParagraphCache {
+    /** The default number of help pages kept in the cache. */
+    public static final int DEFAULT_MAXIMUM_SIZE = 64;
+
+    /** The default number of icons kept alive by the cached help pages. */
+    public static final int DEFAULT_MAXIMUM_ICONS = 4 * WorkstationProcesses.ICON_CACHE_SIZE;
+
+    /**
+     * Whether the paragraphs list the processes that a resource is used in, the processes that create it, or the
+     * processes of a workstation.
+     */
+    public enum Direction {
+        INPUT,
+        OUTPUT,
+        PROCESS_TYPE
+    }
+
+    private final Map<Key, ProcessParagraphs> paragraphs;
+    private final int maximumIcons;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a cache holding at most maximumSize help pages with at most maximumIcons icons in total. The number of
+     * icons grows as the paragraphs of a cached page are built, so it is checked on every lookup.
+     *
+     * @param maximumSize the maximum number of cached help pages.
+     * @param maximumIcons the maximum number of icons in the built paragraphs of the cached help pages. The page
+     *         that is looked up is kept even if it alone holds more icons.
+     */
+    public ProcessParagraphCache(int maximumSize, int maximumIcons) {
+        this.maximumIcons = maximumIcons;
+        this.paragraphs = new LinkedHashMap<Key, ProcessParagraphs>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, ProcessParagraphs> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Gets the cached paragraphs for resourceUrn and direction, building and caching them if they are not present.
+     *
+     * @param resourceUrn the resource urn of the help item.
+     * @param direction the direction of the help item.
+     * @param builder builds the paragraphs on a cache miss.
+     * @return the paragraphs. Paragraphs that were already built by earlier calls are reused.
+     */
+    public synchronized ProcessParagraphs get(ResourceUrn resourceUrn, Direction direction,
+                                              Supplier<ProcessParagraphs> builder) {
+        Key key = new Key(resourceUrn, direction);
+        ProcessParagraphs result = paragraphs.get(key);
+        if (result == null) {
+            misses.increment();
+            result = builder.get();
+            paragraphs.put(key, result);
+        } else {
+            hits.increment();
+        }
+        evictIcons(key);
+        return result;
+    }
+
+    private void evictIcons(Key kept) {
+        int icons = 0;
+        for (ProcessParagraphs cached : paragraphs.values()) {
+            icons += cached.getIconCount();
+        }
+        // iterates the least recently used entries first
+        Iterator<Map.Entry<Key, ProcessParagraphs>> entries = paragraphs.entrySet().iterator();
+        while (icons > maximumIcons && entries.hasNext()) {
+            Map.Entry<Key, ProcessParagraphs> entry = entries.next();
+            if (!entry.getKey().equals(kept)) {
+                icons -= entry.getValue().getIconCount();
+                entries.remove();
+            }
+        }
+    }
+
+    /**
+     * @return the number of lookups that found cached paragraphs.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of lookups that had to build the paragraphs.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Removes the cached paragraphs of resourceUrn in all directions.
+     *
+     * @param resourceUrn the resource urn whose related processes changed.
+     */
+    public synchronized void invalidate(ResourceUrn resourceUrn) {
+        for (Direction direction : Direction.values()) {
+            paragraphs.remove(new Key(resourceUrn, direction));
+        }
+    }
+
+    /**
+     * Removes the cached paragraphs of resourceUrn in a direction.
+     *
+     * @param resourceUrn the resource urn whose related processes changed.
+     * @param direction the direction to remove the paragraphs of.
+     */
+    public synchronized void invalidate(ResourceUrn resourceUrn, Direction direction) {
+        paragraphs.remove(new Key(resourceUrn, direction));
+    }
+
+    /**
+     * Removes the cached paragraphs of all resource urns in a direction.
+     *
+     * @param direction the direction to remove the paragraphs of.
+     */
+    public synchronized void invalidateAll(Direction direction) {
+        paragraphs.keySet().removeIf(key -> key.direction == direction);
+    }
+
+    /**
+     * Removes all cached paragraphs.
+     */
+    public synchronized void invalidateAll() {
+        paragraphs.clear();
+    }
+
+    private static final class Key {
+        private final ResourceUrn resourceUrn;
+        private final Direction direction;
+
+        Key(ResourceUrn resourceUrn, Direction direction) {
+            this.resourceUrn = resourceUrn;
+            this.direction = direction;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return direction == that.direction && resourceUrn.equals(that.resourceUrn);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(resourceUrn, direction);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.workstationInGameHelp.ui;
+
+import org.terasology.engine.rendering.nui.widgets.browser.data.ParagraphData;
+import org.terasology.workstation.process.DescribeProcess;
+import org.terasology.workstation.process.WorkstationProcess;
+import org.terasology.workstationInGameHelp.WorkstationProcessIndex.ProcessGroup;
+import org.terasology.workstationInGameHelp.metrics.WorkstationHelpMetrics;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Paragraphs of process type groups of workstation processes that are built lazily, when they are first iterated
+ * over. Each group starts with a header paragraph naming its process type, followed by one paragraph per process.
+ * <p>
+ * Built paragraphs are kept, so iterating again does not rebuild them. Use {@link #page(int, int)} to only show a
+ * part of the processes, in which case the paragraphs of the other pages are never built.
+ * </p>
+ */
+public class ProcessParagraphs implements Iterable<ParagraphData> {
+    private final List<ProcessGroup> groups;
+    private final Function<WorkstationProcess, ParagraphData> paragraphFactory;
+    /** The position of the header paragraph of each group, followed by the total number of paragraphs. */
+    private final int[] groupPositions;
+    private final ParagraphData[] paragraphs;
+    /** Records the built paragraphs and their build times, may be null. */
+    private final WorkstationHelpMetrics metrics;
+    /** The number of leading paragraphs that are all built. */
+    private int builtCount;
+    /** The number of process part icons in the built paragraphs. */
+    private int iconCount;
+
+    /**
+     * @param groups the process type groups to show, in display order.
+     * @param paragraphFactory builds the paragraph of a single process, e.g.,
+     *         {@link WorkstationProcesses#getInputHelpParagraphs(WorkstationProcess)}.
+     */
+    public ProcessParagraphs(List<ProcessGroup> groups, Function<WorkstationProcess, ParagraphData> paragraphFactory) {
+        this(groups, paragraphFactory, null);
+    }
+
+    /**
+     * @param groups the process type groups to show, in display order.
+     * @param paragraphFactory builds the paragraph of a single process, e.g.,
+     *         {@link WorkstationProcesses#getInputHelpParagraphs(WorkstationProcess)}.
+     * @param metrics the metrics to record built paragraphs to, or null to not record them.
+     */
+    public ProcessParagraphs(List<ProcessGroup> groups, Function<WorkstationProcess, ParagraphData> paragraphFactory,
+                             WorkstationHelpMetrics metrics) {
+        this.groups = groups;
+        this.paragraphFactory = paragraphFactory;
+        this.metrics = metrics;
+        this.groupPositions = new int[groups.size() + 1];
+        for (int i = 0; i < groups.size(); i++) {
+            groupPositions[i + 1] = groupPositions[i] + 1 + groups.get(i).getProcesses().size();
+        }
+        this.paragraphs = new ParagraphData[groupPositions[groups.size()]];
+    }
+
+    /**
+     * @return the number of paragraphs, including headers and paragraphs that are not built yet.
+     */
+    public int size() {
+        return paragraphs.length;
+    }
+
+    /**
+     * Counts the processes among the first paragraphs.
+     *
+     * @param position the number of paragraphs to look at.
+     * @return the number of process paragraphs before position, not counting the group headers.
+     */
+    public int getProcessCountBefore(int position) {
+        int headers = 0;
+        while (headers < groups.size() && groupPositions[headers] < position) {
+            headers++;
+        }
+        return Math.min(position, size()) - headers;
+    }
+
+    /**
+     * Gets the paragraph at index, building it if it was not built yet.
+     *
+     * @param index the index of the paragraph in display order.
+     * @return the paragraph of a group header or of a process.
+     */
+    public synchronized ParagraphData get(int index) {
+        ParagraphData paragraph = paragraphs[index];
+        if (paragraph == null) {
+            long start = System.nanoTime();
+            int group = Arrays.binarySearch(groupPositions, index);
+            if (group >= 0) {
+                paragraph = WorkstationProcesses.getProcessTypeHeaderParagraph(groups.get(group).getProcessType());
+            } else {
+                group = -group - 2;
+                WorkstationProcess process = groups.get(group).getProcesses().get(index - groupPositions[group] - 1);
+                paragraph = paragraphFactory.apply(process);
+                if (process instanceof DescribeProcess) {
+                    DescribeProcess describeProcess = (DescribeProcess) process;
+                    iconCount += describeProcess.getInputDescriptions().size()
+                            + describeProcess.getOutputDescriptions().size();
+                }
+            }
+            paragraphs[index] = paragraph;
+            while (builtCount < paragraphs.length && paragraphs[builtCount] != null) {
+                builtCount++;
+            }
+            if (metrics != null) {
+                metrics.increment(WorkstationHelpMetrics.PARAGRAPHS_BUILT);
+                metrics.recordSince(WorkstationHelpMetrics.PARAGRAPH_BUILD, start);
+            }
+        }
+        return paragraph;
+    }
+
+    /**
+     * @return the number of leading paragraphs that are built; the paragraph after them is not built yet.
+     */
+    public synchronized int getBuiltCount() {
+        return builtCount;
+    }
+
+    /**
+     * @return the number of process part icons in the built paragraphs, which keep their widgets alive.
+     */
+    public synchronized int getIconCount() {
+        return iconCount;
+    }
+
+    /**
+     * Builds the first paragraphs in display order until count of them are built or the deadline passed. At least one
+     * paragraph is built if any is missing, so repeated calls always make progress.
+     *
+     * @param count the number of leading paragraphs to build.
+     * @param deadlineNanos the {@link System#nanoTime()} at which to stop building.
+     * @return true if the first count paragraphs are built.
+     */
+    public synchronized boolean buildUntil(int count, long deadlineNanos) {
+        int end = Math.min(count, paragraphs.length);
+        while (builtCount < end) {
+            get(builtCount);
+            if (System.nanoTime() - deadlineNanos >= 0) {
+                break;
+            }
+        }
+        return builtCount >= end;
+    }
+
+    /**
+     * Gets a page of the paragraphs. Only the paragraphs of that page are built, as they are iterated over.
+     *
+     * @param pageIndex the index of the page, starting at 0.
+     * @param pageSize the number of paragraphs per page.
+     * @return the paragraphs of the page, empty if the page is past the end.
+     */
+    public Iterable<ParagraphData> page(int pageIndex, int pageSize) {
+        int from = Math.min(size(), pageIndex * pageSize);
+        int to = Math.min(size(), from + pageSize);
+        return () -> new RangeIterator(from, to);
+    }
+
+    @Override
+    public Iterator<ParagraphData> iterator() {
+        return new RangeIterator(0, size());
+    }
+
+    private final class RangeIterator implements Iterator<ParagraphData> {
+        private final int to;
+        private int next;
+
+        RangeIterator(int from, int to) {
+            this.next = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < to;
+        }
+
+        @Override
+        public ParagraphData next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return get(next++);
+        }
+    }
+}
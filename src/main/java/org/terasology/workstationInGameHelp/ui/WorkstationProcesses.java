@@ -4,6 +4,7 @@
 package org.terasology.workstationInGameHelp.ui;
 
 import com.google.common.collect.Lists;
+import org.terasology.gestalt.assets.ResourceUrn;
 import org.terasology.engine.rendering.assets.texture.TextureRegion;
 import org.terasology.engine.rendering.nui.widgets.browser.data.ParagraphData;
 import org.terasology.engine.rendering.nui.widgets.browser.data.basic.FlowParagraphData;
@@ -12,19 +13,168 @@ import org.terasology.engine.rendering.nui.widgets.browser.data.basic.flow.Image
 import org.terasology.engine.rendering.nui.widgets.browser.data.basic.flow.TextFlowRenderable;
 import org.terasology.engine.utilities.Assets;
 import org.terasology.inGameHelpAPI.ui.WidgetFlowRenderable;
+import org.terasology.nui.widgets.UIButton;
 import org.terasology.workstation.process.DescribeProcess;
 import org.terasology.workstation.process.ProcessPartDescription;
 import org.terasology.workstation.process.WorkstationProcess;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collector;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 public final class WorkstationProcesses {
+    private static final String PLUS_TEXTURE = "workstation:plus";
+    private static final String EQUALS_TEXTURE = "workstation:equals";
+
+    /** Resolved renderables of the static textures, shared between all paragraphs. */
+    private static final Map<String, CachedTextureRenderable> TEXTURE_RENDERABLES = new ConcurrentHashMap<>();
+
+    /** Header paragraphs of the process type sections, shared between all help items. */
+    private static final Map<String, ParagraphData> PROCESS_TYPE_HEADERS = new ConcurrentHashMap<>();
+
+    /** Shown instead of the recipes while the process index is still being built. */
+    private static final ParagraphData LOADING_PARAGRAPH = createLoadingParagraph();
+
+    /** Shown after the recipes that are built while the remaining ones are built over the next frames. */
+    private static final ParagraphData LOADING_MORE_PARAGRAPH = createLoadingMoreParagraph();
+
+    private static final int MORE_RECIPES_BUTTON_WIDTH = 128;
+
+    /** The number of icon renderables of process part descriptions kept for reuse. */
+    public static final int ICON_CACHE_SIZE = 512;
+
+    /**
+     * Icon renderables of process part descriptions, shared between all paragraphs. The least recently used ones are
+     * evicted once the cache is full.
+     */
+    private static final Map<IconKey, WidgetFlowRenderable> ICON_RENDERABLES = Collections.synchronizedMap(
+            new LinkedHashMap<IconKey, WidgetFlowRenderable>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<IconKey, WidgetFlowRenderable> eldest) {
+                    return size() > ICON_CACHE_SIZE;
+                }
+            });
+
+    /** Number of widgets built for process part descriptions. */
+    private static final LongAdder WIDGETS_BUILT = new LongAdder();
+
+    /** Number of icon renderables looked up, whether reused or built. */
+    private static final LongAdder ICON_LOOKUPS = new LongAdder();
+
     private WorkstationProcesses() {
     }
 
+    /**
+     * Gets the placeholder paragraph shown while the recipes of a help item are not available yet.
+     *
+     * @return a paragraph with a loading message.
+     */
+    public static ParagraphData getLoadingParagraph() {
+        return LOADING_PARAGRAPH;
+    }
+
+    /**
+     * Gets the placeholder paragraph shown after the first recipes of a help item while the others are being built.
+     *
+     * @return a paragraph with a loading message.
+     */
+    public static ParagraphData getLoadingMoreParagraph() {
+        return LOADING_MORE_PARAGRAPH;
+    }
+
+    /**
+     * Gets the header paragraph of a process type section.
+     *
+     * @param processType the process type of the section.
+     * @return a paragraph titling the section.
+     */
+    public static ParagraphData getProcessTypeHeaderParagraph(String processType) {
+        return PROCESS_TYPE_HEADERS.computeIfAbsent(processType, type -> {
+            FlowParagraphData paragraphData = new FlowParagraphData(null);
+            paragraphData.append(new TextFlowRenderable(type, null, null));
+            return paragraphData;
+        });
+    }
+
+    /**
+     * Gets a paragraph noting that some recipes are not shown, with a button to show the next of them.
+     *
+     * @param count the number of recipes that are not shown.
+     * @param nextCount the number of recipes the button shows.
+     * @param showNext called when the button is activated.
+     * @return a paragraph with the number of hidden recipes and a button to show more.
+     */
+    public static ParagraphData getMoreRecipesParagraph(int count, int nextCount, Runnable showNext) {
+        UIButton button = new UIButton();
+        button.setText("Show next " + nextCount);
+        button.subscribe(widget -> showNext.run());
+
+        FlowParagraphData paragraphData = new FlowParagraphData(null);
+        paragraphData.append(new TextFlowRenderable("... and " + count + " more ", null, null));
+        paragraphData.append(new WidgetFlowRenderable(button, MORE_RECIPES_BUTTON_WIDTH, 24, null));
+        return paragraphData;
+    }
+
+    /**
+     * Gets a paragraph with a quantity of a material followed by its icon, e.g., for the full cost of a resource.
+     *
+     * @param quantity the quantity of the material, fractional if a recipe makes several items at once.
+     * @param description a description of the material, whose icon is shown and links to its help page.
+     * @return a paragraph with the quantity and icon of the material.
+     */
+    public static ParagraphData getMaterialParagraph(double quantity, ProcessPartDescription description) {
+        FlowParagraphData paragraphData = new FlowParagraphData(null);
+        paragraphData.append(new TextFlowRenderable(formatQuantity(quantity) + " x ", null, null));
+        paragraphData.append(renderableFromDescription(description));
+        return paragraphData;
+    }
+
+    /**
+     * Formats a quantity independent of the locale, without decimals if it is whole and with two otherwise.
+     *
+     * @param quantity the quantity to format.
+     * @return the formatted quantity, e.g., "3" or "0.33".
+     */
+    public static String formatQuantity(double quantity) {
+        return quantity == Math.rint(quantity)
+                ? Long.toString((long) quantity)
+                : String.format(Locale.ROOT, "%.2f", quantity);
+    }
+
+    /**
+     * @return the number of widgets built for process part descriptions since the game started.
+     */
+    public static long getWidgetsBuilt() {
+        return WIDGETS_BUILT.sum();
+    }
+
+    /**
+     * @return the number of icon renderables of process part descriptions that were reused since the game started.
+     */
+    public static long getIconsReused() {
+        long built = WIDGETS_BUILT.sum();
+        return ICON_LOOKUPS.sum() - built;
+    }
+
+    private static ParagraphData createLoadingParagraph() {
+        FlowParagraphData paragraphData = new FlowParagraphData(null);
+        paragraphData.append(new TextFlowRenderable("Loading recipes...", null, null));
+        return paragraphData;
+    }
+
+    private static ParagraphData createLoadingMoreParagraph() {
+        FlowParagraphData paragraphData = new FlowParagraphData(null);
+        paragraphData.append(new TextFlowRenderable("Loading more recipes...", null, null));
+        return paragraphData;
+    }
+
     /**
      * Get the paragraph data of crafting recipes for this {@link WorkstationProcess}, printing the outputs first.
      *
@@ -53,6 +203,17 @@ public final class WorkstationProcesses {
         return getParagraphData(process, false);
     }
 
+    /**
+     * Gets the paragraphs of search results, one recipe per process with its inputs first. The paragraphs are built
+     * lazily, as the list is iterated over.
+     *
+     * @param results the processes found, in display order.
+     * @return a list of paragraph data, one per result.
+     */
+    public static List<ParagraphData> getSearchResultParagraphs(List<WorkstationProcess> results) {
+        return Lists.transform(results, WorkstationProcesses::getOutputHelpParagraphs);
+    }
+
     /**
      * Gets the description of the workstation process.
      *
@@ -63,18 +224,13 @@ public final class WorkstationProcesses {
         FlowParagraphData paragraphData = new FlowParagraphData(null);
 
         if (workstationProcess instanceof DescribeProcess) {
-            ImageFlowRenderable plus = renderableFromTexture("workstation:plus");
-            ImageFlowRenderable eq = renderableFromTexture("workstation:equals");
+            ImageFlowRenderable plus = renderableFromTexture(PLUS_TEXTURE);
+            ImageFlowRenderable eq = renderableFromTexture(EQUALS_TEXTURE);
 
             DescribeProcess describeProcess = (DescribeProcess) workstationProcess;
 
-            List<FlowRenderable> inputs = describeProcess.getInputDescriptions().stream()
-                    .map(WorkstationProcesses::renderableFromDescription)
-                    .collect(joining(plus));
-
-            List<FlowRenderable> outputs = describeProcess.getOutputDescriptions().stream()
-                    .map(WorkstationProcesses::renderableFromDescription)
-                    .collect(joining(plus));
+            List<FlowRenderable> inputs = renderablesJoinedBy(describeProcess.getInputDescriptions(), plus);
+            List<FlowRenderable> outputs = renderablesJoinedBy(describeProcess.getOutputDescriptions(), plus);
 
             if (outputFirst) {
                 paragraphData.append(outputs);
@@ -95,46 +251,127 @@ public final class WorkstationProcesses {
     }
 
     /**
-     * Collect a stream to a list by joining the elements with the given delimiter.
+     * Creates the renderables for the given descriptions, joined by delimiter.
      * <p>
-     * The delimiter is only added between elements, not at the start or end of the stream.
-     * </p>
-     * <p>
-     * Given a stream {@code buttons} of UI widgets {@code button1} ... {@code buttonN} joining this stream with another
-     * UI widget {@code spacer} yields a list of spacer-separated buttons:
-     * <pre>
-     *         button1, spacer, button2, spacer, ..., spacer, buttonN
-     *     </pre>
+     * The size of the result is known up front, so the list is allocated once with the exact capacity.
      * </p>
      *
-     * @param delimiter the delimiter to interleave between elements of the stream.
-     * @param <T> the type of elements in the stream
-     * @param <U> the type of the delimiter
-     * @return A {@code Collector} which concatenates stream elements,separated by the specified delimiter, in encounter
-     *         order
-     * @see Collectors#joining(CharSequence)
-     */
-    private static <T, U extends T> Collector<T, ?, ArrayList<T>> joining(U delimiter) {
-        return Collectors.reducing(new ArrayList<>(), Lists::newArrayList, (acc, o) -> {
-            if (!acc.isEmpty()) {
-                acc.add(delimiter);
+     * @param descriptions the descriptions to create renderables for.
+     * @param delimiter the renderable to interleave between the description renderables.
+     * @return the delimiter-separated renderables, in iteration order of descriptions.
+     */
+    private static List<FlowRenderable> renderablesJoinedBy(Collection<ProcessPartDescription> descriptions,
+                                                            FlowRenderable delimiter) {
+        List<FlowRenderable> result = new ArrayList<>(Math.max(0, 2 * descriptions.size() - 1));
+        for (ProcessPartDescription description : descriptions) {
+            if (!result.isEmpty()) {
+                result.add(delimiter);
             }
-            acc.addAll(o);
-            return acc;
-        });
+            result.add(renderableFromDescription(description));
+        }
+        return result;
     }
 
-    //TODO: move this somewhere more accessible, e.g., to WidgetFlowRenderable or FlowRenderables?
+    /**
+     * Gets the shared icon renderable of a description, building it on first use. Descriptions with the same resource
+     * urn and display name, e.g., the same item in different recipes, share one widget.
+     */
     private static WidgetFlowRenderable renderableFromDescription(ProcessPartDescription description) {
+        IconKey key = new IconKey(description.getResourceUrn(), description.getDisplayName());
+        ICON_LOOKUPS.increment();
+        // computeIfAbsent of the synchronized map holds its lock, so each icon is built once
+        return ICON_RENDERABLES.computeIfAbsent(key, k -> createRenderable(description));
+    }
+
+    //TODO: move this somewhere more accessible, e.g., to WidgetFlowRenderable or FlowRenderables?
+    private static WidgetFlowRenderable createRenderable(ProcessPartDescription description) {
         String hyperlink =
                 description.getResourceUrn() != null ? description.getResourceUrn().toString() : null;
+        WIDGETS_BUILT.increment();
         return new WidgetFlowRenderable(description.getWidget(), 48, 48, hyperlink);
     }
 
-    //TODO: move this somewhere more accessible, e.g., to ImageFlowRenderable or FlowRenderables?
+    /**
+     * Drops all icon renderables of process part descriptions, so their widgets are built again on next use, e.g.,
+     * after item icons were reloaded.
+     */
+    public static void clearIconCache() {
+        ICON_RENDERABLES.clear();
+    }
+
+    /**
+     * Drops all resolved texture renderables, so they are looked up again on next use.
+     * <p>
+     * Renderables of disposed or resized textures are re-resolved automatically, this is only needed if a texture
+     * uri should resolve to a different asset, e.g., after the module environment changed.
+     * </p>
+     */
+    public static void clearTextureCache() {
+        TEXTURE_RENDERABLES.clear();
+    }
+
+    /**
+     * Gets the shared renderable of a static texture, resolving it on first use or when the texture was reloaded.
+     */
     private static ImageFlowRenderable renderableFromTexture(String simpleUri) {
-        TextureRegion plusTexture = Assets.getTextureRegion(simpleUri).get();
-        return new ImageFlowRenderable(plusTexture, plusTexture.getWidth(),
-                plusTexture.getWidth(), null);
+        CachedTextureRenderable cached = TEXTURE_RENDERABLES.get(simpleUri);
+        if (cached == null || !cached.isValid()) {
+            cached = new CachedTextureRenderable(Assets.getTextureRegion(simpleUri).get());
+            TEXTURE_RENDERABLES.put(simpleUri, cached);
+        }
+        return cached.renderable;
+    }
+
+    /**
+     * A texture renderable together with the texture region it was created from.
+     */
+    private static final class CachedTextureRenderable {
+        private final TextureRegion texture;
+        private final int width;
+        private final ImageFlowRenderable renderable;
+
+        //TODO: move this somewhere more accessible, e.g., to ImageFlowRenderable or FlowRenderables?
+        CachedTextureRenderable(TextureRegion texture) {
+            this.texture = texture;
+            this.width = texture.getWidth();
+            this.renderable = new ImageFlowRenderable(texture, width, width, null);
+        }
+
+        /**
+         * @return false if the texture was disposed or changed its size since the renderable was created.
+         */
+        boolean isValid() {
+            return !texture.getTexture().isDisposed() && texture.getWidth() == width;
+        }
+    }
+
+    /**
+     * Identifies the icon of a process part description by its resource urn, which may be null, and display name.
+     */
+    private static final class IconKey {
+        private final ResourceUrn resourceUrn;
+        private final String displayName;
+
+        IconKey(ResourceUrn resourceUrn, String displayName) {
+            this.resourceUrn = resourceUrn;
+            this.displayName = displayName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof IconKey)) {
+                return false;
+            }
+            IconKey that = (IconKey) o;
+            return Objects.equals(resourceUrn, that.resourceUrn) && Objects.equals(displayName, that.displayName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(resourceUrn, displayName);
+        }
     }
 }
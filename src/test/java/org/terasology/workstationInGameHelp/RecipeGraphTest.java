@@ -0,0 +1,130 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp;
+
+import org.junit.jupiter.api.Test;
+import org.terasology.gestalt.assets.ResourceUrn;
+import org.terasology.workstation.process.WorkstationProcess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.terasology.workstationInGameHelp.TestProcesses.part;
+import static org.terasology.workstationInGameHelp.TestProcesses.recipe;
+import static org.terasology.workstationInGameHelp.TestProcesses.tag;
+import static org.terasology.workstationInGameHelp.TestProcesses.urn;
+
+public class RecipeGraphTest {
+    private static final String TYPE = "test:workbench";
+
+    private static RecipeGraph graph(WorkstationProcess... processes) {
+        return graph(Arrays.asList(processes));
+    }
+
+    private static RecipeGraph graph(List<WorkstationProcess> processes) {
+        WorkstationProcessIndex.Builder builder = new WorkstationProcessIndex.Builder();
+        processes.forEach(builder::addProcess);
+        return new RecipeGraph(builder.build());
+    }
+
+    @Test
+    public void quantitiesAreScaledByInputAndOutputQuantities() {
+        RecipeGraph graph = graph(
+                recipe("test:plank", TYPE, part(4, "plank"), part(1, "log")),
+                recipe("test:stick", TYPE, part(4, "stick"), part(2, "plank")),
+                recipe("test:table", TYPE, part(1, "table"), part(4, "plank"), part(2, "stick")));
+
+        Map<ResourceUrn, Double> table = graph.getBaseMaterials(urn("table"));
+
+        assertEquals(Collections.singletonList(urn("log")), new ArrayList<>(table.keySet()));
+        // 4 plank = 1 log, 2 stick = 1 plank = 0.25 log
+        assertEquals(1.25, table.get(urn("log")), 1e-9);
+        assertEquals(0.25, graph.getBaseMaterials(urn("plank")).get(urn("log")), 1e-9);
+    }
+
+    @Test
+    public void quantitiesOfTheSameMaterialAreSummed() {
+        RecipeGraph graph = graph(
+                recipe("test:plank", TYPE, part(2, "plank"), part(1, "log")),
+                recipe("test:door", TYPE, part(1, "door"), part(6, "plank"), part(2, "log"), part(1, "hinge")));
+
+        Map<ResourceUrn, Double> door = graph.getBaseMaterials(urn("door"));
+
+        assertEquals(Arrays.asList(urn("log"), urn("hinge")), new ArrayList<>(door.keySet()));
+        assertEquals(5.0, door.get(urn("log")), 1e-9);
+        assertEquals(1.0, door.get(urn("hinge")), 1e-9);
+    }
+
+    @Test
+    public void baseMaterialExpandsToItself() {
+        RecipeGraph graph = graph(recipe("test:plank", TYPE, part(4, "plank"), part(1, "log")));
+
+        assertNull(graph.getRecipe(urn("log")));
+        assertEquals(Collections.singletonMap(urn("log"), 1.0), graph.getBaseMaterials(urn("log")));
+    }
+
+    @Test
+    public void tagInputsAreNotExpanded() {
+        RecipeGraph graph = graph(recipe("test:box", TYPE, part(1, "box"), tag("2 any wood"), part(4, "nail")));
+
+        assertEquals(Collections.singletonMap(urn("nail"), 4.0), graph.getBaseMaterials(urn("box")));
+    }
+
+    @Test
+    public void resourcesOnACycleAreBaseMaterials() {
+        RecipeGraph graph = graph(
+                recipe("test:ingotFromOre", TYPE, part(1, "ingot"), part(2, "ore")),
+                recipe("test:oreFromIngot", TYPE, part(1, "ore"), part(1, "ingot")),
+                recipe("test:sword", TYPE, part(1, "sword"), part(3, "ingot")));
+
+        assertTrue(graph.isCyclic(urn("ingot")));
+        assertTrue(graph.isCyclic(urn("ore")));
+        assertFalse(graph.isCyclic(urn("sword")));
+        assertNull(graph.getRecipe(urn("ingot")));
+        assertNull(graph.getRecipe(urn("ore")));
+        assertEquals(Collections.singletonMap(urn("ingot"), 1.0), graph.getBaseMaterials(urn("ingot")));
+        assertEquals(Collections.singletonMap(urn("ingot"), 3.0), graph.getBaseMaterials(urn("sword")));
+    }
+
+    @Test
+    public void recipeConsumingItsOwnOutputIsCyclic() {
+        RecipeGraph graph = graph(recipe("test:seed", TYPE, part(2, "seed"), part(1, "seed")));
+
+        assertTrue(graph.isCyclic(urn("seed")));
+        assertEquals(Collections.singletonMap(urn("seed"), 1.0), graph.getBaseMaterials(urn("seed")));
+    }
+
+    @Test
+    public void topologicalOrderListsDependenciesFirst() {
+        RecipeGraph graph = graph(
+                recipe("test:table", TYPE, part(1, "table"), part(4, "plank"), part(2, "stick")),
+                recipe("test:stick", TYPE, part(4, "stick"), part(2, "plank")),
+                recipe("test:plank", TYPE, part(4, "plank"), part(1, "log")));
+
+        List<ResourceUrn> order = graph.getTopologicalOrder();
+
+        assertEquals(4, order.size());
+        assertTrue(order.indexOf(urn("log")) < order.indexOf(urn("plank")));
+        assertTrue(order.indexOf(urn("plank")) < order.indexOf(urn("stick")));
+        assertTrue(order.indexOf(urn("stick")) < order.indexOf(urn("table")));
+    }
+
+    @Test
+    public void deepRecipeChainDoesNotOverflowTheStack() {
+        List<WorkstationProcess> processes = new ArrayList<>();
+        int depth = 20_000;
+        for (int i = 1; i <= depth; i++) {
+            processes.add(recipe("test:step" + i, TYPE, part(1, "item" + i), part(1, "item" + (i - 1))));
+        }
+        RecipeGraph graph = graph(processes);
+
+        assertEquals(Collections.singletonMap(urn("item0"), 1.0), graph.getBaseMaterials(urn("item" + depth)));
+    }
+}
@@ -0,0 +1,53 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp;
+
+import org.terasology.engine.entitySystem.prefab.Prefab;
+import org.terasology.engine.entitySystem.prefab.PrefabData;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.registry.In;
+import org.terasology.gestalt.assets.ResourceUrn;
+import org.terasology.gestalt.assets.management.AssetManager;
+import org.terasology.workstation.process.WorkstationProcess;
+import org.terasology.workstation.system.WorkstationRegistry;
+import org.terasology.workstationInGameHelp.components.ParticipateInItemCategoryInGameHelpComponent;
+
+import java.util.Collections;
+
+import static org.terasology.workstationInGameHelp.TestProcesses.part;
+
+/**
+ * Registers a participating workstation and enough processes for it that the encoded index takes several chunks to
+ * send, on the server and on every client alike. Only loaded in the module testing environment.
+ */
+@RegisterSystem
+public class SyntheticProcessesSystem extends BaseComponentSystem {
+    /** The process type of the synthetic processes, also the name of the workstation prefab. */
+    static final String PROCESS_TYPE = "WorkstationInGameHelp:syntheticWorkstation";
+
+    /** The number of synthetic processes. */
+    static final int PROCESS_COUNT = 2000;
+
+    @In
+    AssetManager assetManager;
+
+    @In
+    WorkstationRegistry workstationRegistry;
+
+    /**
+     * Creates the workstation prefab and registers the processes, before the index is built in postBegin.
+     */
+    @Override
+    public void initialise() {
+        PrefabData workstation = new PrefabData();
+        workstation.addComponent(new ParticipateInItemCategoryInGameHelpComponent());
+        assetManager.loadAsset(new ResourceUrn(PROCESS_TYPE), workstation, Prefab.class);
+        for (int i = 0; i < PROCESS_COUNT; i++) {
+            WorkstationProcess process = TestProcesses.process("WorkstationInGameHelp:synthetic" + i, PROCESS_TYPE,
+                    Collections.singletonList(part(2, "syntheticItem" + i / 2)),
+                    Collections.singletonList(part(1, "syntheticItem" + i)));
+            workstationRegistry.registerProcess(PROCESS_TYPE, process);
+        }
+    }
+}
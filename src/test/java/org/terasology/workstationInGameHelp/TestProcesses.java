@@ -0,0 +1,148 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp;
+
+import org.terasology.gestalt.assets.ResourceUrn;
+import org.terasology.workstation.process.DescribeProcess;
+import org.terasology.workstation.process.ProcessPartDescription;
+import org.terasology.workstation.process.WorkstationProcess;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Creates workstation processes that describe their inputs and outputs, without an engine or assets.
+ */
+final class TestProcesses {
+    private TestProcesses() {
+    }
+
+    /**
+     * Creates a process that describes itself with the given parts.
+     *
+     * @param id the id of the process.
+     * @param processType the process type of the process.
+     * @param inputs the descriptions of the inputs.
+     * @param outputs the descriptions of the outputs.
+     * @return the process, implementing {@link WorkstationProcess} and {@link DescribeProcess}.
+     */
+    static WorkstationProcess process(String id, String processType, List<ProcessPartDescription> inputs,
+                                      List<ProcessPartDescription> outputs) {
+        return process(id, processType, inputs, outputs, thread -> { });
+    }
+
+    /**
+     * Creates a process that describes itself with the given parts and reports each thread describing it.
+     *
+     * @param id the id of the process.
+     * @param processType the process type of the process.
+     * @param inputs the descriptions of the inputs.
+     * @param outputs the descriptions of the outputs.
+     * @param describingThreads called with the current thread whenever the process describes its inputs or outputs.
+     * @return the process, implementing {@link WorkstationProcess} and {@link DescribeProcess}.
+     */
+    static WorkstationProcess process(String id, String processType, List<ProcessPartDescription> inputs,
+                                      List<ProcessPartDescription> outputs, Consumer<Thread> describingThreads) {
+        List<ProcessPartDescription> inputDescriptions = Collections.unmodifiableList(new ArrayList<>(inputs));
+        List<ProcessPartDescription> outputDescriptions = Collections.unmodifiableList(new ArrayList<>(outputs));
+        return (WorkstationProcess) Proxy.newProxyInstance(TestProcesses.class.getClassLoader(),
+                new Class<?>[]{WorkstationProcess.class, DescribeProcess.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getId":
+                            return id;
+                        case "getProcessType":
+                            return processType;
+                        case "getInputDescriptions":
+                            describingThreads.accept(Thread.currentThread());
+                            return inputDescriptions;
+                        case "getOutputDescriptions":
+                            describingThreads.accept(Thread.currentThread());
+                            return outputDescriptions;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return id;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    /**
+     * Creates a process with one output.
+     *
+     * @param id the id of the process.
+     * @param processType the process type of the process.
+     * @param output the description of the output.
+     * @param inputs the descriptions of the inputs.
+     * @return the process.
+     */
+    static WorkstationProcess recipe(String id, String processType, ProcessPartDescription output,
+                                     ProcessPartDescription... inputs) {
+        return process(id, processType, Arrays.asList(inputs), Collections.singletonList(output));
+    }
+
+    /**
+     * @param name the name of the resource in the test module.
+     * @return the resource urn of the resource.
+     */
+    static ResourceUrn urn(String name) {
+        return new ResourceUrn("test:" + name);
+    }
+
+    /**
+     * Describes a quantity of a resource the way processes do, e.g., "3 plank".
+     *
+     * @param quantity the quantity.
+     * @param name the name of the resource in the test module.
+     * @return the description.
+     */
+    static ProcessPartDescription part(int quantity, String name) {
+        return new ProcessPartDescription(urn(name), quantity + " " + name);
+    }
+
+    /**
+     * Describes an input that accepts any resource of a tag and has no resource urn.
+     *
+     * @param displayName the display name of the input, e.g., "2 any wood".
+     * @return the description.
+     */
+    static ProcessPartDescription tag(String displayName) {
+        return new ProcessPartDescription(null, displayName);
+    }
+
+    /**
+     * Creates a random catalogue of processes. The same seed always gives the same catalogue.
+     *
+     * @param count the number of processes.
+     * @param resources the number of distinct resources the processes use.
+     * @param processTypes the number of distinct process types.
+     * @param seed the seed of the catalogue.
+     * @return the processes.
+     */
+    static List<WorkstationProcess> catalogue(int count, int resources, int processTypes, long seed) {
+        Random random = new Random(seed);
+        List<WorkstationProcess> processes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<ProcessPartDescription> inputs = new ArrayList<>();
+            for (int input = random.nextInt(4); input >= 0; input--) {
+                inputs.add(random.nextInt(10) == 0
+                        ? tag((1 + random.nextInt(3)) + " tag" + random.nextInt(5))
+                        : part(1 + random.nextInt(3), "item" + random.nextInt(resources)));
+            }
+            List<ProcessPartDescription> outputs = new ArrayList<>();
+            for (int output = random.nextInt(2); output >= 0; output--) {
+                outputs.add(part(1 + random.nextInt(4), "item" + random.nextInt(resources)));
+            }
+            processes.add(process("test:process" + i, "test:type" + random.nextInt(processTypes), inputs, outputs));
+        }
+        return processes;
+    }
+}
@@ -0,0 +1,63 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.terasology.engine.context.Context;
+import org.terasology.engine.registry.In;
+import org.terasology.gestalt.assets.ResourceUrn;
+import org.terasology.moduletestingenvironment.MTEExtension;
+import org.terasology.moduletestingenvironment.ModuleTestingHelper;
+import org.terasology.moduletestingenvironment.extension.Dependencies;
+import org.terasology.workstationInGameHelp.metrics.WorkstationHelpMetrics;
+
+import java.io.IOException;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs a server and a client in the same process to check that the client receives the index of the server, with the
+ * processes of {@link SyntheticProcessesSystem} so that it is sent in several chunks.
+ */
+@Tag("MteTest")
+@ExtendWith(MTEExtension.class)
+@Dependencies("WorkstationInGameHelp")
+public class WorkstationProcessIndexReplicationTest {
+    @In
+    ModuleTestingHelper helper;
+
+    @In
+    WorkstationProcessRelatedAssetCache workstationProcessRelatedAssetCache;
+
+    @Test
+    public void clientReceivesTheIndexOfTheServer() throws IOException {
+        assertTrue(helper.runUntil(() -> workstationProcessRelatedAssetCache.getReadyFuture().isDone()),
+                "the server did not build its index");
+        assertEquals(SyntheticProcessesSystem.PROCESS_COUNT, workstationProcessRelatedAssetCache
+                .getProcessTypeRelatedWorkstationProcesses(SyntheticProcessesSystem.PROCESS_TYPE).size());
+        Context client = helper.createClient();
+        WorkstationProcessRelatedAssetCache clientCache = client.get(WorkstationProcessRelatedAssetCache.class);
+
+        assertTrue(helper.runUntil(() -> clientCache.getReadyFuture().isDone()),
+                "the client did not get an index");
+
+        assertFalse(clientCache.getReadyFuture().isCompletedExceptionally());
+        WorkstationHelpMetrics clientMetrics = client.get(WorkstationHelpMetricsManager.class).getMetrics();
+        assertEquals(0, clientMetrics.getHistogram(WorkstationHelpMetrics.INDEX_BUILD).getCount(),
+                "the client built its own index");
+        assertEquals(new HashSet<>(workstationProcessRelatedAssetCache.getWorkstationProcessTypes()),
+                new HashSet<>(clientCache.getWorkstationProcessTypes()));
+        assertEquals(workstationProcessRelatedAssetCache.getWorkstationProcessIndex().getProcesses().size(),
+                clientCache.getWorkstationProcessIndex().getProcesses().size());
+        assertEquals(SyntheticProcessesSystem.PROCESS_COUNT,
+                clientCache.getProcessTypeRelatedWorkstationProcesses(SyntheticProcessesSystem.PROCESS_TYPE).size());
+        ResourceUrn item = TestProcesses.urn("syntheticItem1");
+        assertEquals(1, clientCache.getOutputRelatedWorkstationProcesses(item).size());
+        assertEquals(2, clientCache.getInputRelatedWorkstationProcesses(item).size());
+    }
+}
@@ -0,0 +1,116 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp;
+
+import org.junit.jupiter.api.Test;
+import org.terasology.workstation.process.WorkstationProcess;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.terasology.workstationInGameHelp.TestProcesses.part;
+import static org.terasology.workstationInGameHelp.TestProcesses.recipe;
+
+public class WorkstationProcessIndexSnapshotTest {
+    private static final List<String> MODULES = Arrays.asList("engine:5.0.0", "workstation:1.0.0");
+
+    private static WorkstationProcessIndex build(List<WorkstationProcess> processes) {
+        WorkstationProcessIndex.Builder builder = new WorkstationProcessIndex.Builder();
+        processes.forEach(builder::addProcess);
+        return builder.build();
+    }
+
+    @Test
+    public void decodeRestoresTheEncodedIndex() {
+        List<WorkstationProcess> processes = TestProcesses.catalogue(500, 120, 5, 7);
+        WorkstationProcessIndex index = build(processes);
+        String fingerprint = WorkstationProcessIndexSnapshot.fingerprint(MODULES, processes);
+
+        byte[] encoded = WorkstationProcessIndexSnapshot.encode(index, fingerprint);
+        Optional<WorkstationProcessIndex> decoded =
+                WorkstationProcessIndexSnapshot.decode(ByteBuffer.wrap(encoded), fingerprint, processes);
+
+        assertTrue(decoded.isPresent());
+        assertArrayEquals(index.getInputOffsets(), decoded.get().getInputOffsets());
+        assertArrayEquals(index.getOutputAdjacency(), decoded.get().getOutputAdjacency());
+        assertArrayEquals(index.getTagAdjacency(), decoded.get().getTagAdjacency());
+        WorkstationProcessIndexTest.assertSameIndex(index, decoded.get());
+    }
+
+    @Test
+    public void decodeRejectsAnotherFingerprint() {
+        List<WorkstationProcess> processes = TestProcesses.catalogue(50, 20, 2, 3);
+        String fingerprint = WorkstationProcessIndexSnapshot.fingerprint(MODULES, processes);
+        byte[] encoded = WorkstationProcessIndexSnapshot.encode(build(processes), fingerprint);
+
+        String otherFingerprint = WorkstationProcessIndexSnapshot.fingerprint(
+                Arrays.asList("engine:5.0.0", "workstation:1.1.0"), processes);
+
+        assertNotEquals(fingerprint, otherFingerprint);
+        assertFalse(WorkstationProcessIndexSnapshot.decode(ByteBuffer.wrap(encoded), otherFingerprint, processes)
+                .isPresent());
+    }
+
+    @Test
+    public void fingerprintChangesWithTheInputsAndOutputs() {
+        WorkstationProcess planks = recipe("test:planks", "test:saw", part(4, "plank"), part(1, "log"));
+        WorkstationProcess morePlanks = recipe("test:planks", "test:saw", part(6, "plank"), part(1, "log"));
+        WorkstationProcess otherLog = recipe("test:planks", "test:saw", part(4, "plank"), part(1, "birchLog"));
+        WorkstationProcess sticks = recipe("test:sticks", "test:saw", part(4, "stick"), part(2, "plank"));
+
+        String fingerprint = WorkstationProcessIndexSnapshot.fingerprint(MODULES, Arrays.asList(planks, sticks));
+
+        assertEquals(fingerprint, WorkstationProcessIndexSnapshot.fingerprint(MODULES, Arrays.asList(sticks, planks)));
+        assertNotEquals(fingerprint,
+                WorkstationProcessIndexSnapshot.fingerprint(MODULES, Arrays.asList(morePlanks, sticks)));
+        assertNotEquals(fingerprint,
+                WorkstationProcessIndexSnapshot.fingerprint(MODULES, Arrays.asList(otherLog, sticks)));
+    }
+
+    @Test
+    public void decodeRejectsMissingProcesses() {
+        List<WorkstationProcess> processes = TestProcesses.catalogue(50, 20, 2, 5);
+        String fingerprint = WorkstationProcessIndexSnapshot.fingerprint(MODULES, processes);
+        byte[] encoded = WorkstationProcessIndexSnapshot.encode(build(processes), fingerprint);
+
+        List<WorkstationProcess> remaining = new ArrayList<>(processes.subList(1, processes.size()));
+
+        assertFalse(WorkstationProcessIndexSnapshot.decode(ByteBuffer.wrap(encoded), fingerprint, remaining)
+                .isPresent());
+    }
+
+    @Test
+    public void decodeRejectsDuplicateTypeAndId() {
+        WorkstationProcess planks = recipe("test:planks", "test:saw", part(4, "plank"), part(1, "log"));
+        WorkstationProcess duplicate = recipe("test:planks", "test:saw", part(2, "plank"), part(1, "log"));
+        List<WorkstationProcess> processes = Arrays.asList(planks, duplicate);
+        String fingerprint = WorkstationProcessIndexSnapshot.fingerprint(MODULES, processes);
+        byte[] encoded = WorkstationProcessIndexSnapshot.encode(build(processes), fingerprint);
+
+        assertFalse(WorkstationProcessIndexSnapshot.decode(ByteBuffer.wrap(encoded), fingerprint, processes)
+                .isPresent());
+        assertFalse(WorkstationProcessIndexSnapshot.decode(ByteBuffer.wrap(encoded), fingerprint,
+                Collections.singletonList(planks)).isPresent());
+    }
+
+    @Test
+    public void decodeRejectsTruncatedData() {
+        List<WorkstationProcess> processes = TestProcesses.catalogue(50, 20, 2, 9);
+        String fingerprint = WorkstationProcessIndexSnapshot.fingerprint(MODULES, processes);
+        byte[] encoded = WorkstationProcessIndexSnapshot.encode(build(processes), fingerprint);
+
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length / 2);
+
+        assertFalse(WorkstationProcessIndexSnapshot.decode(ByteBuffer.wrap(truncated), fingerprint, processes)
+                .isPresent());
+    }
+}
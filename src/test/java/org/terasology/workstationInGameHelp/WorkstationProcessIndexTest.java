@@ -0,0 +1,246 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp;
+
+import com.google.common.collect.Sets;
+import org.junit.jupiter.api.Test;
+import org.terasology.gestalt.assets.ResourceUrn;
+import org.terasology.workstation.process.DescribeProcess;
+import org.terasology.workstation.process.WorkstationProcess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.terasology.workstationInGameHelp.TestProcesses.part;
+import static org.terasology.workstationInGameHelp.TestProcesses.recipe;
+import static org.terasology.workstationInGameHelp.TestProcesses.urn;
+
+public class WorkstationProcessIndexTest {
+    private static WorkstationProcessIndex buildSequential(List<WorkstationProcess> processes) {
+        WorkstationProcessIndex.Builder builder = new WorkstationProcessIndex.Builder();
+        processes.forEach(builder::addProcess);
+        return builder.build();
+    }
+
+    static void assertSameIndex(WorkstationProcessIndex expected, WorkstationProcessIndex actual) {
+        assertEquals(expected.getProcesses(), actual.getProcesses());
+        assertEquals(expected.getResourceUrns(), actual.getResourceUrns());
+        assertEquals(expected.getProcessTypes(), actual.getProcessTypes());
+        assertEquals(expected.getTags(), actual.getTags());
+        for (ResourceUrn resourceUrn : expected.getResourceUrns()) {
+            assertEquals(expected.getInputProcesses(resourceUrn), actual.getInputProcesses(resourceUrn));
+            assertEquals(expected.getOutputProcesses(resourceUrn), actual.getOutputProcesses(resourceUrn));
+        }
+        for (String tag : expected.getTags()) {
+            assertEquals(expected.getTagInputProcesses(tag), actual.getTagInputProcesses(tag));
+        }
+    }
+
+    private static void assertSameGroups(WorkstationProcessIndex expected, WorkstationProcessIndex actual) {
+        for (ResourceUrn resourceUrn : expected.getResourceUrns()) {
+            assertEquals(groupProcesses(expected.getInputProcessGroups(resourceUrn)),
+                    groupProcesses(actual.getInputProcessGroups(resourceUrn)));
+            assertEquals(groupProcesses(expected.getOutputProcessGroups(resourceUrn)),
+                    groupProcesses(actual.getOutputProcessGroups(resourceUrn)));
+        }
+        for (String processType : expected.getProcessTypes()) {
+            assertEquals(expected.getProcessGroupOfType(processType).getProcesses(),
+                    actual.getProcessGroupOfType(processType).getProcesses());
+            assertEquals(Sets.newHashSet(expected.getInputResourceUrnsOfType(processType)),
+                    Sets.newHashSet(actual.getInputResourceUrnsOfType(processType)));
+            assertEquals(Sets.newHashSet(expected.getOutputResourceUrnsOfType(processType)),
+                    Sets.newHashSet(actual.getOutputResourceUrnsOfType(processType)));
+        }
+    }
+
+    private static List<List<WorkstationProcess>> groupProcesses(List<WorkstationProcessIndex.ProcessGroup> groups) {
+        List<List<WorkstationProcess>> result = new ArrayList<>();
+        for (WorkstationProcessIndex.ProcessGroup group : groups) {
+            result.add(new ArrayList<>(group.getProcesses()));
+        }
+        return result;
+    }
+
+    @Test
+    public void parallelBuildIsIdenticalToSequentialBuild() {
+        List<WorkstationProcess> processes = TestProcesses.catalogue(5000, 800, 12, 42);
+        WorkstationProcessIndex sequential = buildSequential(processes);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            WorkstationProcessIndex parallel = WorkstationProcessIndex.buildParallel(processes, pool);
+
+            assertArrayEquals(sequential.getResourceUrnArray(), parallel.getResourceUrnArray());
+            assertArrayEquals(sequential.getProcessArray(), parallel.getProcessArray());
+            assertArrayEquals(sequential.getInputOffsets(), parallel.getInputOffsets());
+            assertArrayEquals(sequential.getInputAdjacency(), parallel.getInputAdjacency());
+            assertArrayEquals(sequential.getOutputOffsets(), parallel.getOutputOffsets());
+            assertArrayEquals(sequential.getOutputAdjacency(), parallel.getOutputAdjacency());
+            assertArrayEquals(sequential.getTagArray(), parallel.getTagArray());
+            assertArrayEquals(sequential.getTagOffsets(), parallel.getTagOffsets());
+            assertArrayEquals(sequential.getTagAdjacency(), parallel.getTagAdjacency());
+            assertSameIndex(sequential, parallel);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void parallelBuildOfSmallCatalogueIsIdenticalToSequentialBuild() {
+        List<WorkstationProcess> processes = TestProcesses.catalogue(100, 30, 3, 7);
+        assertSameIndex(buildSequential(processes), WorkstationProcessIndex.buildParallel(processes,
+                ForkJoinPool.commonPool()));
+    }
+
+    @Test
+    public void parallelBuildDescribesProcessesOnTheCallingThread() {
+        Set<Thread> describingThreads = ConcurrentHashMap.newKeySet();
+        List<WorkstationProcess> processes = new ArrayList<>();
+        for (WorkstationProcess process : TestProcesses.catalogue(3000, 400, 8, 5)) {
+            DescribeProcess describeProcess = (DescribeProcess) process;
+            processes.add(TestProcesses.process(process.getId(), process.getProcessType(),
+                    new ArrayList<>(describeProcess.getInputDescriptions()),
+                    new ArrayList<>(describeProcess.getOutputDescriptions()), describingThreads::add));
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            WorkstationProcessIndex parallel = WorkstationProcessIndex.buildParallel(processes, pool);
+
+            assertEquals(Collections.singleton(Thread.currentThread()), describingThreads);
+            assertSameIndex(buildSequential(processes), parallel);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void withChangesFindsTheSameProcessesAsARebuild() {
+        List<WorkstationProcess> processes = TestProcesses.catalogue(1000, 200, 6, 13);
+        List<WorkstationProcess> added = TestProcesses.catalogue(80, 220, 7, 17);
+        List<WorkstationProcess> removed = new ArrayList<>();
+        List<WorkstationProcess> remaining = new ArrayList<>();
+        for (int i = 0; i < processes.size(); i++) {
+            (i % 7 == 0 ? removed : remaining).add(processes.get(i));
+        }
+        List<WorkstationProcess> expectedProcesses = new ArrayList<>(remaining);
+        expectedProcesses.addAll(added);
+        WorkstationProcessIndex expected = buildSequential(expectedProcesses);
+
+        WorkstationProcessIndex changed = buildSequential(processes).withChanges(added, removed);
+
+        assertSameIndex(expected, changed);
+        assertSameGroups(expected, changed);
+    }
+
+    @Test
+    public void successiveChangesAreTheSameAsARebuild() {
+        List<WorkstationProcess> processes = new ArrayList<>(TestProcesses.catalogue(600, 150, 6, 3));
+        WorkstationProcessIndex changed = buildSequential(processes);
+        for (int step = 0; step < 8; step++) {
+            List<WorkstationProcess> added = TestProcesses.catalogue(40, 180, 8, 100 + step);
+            List<WorkstationProcess> removed = new ArrayList<>();
+            for (int i = step; i < processes.size(); i += 5) {
+                removed.add(processes.get(i));
+            }
+            processes.removeAll(removed);
+            processes.addAll(added);
+
+            changed = changed.withChanges(added, removed);
+
+            WorkstationProcessIndex expected = buildSequential(processes);
+            assertSameIndex(expected, changed);
+            assertSameGroups(expected, changed);
+            assertSameIndex(expected, changed.compact());
+        }
+    }
+
+    @Test
+    public void changeKeepsTheIdsOfTheKeptProcesses() {
+        List<WorkstationProcess> processes = TestProcesses.catalogue(100, 30, 3, 7);
+        WorkstationProcessIndex index = buildSequential(processes);
+
+        WorkstationProcessIndex changed = index.withChanges(TestProcesses.catalogue(5, 30, 3, 8),
+                processes.subList(0, 10));
+
+        for (WorkstationProcess process : processes.subList(10, processes.size())) {
+            assertEquals(index.getProcessId(process), changed.getProcessId(process));
+        }
+        assertNull(changed.getProcessId(processes.get(0)));
+    }
+
+    @Test
+    public void changeSkipsProcessesThatAreAlreadyIndexed() {
+        WorkstationProcess planks = recipe("test:planks", "test:saw", part(4, "plank"), part(1, "log"));
+        WorkstationProcessIndex index = buildSequential(Collections.singletonList(planks));
+
+        WorkstationProcessIndex.Change change = index.change(Collections.singletonList(planks),
+                Collections.emptyList());
+
+        assertTrue(change.isEmpty());
+        assertSame(index, change.getIndex());
+        assertEquals(Collections.singletonList(planks), new ArrayList<>(index.getOutputProcesses(urn("plank"))));
+    }
+
+    @Test
+    public void changeReportsWhatItAffectedAndDropsEmptyResourceUrns() {
+        WorkstationProcess planks = recipe("test:planks", "test:saw", part(4, "plank"), part(1, "log"));
+        WorkstationProcess sticks = recipe("test:sticks", "test:saw", part(4, "stick"), part(2, "plank"));
+        WorkstationProcess ingot = recipe("test:ingot", "test:furnace", part(1, "ingot"), part(2, "ore"));
+        WorkstationProcessIndex index = buildSequential(Arrays.asList(planks, sticks, ingot));
+
+        WorkstationProcessIndex.Change change = index.change(Collections.emptyList(),
+                Collections.singletonList(sticks));
+
+        assertEquals(Collections.singletonList(sticks), change.getRemovedProcesses());
+        assertEquals(Sets.newHashSet(urn("stick"), urn("plank")), change.getAffectedResourceUrns());
+        assertEquals(Collections.singleton("test:saw"), change.getAffectedProcessTypes());
+        WorkstationProcessIndex changed = change.getIndex();
+        assertEquals(Sets.newHashSet(urn("plank"), urn("log"), urn("ingot"), urn("ore")),
+                changed.getResourceUrns());
+        assertEquals(Collections.singletonList(planks), new ArrayList<>(changed.getOutputProcesses(urn("plank"))));
+        assertTrue(changed.getInputProcesses(urn("plank")).isEmpty());
+        assertEquals(Collections.singletonList(urn("log")), changed.getInputResourceUrnsOfType("test:saw"));
+        assertEquals(Collections.singletonList(urn("plank")), changed.getOutputResourceUrnsOfType("test:saw"));
+    }
+
+    @Test
+    public void withChangesLeavesTheOriginalIndexUnchanged() {
+        WorkstationProcess planks = recipe("test:planks", "test:saw", part(4, "plank"), part(1, "log"));
+        WorkstationProcess sticks = recipe("test:sticks", "test:saw", part(4, "stick"), part(2, "plank"));
+        WorkstationProcessIndex index = buildSequential(Collections.singletonList(planks));
+
+        WorkstationProcessIndex changed = index.withChanges(Collections.singletonList(sticks),
+                Collections.singletonList(planks));
+
+        assertEquals(Collections.singletonList(planks), index.getProcesses());
+        assertEquals(Collections.singletonList(planks), new ArrayList<>(index.getInputProcesses(urn("log"))));
+        assertEquals(Collections.singletonList(sticks), changed.getProcesses());
+        assertEquals(Collections.singletonList(sticks), new ArrayList<>(changed.getInputProcesses(urn("plank"))));
+        assertTrue(changed.getInputProcesses(urn("log")).isEmpty());
+        assertTrue(changed.getOutputProcesses(urn("plank")).isEmpty());
+    }
+
+    @Test
+    public void withChangesSkipsProcessesAddedAndRemovedAtOnce() {
+        WorkstationProcess planks = recipe("test:planks", "test:saw", part(4, "plank"), part(1, "log"));
+        WorkstationProcess sticks = recipe("test:sticks", "test:saw", part(4, "stick"), part(2, "plank"));
+        WorkstationProcess unknown = recipe("test:table", "test:bench", part(1, "table"), part(4, "plank"));
+        WorkstationProcessIndex index = buildSequential(Collections.singletonList(planks));
+
+        WorkstationProcessIndex changed = index.withChanges(Collections.singletonList(sticks),
+                Arrays.asList(sticks, unknown));
+
+        assertEquals(Collections.singletonList(planks), changed.getProcesses());
+        assertTrue(changed.getOutputProcesses(urn("stick")).isEmpty());
+        assertEquals(Collections.singletonList("test:saw"), new ArrayList<>(changed.getProcessTypes()));
+    }
+}
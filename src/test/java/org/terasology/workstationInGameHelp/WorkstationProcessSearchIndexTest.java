@@ -0,0 +1,171 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp;
+
+import org.junit.jupiter.api.Test;
+import org.terasology.workstation.process.ProcessPartDescription;
+import org.terasology.workstation.process.WorkstationProcess;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.terasology.workstationInGameHelp.TestProcesses.part;
+import static org.terasology.workstationInGameHelp.TestProcesses.recipe;
+import static org.terasology.workstationInGameHelp.TestProcesses.urn;
+
+public class WorkstationProcessSearchIndexTest {
+    private final WorkstationProcess planks = recipe("test:planks", "test:saw", part(4, "plank"), part(1, "log"));
+    private final WorkstationProcess sticks = recipe("test:sticks", "test:saw", part(4, "stick"), part(2, "plank"));
+    private final WorkstationProcess ingot = recipe("test:ironIngot", "test:furnace",
+            new ProcessPartDescription(urn("ironIngot"), "1 Iron Ingot"), part(2, "ore"));
+    private final WorkstationProcess ironwood = recipe("test:ironwood", "test:saw", part(1, "ironwood"),
+            part(1, "log"));
+
+    private static WorkstationProcessSearchIndex search(WorkstationProcess... processes) {
+        WorkstationProcessIndex.Builder builder = new WorkstationProcessIndex.Builder();
+        Arrays.asList(processes).forEach(builder::addProcess);
+        return new WorkstationProcessSearchIndex(builder.build());
+    }
+
+    @Test
+    public void outputMatchesRankAboveInputMatches() {
+        WorkstationProcessSearchIndex search = search(sticks, planks);
+
+        assertEquals(Arrays.asList(planks, sticks), search.search("plank", 10));
+    }
+
+    @Test
+    public void exactMatchesRankAbovePrefixMatches() {
+        WorkstationProcessSearchIndex search = search(ironwood, ingot);
+
+        assertEquals(Arrays.asList(ingot, ironwood), search.search("iron", 10));
+    }
+
+    @Test
+    public void processTypeMatchesRankBelowOutputMatches() {
+        WorkstationProcess sawdust = recipe("test:sawdust", "test:mill", part(1, "saw"), part(1, "log"));
+        WorkstationProcessSearchIndex search = search(planks, sawdust);
+
+        assertEquals(Arrays.asList(sawdust, planks), search.search("saw", 10));
+    }
+
+    @Test
+    public void wordsAreMatchedByPrefixAndByPartOfThreeOrMoreCharacters() {
+        WorkstationProcessSearchIndex search = search(planks, sticks, ingot);
+
+        assertEquals(Collections.singletonList(ingot), search.search("ing", 10));
+        assertEquals(Collections.singletonList(ingot), search.search("ngot", 10));
+        assertEquals(Collections.emptyList(), search.search("ng", 10));
+    }
+
+    @Test
+    public void allWordsOfTheQueryHaveToMatch() {
+        WorkstationProcessSearchIndex search = search(planks, sticks, ingot, ironwood);
+
+        assertEquals(Collections.singletonList(ironwood), search.search("iron log", 10));
+        assertEquals(Collections.emptyList(), search.search("iron stick", 10));
+    }
+
+    @Test
+    public void camelCaseIdsAreSplitIntoWords() {
+        WorkstationProcessSearchIndex search = search(planks, ingot);
+
+        assertEquals(Arrays.asList("iron", "ingot"), WorkstationProcessSearchIndex.tokenize("test:ironIngot")
+                .subList(1, 3));
+        assertEquals(Collections.singletonList(ingot), search.search("IRON ingot", 10));
+    }
+
+    @Test
+    public void resultsAreLimited() {
+        WorkstationProcessSearchIndex search = search(planks, sticks, ironwood);
+
+        assertEquals(3, search.search("saw", 10).size());
+        assertEquals(2, search.search("saw", 2).size());
+        assertEquals(Collections.emptyList(), search.search("saw", 0));
+    }
+
+    @Test
+    public void builderCollectingInStepsBuildsTheSameSearchIndex() {
+        List<WorkstationProcess> processes = TestProcesses.catalogue(300, 60, 4, 11);
+        WorkstationProcessIndex.Builder indexBuilder = new WorkstationProcessIndex.Builder();
+        processes.forEach(indexBuilder::addProcess);
+        WorkstationProcessIndex index = indexBuilder.build();
+
+        WorkstationProcessSearchIndex.Builder builder = new WorkstationProcessSearchIndex.Builder(index);
+        assertThrows(IllegalStateException.class, builder::build);
+        int steps = 0;
+        // a deadline in the past collects one process per step
+        while (!builder.addTermsUntil(System.nanoTime() - 1)) {
+            steps++;
+        }
+        assertTrue(steps > 0);
+        assertTrue(builder.isComplete());
+        WorkstationProcessSearchIndex stepwise = builder.build();
+        WorkstationProcessSearchIndex direct = new WorkstationProcessSearchIndex(index);
+
+        for (String query : Arrays.asList("item1", "tem2", "type3", "process4 item")) {
+            assertEquals(direct.search(query, 50), stepwise.search(query, 50));
+        }
+        assertFalse(direct.search("item1", 50).isEmpty());
+    }
+
+    @Test
+    public void filterIsAppliedBeforeTheLimit() {
+        WorkstationProcessSearchIndex search = search(planks, sticks, ironwood);
+
+        assertEquals(Collections.singletonList(ironwood), search.search("saw", 1, process -> process == ironwood));
+        assertEquals(Arrays.asList(sticks, ironwood), search.search("saw", 10, process -> process != planks));
+    }
+
+    @Test
+    public void changesFindTheSameProcessesAsARebuild() {
+        List<WorkstationProcess> processes = TestProcesses.catalogue(300, 60, 4, 11);
+        WorkstationProcessIndex.Builder indexBuilder = new WorkstationProcessIndex.Builder();
+        processes.subList(0, 200).forEach(indexBuilder::addProcess);
+        WorkstationProcessIndex index = indexBuilder.build();
+        WorkstationProcessSearchIndex changed = new WorkstationProcessSearchIndex(index);
+
+        for (int step = 0; step < 4; step++) {
+            WorkstationProcessIndex.Change change = changed.getIndex().change(
+                    processes.subList(200 + step * 25, 225 + step * 25), processes.subList(step * 30, step * 30 + 20));
+            changed = changed.withChanges(change);
+            WorkstationProcessSearchIndex rebuilt = new WorkstationProcessSearchIndex(change.getIndex());
+
+            assertEquals(change.getIndex(), changed.getIndex());
+            for (String query : Arrays.asList("item1", "tem2", "type3", "process4 item")) {
+                assertEquals(rebuilt.search(query, 50), changed.search(query, 50));
+            }
+        }
+        assertFalse(changed.needsRebuild());
+    }
+
+    @Test
+    public void removedProcessesAreNotFoundAndReaddedOnesAre() {
+        WorkstationProcessSearchIndex search = search(planks, sticks, ingot);
+
+        WorkstationProcessSearchIndex changed = search.withChanges(search.getIndex().change(
+                Collections.singletonList(ironwood), Collections.singletonList(planks)));
+        assertEquals(Collections.singletonList(sticks), changed.search("plank", 10));
+        assertEquals(Arrays.asList(ingot, ironwood), changed.search("iron", 10));
+        assertEquals(Arrays.asList(planks, sticks), search.search("plank", 10));
+
+        WorkstationProcessSearchIndex readded = changed.withChanges(changed.getIndex().change(
+                Collections.singletonList(planks), Collections.emptyList()));
+        assertEquals(Arrays.asList(planks, sticks), readded.search("plank", 10));
+    }
+
+    @Test
+    public void manyRemovedProcessesNeedARebuild() {
+        WorkstationProcessSearchIndex search = search(planks, sticks, ingot);
+
+        WorkstationProcessSearchIndex changed = search.withChanges(search.getIndex().change(
+                Collections.emptyList(), Arrays.asList(planks, sticks)));
+        assertTrue(changed.needsRebuild());
+        assertEquals(Collections.singletonList(ingot), changed.search("ingot", 10));
+    }
+}
@@ -0,0 +1,112 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.workstationInGameHelp;
+
+import org.junit.jupiter.api.Test;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.workstation.process.WorkstationProcess;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.terasology.workstationInGameHelp.TestProcesses.part;
+import static org.terasology.workstationInGameHelp.TestProcesses.recipe;
+
+public class WorkstationProcessVisibilityTest {
+    private static final EntityRef PLAYER = EntityRef.NULL;
+
+    private final WorkstationProcess planks = recipe("test:planks", "test:saw", part(4, "plank"), part(1, "log"));
+    private final WorkstationProcess sticks = recipe("test:sticks", "test:saw", part(4, "stick"), part(2, "plank"));
+    private final WorkstationProcess table = recipe("test:table", "test:bench", part(1, "table"), part(4, "plank"));
+
+    private static WorkstationProcessIndex build(WorkstationProcess... processes) {
+        WorkstationProcessIndex.Builder builder = new WorkstationProcessIndex.Builder();
+        Arrays.asList(processes).forEach(builder::addProcess);
+        return builder.build();
+    }
+
+    @Test
+    public void unlocksBeforeTheFirstIndexAreAppliedOnceItIsSet() {
+        WorkstationProcessVisibility visibility = new WorkstationProcessVisibility();
+
+        assertEquals(Collections.singletonList(planks), visibility.unlock(PLAYER, Collections.singletonList(planks)));
+        visibility.setIndex(build(planks, sticks));
+
+        assertTrue(visibility.isUnlocked(PLAYER, planks));
+        assertFalse(visibility.isUnlocked(PLAYER, sticks));
+        assertEquals(Collections.singletonList(planks), visibility.filter(PLAYER, Arrays.asList(planks, sticks)));
+    }
+
+    @Test
+    public void laterQueuedChangeOfAProcessReplacesTheEarlierOne() {
+        WorkstationProcessVisibility visibility = new WorkstationProcessVisibility();
+
+        visibility.unlock(PLAYER, Arrays.asList(planks, sticks));
+        assertEquals(Collections.singletonList(sticks), visibility.lock(PLAYER, Collections.singletonList(sticks)));
+        assertEquals(Collections.emptyList(), visibility.lock(PLAYER, Collections.singletonList(table)));
+        visibility.setIndex(build(planks, sticks, table));
+
+        assertTrue(visibility.isUnlocked(PLAYER, planks));
+        assertFalse(visibility.isUnlocked(PLAYER, sticks));
+        assertFalse(visibility.isUnlocked(PLAYER, table));
+    }
+
+    @Test
+    public void queuedProcessesMissingFromTheFirstIndexAreDropped() {
+        WorkstationProcessVisibility visibility = new WorkstationProcessVisibility();
+
+        visibility.unlock(PLAYER, Arrays.asList(planks, table));
+        visibility.setIndex(build(planks));
+        visibility.setIndex(build(planks, table));
+
+        assertTrue(visibility.isUnlocked(PLAYER, planks));
+        assertFalse(visibility.isUnlocked(PLAYER, table));
+    }
+
+    @Test
+    public void forgettingAPlayerDropsItsQueuedChanges() {
+        WorkstationProcessVisibility visibility = new WorkstationProcessVisibility();
+
+        visibility.unlock(PLAYER, Collections.singletonList(planks));
+        assertEquals(1, visibility.getPlayerCount());
+        assertEquals(Collections.singletonList(planks), visibility.forget(PLAYER));
+        visibility.setIndex(build(planks));
+
+        assertFalse(visibility.isUnlocked(PLAYER, planks));
+        assertEquals(0, visibility.getPlayerCount());
+    }
+
+    @Test
+    public void emptyFirstIndexEndsQueueing() {
+        WorkstationProcessVisibility visibility = new WorkstationProcessVisibility();
+
+        visibility.unlock(PLAYER, Collections.singletonList(planks));
+        visibility.setIndex(WorkstationProcessIndex.EMPTY);
+        visibility.setIndex(build(planks));
+
+        assertFalse(visibility.isUnlocked(PLAYER, planks));
+        visibility.unlock(PLAYER, Collections.singletonList(planks));
+        assertTrue(visibility.isUnlocked(PLAYER, planks));
+    }
+
+    @Test
+    public void unlocksAreKeptWhenTheIndexChanges() {
+        WorkstationProcessVisibility visibility = new WorkstationProcessVisibility();
+        WorkstationProcessIndex index = build(planks, sticks);
+        visibility.setIndex(index);
+        visibility.unlock(PLAYER, Collections.singletonList(sticks));
+
+        WorkstationProcessIndex changed = index.withChanges(Collections.singletonList(table),
+                Collections.singletonList(planks));
+        visibility.setIndex(changed);
+
+        assertTrue(visibility.isUnlocked(PLAYER, sticks));
+        assertFalse(visibility.isUnlocked(PLAYER, table));
+        List<WorkstationProcess> visible = visibility.filter(PLAYER, changed.getProcesses());
+        assertEquals(Collections.singletonList(sticks), visible);
+    }
+}